@@ -0,0 +1,117 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.uofantarctica.jndn.helpers.FaceSecurity;
+import com.uofantarctica.jndn.sync_test_framework.Chatter;
+import com.uofantarctica.jndn.sync_test_framework.EventRecorder;
+import com.uofantarctica.jndn.sync_test_framework.ReceiptMatrix;
+import com.uofantarctica.jndn.sync_test_framework.Roster;
+import com.uofantarctica.jndn.sync_test_framework.SyncAdapter;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A chatter on a {@link StubFace} that counts receipts like TestChatChatter,
+ * with its sync replaced by a counter: publishing only bumps the sequence
+ * number, so the benchmarks measure the chatter and not the sync. Like
+ * ChronoSync it does not deliver Data, so the chatter answers chat
+ * Interests itself.
+ */
+public class BenchmarkChatter extends Chatter {
+	public static final String BROADCAST_BASE_NAME = "/ndn/broadcast/sync-simulation-test";
+	public static final String CHAT_ROOM = "ndnchat";
+	public static final Name HUB_PREFIX = new Name("/ndn/broadcast/chat-room");
+
+	private final ReceiptMatrix receipts;
+
+	/**
+	 * @param messages The messages recordMessageReceipt counts.
+	 */
+	public BenchmarkChatter(String screenName, StubFace face, FaceSecurity.SecurityData securityData,
+			List<String> messages) {
+		super(screenName, BROADCAST_BASE_NAME, CHAT_ROOM, HUB_PREFIX, face, securityData.keyChain,
+			securityData.certificateName, new EventRecorder(), context -> new CountingSync());
+		receipts = new ReceiptMatrix(ReceiptMatrix.indexMessages(messages));
+	}
+
+	/**
+	 * @return count distinct chat messages.
+	 */
+	public static List<String> newMessages(int count) {
+		List<String> messages = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			messages.add("benchmark message " + i);
+		}
+		return messages;
+	}
+
+	/**
+	 * Sign the chat Data when it is published rather than on every Interest.
+	 * Takes effect for messages published from now on.
+	 */
+	public void setPreEncodeData(boolean preEncodeData) {
+		preEncodeData_ = preEncodeData;
+	}
+
+	public Name getChatPrefix() {
+		return chatPrefix_;
+	}
+
+	public long getSession() {
+		return session_;
+	}
+
+	public ReceiptMatrix getReceipts() {
+		return receipts;
+	}
+
+	@Override
+	public void recordMessageReceipt(String from, String msg) {
+		Roster.Member member = roster_.get(from);
+		if (member != null) {
+			receipts.record(member.getNameAndSession(), msg);
+		}
+	}
+
+	@Override
+	public void updateUser(String oldName, String newName) {
+		receipts.rename(oldName, newName);
+	}
+
+	@Override
+	public void addUser(String name) {
+		if (receipts.getProducer(name) < 0) {
+			receipts.addProducer(name);
+		}
+	}
+
+	private static class CountingSync implements SyncAdapter {
+		private long sequenceNo = 0;
+
+		@Override
+		public void publishNextMessage(Data data) {
+		}
+
+		@Override
+		public long getProducerSequenceNo(String prefix_, long sessionNo_) {
+			return -1;
+		}
+
+		@Override
+		public void publishNextSequenceNo() {
+			++sequenceNo;
+		}
+
+		@Override
+		public long getSequenceNo() {
+			return sequenceNo;
+		}
+
+		@Override
+		public int getNumProducers() {
+			return -1;
+		}
+	}
+}
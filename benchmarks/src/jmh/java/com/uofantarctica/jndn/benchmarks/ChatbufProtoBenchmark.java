@@ -0,0 +1,43 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.uofantarctica.jndn.proto.ChatbufProto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encoding and decoding the chat message every chat Data carries.
+ */
+@State(Scope.Thread)
+public class ChatbufProtoBenchmark {
+	private static final String FROM = "producer";
+	private static final String TO = "ndnchat";
+	private static final String MESSAGE = "benchmark message 0";
+	private static final long TIMESTAMP = 1539820800000000L;
+
+	private byte[] encoding;
+
+	@Setup
+	public void setUp() {
+		encoding = encode();
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return ChatbufProto.ChatMessage.newBuilder()
+			.setFrom(FROM)
+			.setTo(TO)
+			.setType(ChatbufProto.ChatMessage.ChatMessageType.CHAT)
+			.setData(MESSAGE)
+			.setTimestamp(TIMESTAMP)
+			.build()
+			.toByteArray();
+	}
+
+	@Benchmark
+	public ChatbufProto.ChatMessage decode() throws InvalidProtocolBufferException {
+		return ChatbufProto.ChatMessage.parseFrom(encoding);
+	}
+}
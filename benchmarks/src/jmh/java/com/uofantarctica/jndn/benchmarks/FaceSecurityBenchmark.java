@@ -0,0 +1,44 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.uofantarctica.jndn.helpers.FaceSecurity;
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.RsaKeyParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * What setting up a face's keys costs: importing the shared default
+ * identity into a new KeyChain, generating a participant's own RSA
+ * identity, and handing a face the cached default identity, which is all
+ * every face but the first pays.
+ */
+@State(Scope.Thread)
+public class FaceSecurityBenchmark {
+	private static final Name IDENTITY = new Name("/benchmark/participant");
+
+	private StubFace face;
+
+	@Setup
+	public void setUp() throws Exception {
+		face = new StubFace();
+		SecurityContextCache.getDefault().getDefaultIdentity();
+	}
+
+	@Benchmark
+	public FaceSecurity.SecurityData importDefaultIdentity() throws Exception {
+		return new SecurityContextCache(new RsaKeyParams()).getDefaultIdentity();
+	}
+
+	@Benchmark
+	public FaceSecurity.SecurityData createIdentity() throws Exception {
+		return new SecurityContextCache(new RsaKeyParams()).getIdentity(IDENTITY);
+	}
+
+	@Benchmark
+	public FaceSecurity.SecurityData initFaceAndGetSecurityData() {
+		return FaceSecurity.initFaceAndGetSecurityData(face);
+	}
+}
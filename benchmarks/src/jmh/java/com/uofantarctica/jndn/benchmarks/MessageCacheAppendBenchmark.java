@@ -0,0 +1,41 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * A producer publishing a chat message: with the sync stubbed out this is
+ * messageCacheAppend, which builds the message, signs its Data when
+ * preEncodeData is set and evicts the oldest message from the full cache.
+ */
+@State(Scope.Thread)
+public class MessageCacheAppendBenchmark {
+	private static final int MESSAGES = 64;
+
+	@Param({"true", "false"})
+	public boolean preEncodeData;
+
+	private BenchmarkChatter producer;
+	private List<String> messages;
+	private int next = 0;
+
+	@Setup
+	public void setUp() throws Exception {
+		messages = BenchmarkChatter.newMessages(MESSAGES);
+		producer = new BenchmarkChatter("producer", new StubFace(), SecurityContextCache.getDefault().getDefaultIdentity(),
+			messages);
+		producer.setPreEncodeData(preEncodeData);
+	}
+
+	@Benchmark
+	public BenchmarkChatter messageCacheAppend() {
+		producer.sendMessage(messages.get(next++ & (MESSAGES - 1)));
+		return producer;
+	}
+}
@@ -0,0 +1,53 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.uofantarctica.jndn.helpers.FaceSecurity;
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import com.uofantarctica.jndn.sync_test_framework.SyncStateCoalescer;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * A consumer receiving a chat Data: parsing the message, updating the
+ * roster and the liveness timer of its producer and counting the receipt.
+ */
+@State(Scope.Thread)
+public class OnDataBenchmark {
+	private static final int MESSAGES = 64;
+
+	private BenchmarkChatter consumer;
+	private final Interest[] interests = new Interest[MESSAGES];
+	private final Data[] data = new Data[MESSAGES];
+	private int next = 0;
+
+	@Setup
+	public void setUp() throws Exception {
+		FaceSecurity.SecurityData securityData = SecurityContextCache.getDefault().getDefaultIdentity();
+		List<String> messages = BenchmarkChatter.newMessages(MESSAGES);
+		StubFace producerFace = new StubFace();
+		BenchmarkChatter producer = new BenchmarkChatter("producer", producerFace, securityData, messages);
+		for (String message : messages) {
+			producer.sendMessage(message);
+		}
+		for (int i = 0; i < MESSAGES; ++i) {
+			interests[i] = new Interest(SyncStateCoalescer.makeDataName(producer.getChatPrefix(),
+				producer.getSession(), i + 1));
+			producer.onInterest(producer.getChatPrefix(), interests[i], producerFace, 0, null);
+			data[i] = new Data();
+			data[i].wireDecode(producerFace.getLastSent());
+		}
+		consumer = new BenchmarkChatter("consumer", new StubFace(), securityData, messages);
+	}
+
+	@Benchmark
+	public BenchmarkChatter onData() {
+		int i = next++ & (MESSAGES - 1);
+		consumer.onData(interests[i], data[i]);
+		return consumer;
+	}
+}
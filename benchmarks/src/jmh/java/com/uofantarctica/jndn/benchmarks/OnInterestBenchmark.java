@@ -0,0 +1,54 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import com.uofantarctica.jndn.sync_test_framework.SyncStateCoalescer;
+import net.named_data.jndn.Interest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A producer answering the Interest for one of its cached chat messages:
+ * the cache lookup, and either sending the bytes signed at publish time or
+ * building and signing the Data on the spot.
+ */
+@State(Scope.Thread)
+public class OnInterestBenchmark {
+	// Fits the chatter's default message cache.
+	private static final int MESSAGES = 64;
+
+	@Param({"true", "false"})
+	public boolean preEncodeData;
+
+	private StubFace face;
+	private BenchmarkChatter producer;
+	private final Interest[] interests = new Interest[MESSAGES];
+	private int next = 0;
+
+	@Setup
+	public void setUp() throws Exception {
+		face = new StubFace();
+		producer = new BenchmarkChatter("producer", face, SecurityContextCache.getDefault().getDefaultIdentity(),
+			BenchmarkChatter.newMessages(MESSAGES));
+		producer.setPreEncodeData(preEncodeData);
+		for (String message : BenchmarkChatter.newMessages(MESSAGES)) {
+			producer.sendMessage(message);
+		}
+		// The JOIN took sequence number 0.
+		for (int i = 0; i < MESSAGES; ++i) {
+			interests[i] = new Interest(SyncStateCoalescer.makeDataName(producer.getChatPrefix(),
+				producer.getSession(), i + 1));
+		}
+	}
+
+	@Benchmark
+	public ByteBuffer onInterest() {
+		Interest interest = interests[next++ & (MESSAGES - 1)];
+		producer.onInterest(producer.getChatPrefix(), interest, face, 0, null);
+		return face.getLastSent();
+	}
+}
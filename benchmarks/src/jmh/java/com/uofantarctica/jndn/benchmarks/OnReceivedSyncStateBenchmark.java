@@ -0,0 +1,64 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import com.uofantarctica.jndn.sync_test_framework.FetchPipeline;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.sync.ChronoSync2013;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A consumer handling a sync update that announces one new message from
+ * each of producers producers: coalescing the states, expressing the
+ * Interests and, as every Interest is answered, the fetch pipeline's
+ * bookkeeping. Building the update is included, as ChronoSync builds the
+ * same list before calling back.
+ */
+@State(Scope.Thread)
+public class OnReceivedSyncStateBenchmark {
+	private static final long SESSION = 1;
+
+	@Param({"1", "10", "100"})
+	public int producers;
+
+	private StubFace face;
+	private BenchmarkChatter consumer;
+	private String[] dataPrefixes;
+	private long sequenceNo = 0;
+
+	@Setup
+	public void setUp() throws Exception {
+		face = new StubFace();
+		consumer = new BenchmarkChatter("consumer", face, SecurityContextCache.getDefault().getDefaultIdentity(),
+			BenchmarkChatter.newMessages(1));
+		dataPrefixes = new String[producers];
+		for (int i = 0; i < producers; ++i) {
+			dataPrefixes[i] = new Name(BenchmarkChatter.HUB_PREFIX).append(BenchmarkChatter.CHAT_ROOM)
+				.append("producer" + i).toUri();
+		}
+	}
+
+	@Benchmark
+	public FetchPipeline onReceivedSyncState() {
+		++sequenceNo;
+		List<ChronoSync2013.SyncState> syncStates = new ArrayList<>(producers);
+		for (String dataPrefix : dataPrefixes) {
+			syncStates.add(new ChronoSync2013.SyncState(dataPrefix, SESSION, sequenceNo, null));
+		}
+		consumer.onReceivedSyncState(syncStates, false);
+
+		FetchPipeline fetchPipeline = consumer.getFetchPipeline();
+		List<Name> expressed = face.getExpressed();
+		for (int i = 0; i < expressed.size(); ++i) {
+			fetchPipeline.onData(expressed.get(i));
+		}
+		expressed.clear();
+		return fetchPipeline;
+	}
+}
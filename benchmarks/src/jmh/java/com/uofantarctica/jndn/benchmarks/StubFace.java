@@ -0,0 +1,92 @@
+package com.uofantarctica.jndn.benchmarks;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.ForwardingFlags;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.OnData;
+import net.named_data.jndn.OnInterestCallback;
+import net.named_data.jndn.OnNetworkNack;
+import net.named_data.jndn.OnRegisterFailed;
+import net.named_data.jndn.OnRegisterSuccess;
+import net.named_data.jndn.OnTimeout;
+import net.named_data.jndn.encoding.WireFormat;
+import net.named_data.jndn.transport.TcpTransport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Face that never touches the network, so a benchmark measures only the
+ * code calling it. Registrations succeed at once, expressed Interests are
+ * collected in {@link #getExpressed()}, the last packet sent is kept for
+ * {@link #getLastSent()} and callLater drops its callback: no timer fires.
+ */
+public class StubFace extends Face {
+	private final List<Name> expressed = new ArrayList<>();
+	private ByteBuffer lastSent;
+	private long nextId = 0;
+
+	public StubFace() {
+		super(new TcpTransport(), new TcpTransport.ConnectionInfo("localhost"));
+	}
+
+	@Override
+	public long expressInterest(Interest interest, OnData onData, OnTimeout onTimeout, OnNetworkNack onNetworkNack,
+			WireFormat wireFormat) {
+		expressed.add(interest.getName());
+		return ++nextId;
+	}
+
+	@Override
+	public long expressInterest(Name name, Interest interestTemplate, OnData onData, OnTimeout onTimeout,
+			OnNetworkNack onNetworkNack, WireFormat wireFormat) {
+		expressed.add(name);
+		return ++nextId;
+	}
+
+	@Override
+	public long registerPrefix(Name prefix, OnInterestCallback onInterest, OnRegisterFailed onRegisterFailed,
+			OnRegisterSuccess onRegisterSuccess, ForwardingFlags flags, WireFormat wireFormat) {
+		long registeredPrefixId = ++nextId;
+		if (onRegisterSuccess != null) {
+			onRegisterSuccess.onRegisterSuccess(prefix, registeredPrefixId);
+		}
+		return registeredPrefixId;
+	}
+
+	@Override
+	public void putData(Data data, WireFormat wireFormat) {
+		lastSent = data.wireEncode(wireFormat).buf();
+	}
+
+	@Override
+	public void send(ByteBuffer encoding) {
+		lastSent = encoding;
+	}
+
+	@Override
+	public void processEvents() {
+	}
+
+	@Override
+	public void callLater(double delayMilliseconds, Runnable callback) {
+	}
+
+	/**
+	 * @return The names of the Interests expressed so far. Clear it to start
+	 * over.
+	 */
+	public List<Name> getExpressed() {
+		return expressed;
+	}
+
+	/**
+	 * @return The wire encoding of the last Data put or packet sent, or null.
+	 */
+	public ByteBuffer getLastSent() {
+		return lastSent;
+	}
+}
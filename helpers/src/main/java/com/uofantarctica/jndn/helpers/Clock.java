@@ -0,0 +1,12 @@
+package com.uofantarctica.jndn.helpers;
+
+/**
+ * Source of the current time for event loops, forwarders and chatters, so a
+ * simulation can run against the wall clock or a {@link VirtualClock}.
+ */
+public interface Clock {
+	/**
+	 * @return The current time in milliseconds since 1/1/1970.
+	 */
+	double getNowMilliseconds();
+}
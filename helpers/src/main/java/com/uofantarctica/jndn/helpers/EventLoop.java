@@ -0,0 +1,331 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.transport.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One thread that drives any number of {@link ReactorFace}s. It sleeps until a
+ * face's transport signals incoming packets, a task is submitted or the next
+ * timer is due, instead of spinning on processEvents. Faces whose transport
+ * cannot signal are polled every pollIntervalMillis.
+ *
+ * With a {@link VirtualClock} the loop is a discrete event simulator: once
+ * there is nothing left to do at the current time and no actor is running, it
+ * jumps the clock straight to the next timer. Actors are threads outside the
+ * loop (e.g. chat participants) that wait through {@link #sleep} and
+ * {@link #invokeAndWait}; they must be counted with {@link #registerActor}
+ * before they start and {@link #deregisterActor} when they are done, so the
+ * loop never moves time while one of them still has work to do.
+ */
+public class EventLoop implements Runnable {
+	private static final Logger log = LoggerFactory.getLogger(EventLoop.class);
+	private static final long IDLE_PARK_MILLIS = 1000;
+
+	private final Thread thread;
+	private final long pollIntervalMillis;
+	private final Clock clock;
+	private final VirtualClock virtualClock;
+	private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<ReactorFace> readyFaces = new ConcurrentLinkedQueue<>();
+	private final List<ReactorFace> polledFaces = new CopyOnWriteArrayList<>();
+	private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+	private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+	private final AtomicInteger runningActors = new AtomicInteger(0);
+	private volatile boolean running = true;
+	private long timerSequence = 0;
+	private double nextPollTime = 0;
+
+	public EventLoop(String name, long pollIntervalMillis) {
+		this(name, pollIntervalMillis, SystemClock.INSTANCE);
+	}
+
+	public EventLoop(String name, long pollIntervalMillis, Clock clock) {
+		this.pollIntervalMillis = pollIntervalMillis;
+		this.clock = clock;
+		this.virtualClock = clock instanceof VirtualClock ? (VirtualClock) clock : null;
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+	}
+
+	public void start() {
+		thread.start();
+	}
+
+	public Clock getClock() {
+		return clock;
+	}
+
+	public boolean isVirtualTime() {
+		return virtualClock != null;
+	}
+
+	void register(final ReactorFace face, Transport transport) {
+		if (transport instanceof SignalingTransport) {
+			((SignalingTransport) transport).setOnReceive(() -> signalReady(face));
+		}
+		else if (isVirtualTime()) {
+			throw new IllegalStateException("Virtual time needs a SignalingTransport such as the loopback transport, got "
+					+ transport.getClass().getName());
+		}
+		else {
+			polledFaces.add(face);
+			wakeup();
+		}
+	}
+
+	public void execute(Runnable task) {
+		tasks.add(task);
+		wakeup();
+	}
+
+	public void schedule(Runnable task, double delayMilliseconds) {
+		Timer timer;
+		synchronized (timers) {
+			timer = new Timer(clock.getNowMilliseconds() + Math.max(0, delayMilliseconds), ++timerSequence, task);
+			timers.add(timer);
+			if (timers.peek() != timer) {
+				return;
+			}
+		}
+		if (!inEventLoop()) {
+			wakeup();
+		}
+	}
+
+	/**
+	 * Run task on this loop and wait for it to finish. Runs it directly if
+	 * called from the loop itself. In virtual time the caller must be a
+	 * registered actor.
+	 */
+	public void invokeAndWait(Runnable task) throws Exception {
+		if (inEventLoop()) {
+			task.run();
+			return;
+		}
+		final FutureTask<Void> future = new FutureTask<>(task, null);
+		if (isVirtualTime()) {
+			// Queue the task before parking, so time cannot move on in between,
+			// and count the actor as running again before releasing it.
+			execute(() -> {
+				runningActors.incrementAndGet();
+				future.run();
+			});
+			parkActor();
+		}
+		else {
+			execute(future);
+		}
+		try {
+			future.get();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof Exception ? (Exception) cause : e;
+		}
+	}
+
+	/**
+	 * Block the calling thread for the given number of milliseconds of this
+	 * loop's clock, until a timer on the loop releases it. Only for threads
+	 * outside the loop that have nothing else to do, such as a participant
+	 * with a thread of its own; code on the loop schedules what comes next
+	 * instead. In virtual time the caller must be a registered actor.
+	 */
+	public void sleep(long milliseconds) throws InterruptedException {
+		if (inEventLoop()) {
+			throw new IllegalStateException("sleeping on the event loop would stop it, schedule the rest instead");
+		}
+		final CountDownLatch wake = new CountDownLatch(1);
+		if (!isVirtualTime()) {
+			schedule(wake::countDown, milliseconds);
+			wake.await();
+			return;
+		}
+		schedule(() -> {
+			runningActors.incrementAndGet();
+			wake.countDown();
+		}, milliseconds);
+		parkActor();
+		wake.await();
+	}
+
+	public void registerActor() {
+		runningActors.incrementAndGet();
+	}
+
+	public void deregisterActor() {
+		parkActor();
+	}
+
+	private void parkActor() {
+		runningActors.decrementAndGet();
+		wakeup();
+	}
+
+	public boolean inEventLoop() {
+		return Thread.currentThread() == thread;
+	}
+
+	public void shutdown() {
+		running = false;
+		LockSupport.unpark(thread);
+	}
+
+	public void awaitTermination(long timeoutMillis) throws InterruptedException {
+		thread.join(timeoutMillis);
+	}
+
+	private void signalReady(ReactorFace face) {
+		if (face.pumpScheduled.compareAndSet(false, true)) {
+			readyFaces.add(face);
+			wakeup();
+		}
+	}
+
+	private void wakeup() {
+		if (wakeupPending.compareAndSet(false, true)) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			wakeupPending.set(false);
+			runTasks();
+			runDueTimers();
+			pumpReadyFaces();
+			pumpPolledFaces();
+
+			if (!tasks.isEmpty() || !readyFaces.isEmpty() || wakeupPending.get()) {
+				continue;
+			}
+			if (isVirtualTime()) {
+				if (runningActors.get() > 0 || !advanceVirtualTime()) {
+					LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(IDLE_PARK_MILLIS));
+				}
+			}
+			else {
+				long sleepMillis = getSleepMillis();
+				if (sleepMillis > 0) {
+					LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+				}
+			}
+		}
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			runSafely(task);
+		}
+	}
+
+	private void runDueTimers() {
+		double now = clock.getNowMilliseconds();
+		while (true) {
+			Timer timer;
+			synchronized (timers) {
+				timer = timers.peek();
+				if (timer == null || timer.deadline > now) {
+					return;
+				}
+				timers.poll();
+			}
+			runSafely(timer.task);
+		}
+	}
+
+	private void pumpReadyFaces() {
+		ReactorFace face;
+		while ((face = readyFaces.poll()) != null) {
+			// Clear the flag first so packets arriving during the pump schedule it again.
+			face.pumpScheduled.set(false);
+			face.pump();
+		}
+	}
+
+	private void pumpPolledFaces() {
+		if (polledFaces.isEmpty()) {
+			return;
+		}
+		double now = clock.getNowMilliseconds();
+		if (now >= nextPollTime) {
+			nextPollTime = now + pollIntervalMillis;
+			for (ReactorFace face : polledFaces) {
+				face.pump();
+			}
+		}
+	}
+
+	private long getSleepMillis() {
+		double now = clock.getNowMilliseconds();
+		double wakeTime = Double.MAX_VALUE;
+		synchronized (timers) {
+			Timer timer = timers.peek();
+			if (timer != null) {
+				wakeTime = timer.deadline;
+			}
+		}
+		if (!polledFaces.isEmpty()) {
+			wakeTime = Math.min(wakeTime, nextPollTime);
+		}
+		return wakeTime == Double.MAX_VALUE ? IDLE_PARK_MILLIS : (long)Math.ceil(wakeTime - now);
+	}
+
+	/**
+	 * @return false if there is no timer to advance to.
+	 */
+	private boolean advanceVirtualTime() {
+		synchronized (timers) {
+			Timer timer = timers.peek();
+			if (timer == null) {
+				return false;
+			}
+			virtualClock.advanceTo(timer.deadline);
+			return true;
+		}
+	}
+
+	private static void runSafely(Runnable task) {
+		try {
+			task.run();
+		}
+		catch (Throwable t) {
+			log.error("uncaught exception in event loop task", t);
+		}
+	}
+
+	private static class Timer implements Comparable<Timer> {
+		final double deadline;
+		final long sequence;
+		final Runnable task;
+
+		Timer(double deadline, long sequence, Runnable task) {
+			this.deadline = deadline;
+			this.sequence = sequence;
+			this.task = task;
+		}
+
+		@Override
+		public int compareTo(Timer other) {
+			if (deadline != other.deadline) {
+				return deadline < other.deadline ? -1 : 1;
+			}
+			return Long.compare(sequence, other.sequence);
+		}
+	}
+}
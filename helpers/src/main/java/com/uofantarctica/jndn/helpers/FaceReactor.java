@@ -0,0 +1,77 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.transport.Transport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of {@link EventLoop} threads shared by many Faces. Each new Face
+ * is assigned to a loop round robin and stays there, so a room of N
+ * participants needs numThreads threads instead of one busy thread each.
+ * With a {@link VirtualClock} there is exactly one loop, which runs the whole
+ * simulation as a discrete event simulation.
+ */
+public class FaceReactor {
+	// How often faces whose transport cannot signal (TCP to NFD) are polled,
+	// as often as each participant pumped its own face before.
+	public static final long DEFAULT_POLL_INTERVAL_MILLIS = 10;
+
+	private final EventLoop[] loops;
+	private final AtomicInteger nextLoop = new AtomicInteger(0);
+
+	public FaceReactor(int numThreads) {
+		this(numThreads, DEFAULT_POLL_INTERVAL_MILLIS);
+	}
+
+	public FaceReactor(int numThreads, long pollIntervalMillis) {
+		this(numThreads, pollIntervalMillis, SystemClock.INSTANCE);
+	}
+
+	public FaceReactor(VirtualClock clock) {
+		this(1, DEFAULT_POLL_INTERVAL_MILLIS, clock);
+	}
+
+	private FaceReactor(int numThreads, long pollIntervalMillis, Clock clock) {
+		if (numThreads < 1) {
+			throw new IllegalArgumentException("A FaceReactor needs at least one thread, got " + numThreads);
+		}
+		loops = new EventLoop[numThreads];
+		for (int i = 0; i < numThreads; ++i) {
+			loops[i] = new EventLoop("FaceReactor-" + i, pollIntervalMillis, clock);
+			loops[i].start();
+		}
+	}
+
+	public ReactorFace newFace(TransportFactory transportFactory) {
+		EventLoop loop = loops[Math.abs(nextLoop.getAndIncrement() % loops.length)];
+		Transport transport = transportFactory.getTransport();
+		ReactorFace face = new ReactorFace(transport, transportFactory.getConnectionInfo(), loop);
+		loop.register(face, transport);
+		return face;
+	}
+
+	/**
+	 * The loop of a virtual time reactor, or the first loop otherwise.
+	 */
+	public EventLoop getEventLoop() {
+		return loops[0];
+	}
+
+	public int getNumThreads() {
+		return loops.length;
+	}
+
+	public void shutdown() {
+		for (EventLoop loop : loops) {
+			loop.shutdown();
+		}
+		for (EventLoop loop : loops) {
+			try {
+				loop.awaitTermination(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+}
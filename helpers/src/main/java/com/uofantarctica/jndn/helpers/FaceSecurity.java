@@ -4,6 +4,8 @@ import net.named_data.jndn.Face;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.security.KeyChain;
 import net.named_data.jndn.security.SafeBag;
+import net.named_data.jndn.security.pib.Pib;
+import net.named_data.jndn.security.tpm.TpmBackEnd;
 import net.named_data.jndn.util.Blob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,27 +24,36 @@ public class FaceSecurity {
 		}
 	}
 
-	public static synchronized SecurityData initFaceAndGetSecurityData(Face face) {
-		KeyChain keyChain = null;
-		Name certificateName = null;
-
+	/**
+	 * Sign face's commands with the shared default identity. Every face gets
+	 * the same SecurityData from {@link SecurityContextCache}, so the key is
+	 * only imported once.
+	 */
+	public static SecurityData initFaceAndGetSecurityData(Face face) {
 		try {
-			// Set up the KeyChain.
-			keyChain = new KeyChain("pib-memory:", "tpm-memory:");
-			keyChain.importSafeBag(new SafeBag(new Name("/testname/KEY/123"),
-					new Blob(DEFAULT_RSA_PRIVATE_KEY_DER, false),
-					new Blob(DEFAULT_RSA_PUBLIC_KEY_DER, false)));
-			face.setCommandSigningInfo(keyChain, keyChain.getDefaultCertificateName());
-
-			certificateName =  keyChain.getDefaultCertificateName();
-			log.debug("cert name : " + certificateName.toUri());
+			return initFace(face, SecurityContextCache.getDefault().getDefaultIdentity());
 		} catch (Exception e) {
 			log.error("Failed to initiate keychain.", e);
 		}
 
-		return new SecurityData(keyChain, certificateName);
+		return new SecurityData(null, null);
 	}
 
+	/**
+	 * Sign face's commands with securityData, e.g. one of the identities from
+	 * {@link SecurityContextCache#prepareIdentities}.
+	 */
+	public static SecurityData initFace(Face face, SecurityData securityData) {
+		face.setCommandSigningInfo(securityData.keyChain, securityData.certificateName);
+		log.debug("cert name : " + securityData.certificateName.toUri());
+		return securityData;
+	}
+
+	static SafeBag getDefaultSafeBag() throws TpmBackEnd.Error, Pib.Error {
+		return new SafeBag(new Name("/testname/KEY/123"),
+				new Blob(DEFAULT_RSA_PRIVATE_KEY_DER, false),
+				new Blob(DEFAULT_RSA_PUBLIC_KEY_DER, false));
+	}
 
 	// Convert the int array to a ByteBuffer.
 	private static ByteBuffer toBuffer(int[] array) {
@@ -0,0 +1,144 @@
+package com.uofantarctica.jndn.helpers;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values, such as latencies in
+ * microseconds, in the style of HdrHistogram: values below 2^precisionBits
+ * are counted exactly and every power of two above that is cut into
+ * 2^(precisionBits - 1) equal buckets, so any recorded value is known to
+ * within a relative error of 2^(1 - precisionBits) (3% by default) however
+ * large it is. The buckets are only allocated up to the largest value seen.
+ *
+ * Histograms with the same precision merge exactly, so per pair histograms
+ * can be added up into one for a whole room.
+ *
+ * Not thread safe.
+ */
+public class LatencyHistogram {
+	public static final int DEFAULT_PRECISION_BITS = 6;
+
+	private final int precisionBits;
+	private final int subBuckets;
+	private final int halfSubBuckets;
+	private long[] counts;
+	private long count = 0;
+	private long min = Long.MAX_VALUE;
+	private long max = 0;
+	private double sum = 0;
+
+	public LatencyHistogram() {
+		this(DEFAULT_PRECISION_BITS);
+	}
+
+	public LatencyHistogram(int precisionBits) {
+		if (precisionBits < 1 || precisionBits > 20) {
+			throw new IllegalArgumentException("need 1 <= precisionBits <= 20, got " + precisionBits);
+		}
+		this.precisionBits = precisionBits;
+		this.subBuckets = 1 << precisionBits;
+		this.halfSubBuckets = subBuckets / 2;
+		this.counts = new long[subBuckets];
+	}
+
+	/**
+	 * Count value once. Negative values count as 0.
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		int index = getIndex(value);
+		if (index >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + halfSubBuckets * 4));
+		}
+		++counts[index];
+		++count;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+		sum += value;
+	}
+
+	/**
+	 * Add every value counted by other, which must have the same precision.
+	 */
+	public void add(LatencyHistogram other) {
+		if (other.precisionBits != precisionBits) {
+			throw new IllegalArgumentException("cannot add a histogram with precision " + other.precisionBits +
+					" to one with precision " + precisionBits);
+		}
+		if (other.count == 0) {
+			return;
+		}
+		if (other.counts.length > counts.length) {
+			counts = Arrays.copyOf(counts, other.counts.length);
+		}
+		for (int i = 0; i < other.counts.length; ++i) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		sum += other.sum;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return The smallest value counted, or 0 if none was.
+	 */
+	public long getMin() {
+		return count > 0 ? min : 0;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return count > 0 ? sum / count : 0;
+	}
+
+	/**
+	 * @return The value at or below which percentile percent of the counted
+	 * values lie, rounded up to the end of its bucket but never above the
+	 * largest value, or 0 if nothing was counted.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long)Math.ceil(Math.min(100, percentile) / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; ++i) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(max, getHighestValue(i));
+			}
+		}
+		return max;
+	}
+
+	private int getIndex(long value) {
+		if (value < subBuckets) {
+			return (int)value;
+		}
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - (precisionBits - 1);
+		return subBuckets + (shift - 1) * halfSubBuckets + (int)((value >> shift) - halfSubBuckets);
+	}
+
+	private long getHighestValue(int index) {
+		if (index < subBuckets) {
+			return index;
+		}
+		int shift = (index - subBuckets) / halfSubBuckets + 1;
+		long subBucket = (index - subBuckets) % halfSubBuckets + halfSubBuckets;
+		return (subBucket << shift) + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "p50 " + getValueAtPercentile(50) + ", p99 " + getValueAtPercentile(99) +
+				", p99.9 " + getValueAtPercentile(99.9) + ", max " + max + " of " + count;
+	}
+}
@@ -0,0 +1,459 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.ControlParameters;
+import net.named_data.jndn.ControlResponse;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.DigestSha256Signature;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.encoding.tlv.Tlv;
+import net.named_data.jndn.encoding.tlv.TlvEncoder;
+import net.named_data.jndn.util.Blob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A minimal NDN forwarder that lives inside the JVM. Every {@link LoopbackTransport}
+ * connected to the same forwarder is one of its faces. The forwarder keeps a
+ * FIB (longest prefix match, multicast under /ndn/broadcast), a PIT that
+ * aggregates identical Interests and a bounded content store, and answers the
+ * NFD rib/register command so that Face.registerPrefix works unchanged.
+ * Like NFD it answers an Interest it has no route for with a NoRoute NACK,
+ * and, if given a PIT capacity, one that would overflow the PIT with a
+ * Congestion NACK.
+ * All state is guarded by the forwarder's monitor; packets are handed to the
+ * receiving transport's queue and decoded on that face's own thread.
+ */
+public class LoopbackForwarder {
+	private static final Logger log = LoggerFactory.getLogger(LoopbackForwarder.class);
+
+	public static final int DEFAULT_CONTENT_STORE_CAPACITY = 65536;
+	private static final double DEFAULT_INTEREST_LIFETIME = 4000.0;
+	private static final int PURGE_INTERVAL = 1024;
+	private static final Name BROADCAST_PREFIX = new Name("/ndn/broadcast");
+	private static final Name LOCALHOST_RIB = new Name("/localhost/nfd/rib");
+	private static final Name LOCALHOP_RIB = new Name("/localhop/nfd/rib");
+
+	private final Map<Integer, LoopbackTransport> faces = new HashMap<>();
+	private final Map<Name, Set<Integer>> fib = new HashMap<>();
+	private final Map<Name, PitEntry> pit = new HashMap<>();
+	private final TreeMap<Name, CsEntry> contentStore = new TreeMap<>();
+	private final ArrayDeque<Name> contentStoreOrder = new ArrayDeque<>();
+	private final int contentStoreCapacity;
+	private final Clock clock;
+	private int pitCapacity = 0;
+	private int lastFaceId = 0;
+	private long packetsSincePurge = 0;
+
+	private long interestsReceived = 0;
+	private long dataReceived = 0;
+	private long contentStoreHits = 0;
+	private long interestsAggregated = 0;
+	private long interestsUnrouted = 0;
+	private long interestsCongested = 0;
+
+	public LoopbackForwarder() {
+		this(DEFAULT_CONTENT_STORE_CAPACITY);
+	}
+
+	public LoopbackForwarder(int contentStoreCapacity) {
+		this(contentStoreCapacity, SystemClock.INSTANCE);
+	}
+
+	/**
+	 * @param clock Used for PIT expiry and content store freshness. Pass the
+	 * simulation's VirtualClock when running in virtual time.
+	 */
+	public LoopbackForwarder(Clock clock) {
+		this(DEFAULT_CONTENT_STORE_CAPACITY, clock);
+	}
+
+	public LoopbackForwarder(int contentStoreCapacity, Clock clock) {
+		this.contentStoreCapacity = contentStoreCapacity;
+		this.clock = clock;
+	}
+
+	synchronized int addFace(LoopbackTransport transport) {
+		int faceId = ++lastFaceId;
+		faces.put(faceId, transport);
+		return faceId;
+	}
+
+	synchronized void removeFace(int faceId) {
+		faces.remove(faceId);
+		Iterator<Map.Entry<Name, Set<Integer>>> it = fib.entrySet().iterator();
+		while (it.hasNext()) {
+			Set<Integer> nextHops = it.next().getValue();
+			nextHops.remove(faceId);
+			if (nextHops.isEmpty()) {
+				it.remove();
+			}
+		}
+	}
+
+	synchronized void receive(int faceId, ByteBuffer element) {
+		Blob wire = new Blob(element, true);
+		int type = wire.buf().get(0);
+		try {
+			if (type == Tlv.Interest) {
+				Interest interest = new Interest();
+				interest.wireDecode(wire);
+				onInterest(faceId, interest, wire);
+			}
+			else if (type == Tlv.Data) {
+				Data data = new Data();
+				data.wireDecode(wire);
+				onData(faceId, data, wire);
+			}
+			else {
+				log.debug("dropping packet of unsupported type " + type + " from face " + faceId);
+			}
+		} catch (EncodingException e) {
+			log.error("failed to decode packet from face " + faceId, e);
+		}
+
+		if (++packetsSincePurge >= PURGE_INTERVAL) {
+			packetsSincePurge = 0;
+			purgeExpiredPitEntries(getNowMilliseconds());
+		}
+	}
+
+	private void onInterest(int faceId, Interest interest, Blob wire) {
+		++interestsReceived;
+		Name name = interest.getName();
+		if (LOCALHOST_RIB.isPrefixOf(name) || LOCALHOP_RIB.isPrefixOf(name)) {
+			onRibCommand(faceId, interest);
+			return;
+		}
+
+		double now = getNowMilliseconds();
+		CsEntry cached = findInContentStore(interest, now);
+		if (cached != null) {
+			++contentStoreHits;
+			sendTo(faceId, cached.wire);
+			return;
+		}
+
+		double lifetime = interest.getInterestLifetimeMilliseconds();
+		if (lifetime < 0) {
+			lifetime = DEFAULT_INTEREST_LIFETIME;
+		}
+
+		PitEntry entry = pit.get(name);
+		if (entry != null && entry.isExpired(now)) {
+			pit.remove(name);
+			entry = null;
+		}
+		boolean retransmission = false;
+		if (entry == null) {
+			if (pitCapacity > 0 && pit.size() >= pitCapacity) {
+				purgeExpiredPitEntries(now);
+				if (pit.size() >= pitCapacity) {
+					++interestsCongested;
+					sendNack(faceId, wire, NetworkNack.Reason.CONGESTION);
+					return;
+				}
+			}
+			entry = new PitEntry(interest);
+			pit.put(new Name(name), entry);
+		}
+		else if (!entry.nonces.add(interest.getNonce())) {
+			// Looped or duplicated Interest, it was already forwarded.
+			return;
+		}
+		else {
+			retransmission = entry.downstream.containsKey(faceId);
+		}
+		entry.nonces.add(interest.getNonce());
+		entry.addDownstream(faceId, now + lifetime);
+
+		List<Integer> nextHops = lookupNextHops(name, faceId);
+		if (nextHops.isEmpty() && entry.upstream.isEmpty()) {
+			++interestsUnrouted;
+			pit.remove(name);
+			sendNack(faceId, wire, NetworkNack.Reason.NO_ROUTE);
+			return;
+		}
+		// A new downstream only needs the next hops that have not seen this
+		// Interest yet, e.g. the face that expressed it first. A retransmission
+		// goes out to every next hop again.
+		boolean forwarded = false;
+		for (int nextHop : nextHops) {
+			if (entry.upstream.add(nextHop) || retransmission) {
+				sendTo(nextHop, wire);
+				forwarded = true;
+			}
+		}
+		if (!forwarded) {
+			++interestsAggregated;
+		}
+	}
+
+	private void onData(int faceId, Data data, Blob wire) {
+		++dataReceived;
+		Name name = data.getName();
+		double now = getNowMilliseconds();
+		Set<Integer> downstream = new LinkedHashSet<>();
+		for (int i = name.size(); i >= 0; --i) {
+			Name prefix = name.getPrefix(i);
+			PitEntry entry = pit.get(prefix);
+			if (entry != null && entry.interest.matchesName(name)) {
+				pit.remove(prefix);
+				for (Map.Entry<Integer, Double> record : entry.downstream.entrySet()) {
+					if (record.getValue() >= now && record.getKey() != faceId) {
+						downstream.add(record.getKey());
+					}
+				}
+			}
+		}
+
+		if (downstream.isEmpty()) {
+			// Unsolicited Data is dropped and not cached, same as NFD's default policy.
+			return;
+		}
+		insertIntoContentStore(new Name(name), new CsEntry(wire, now, data.getMetaInfo().getFreshnessPeriod()));
+		for (int face : downstream) {
+			sendTo(face, wire);
+		}
+	}
+
+	private void onRibCommand(int faceId, Interest interest) {
+		Name name = interest.getName();
+		String verb = name.get(3).toEscapedString();
+		ControlParameters parameters = new ControlParameters();
+		ControlResponse response = new ControlResponse();
+		try {
+			parameters.wireDecode(name.get(4).getValue());
+			if (verb.equals("register")) {
+				addNextHop(parameters.getName(), faceId);
+				response.setStatusCode(200).setStatusText("OK");
+			}
+			else if (verb.equals("unregister")) {
+				removeNextHop(parameters.getName(), faceId);
+				response.setStatusCode(200).setStatusText("OK");
+			}
+			else {
+				response.setStatusCode(501).setStatusText("Unsupported command");
+			}
+			parameters.setFaceId(faceId);
+			response.setBodyAsControlParameters(parameters);
+		} catch (EncodingException | IndexOutOfBoundsException e) {
+			log.error("malformed rib command " + name.toUri(), e);
+			response.setStatusCode(400).setStatusText("Malformed command");
+		}
+
+		Data data = new Data(name);
+		data.setContent(response.wireEncode());
+		data.setSignature(new DigestSha256Signature());
+		sendTo(faceId, data.wireEncode());
+	}
+
+	public synchronized void addNextHop(Name prefix, int faceId) {
+		Set<Integer> nextHops = fib.get(prefix);
+		if (nextHops == null) {
+			nextHops = new LinkedHashSet<>();
+			fib.put(new Name(prefix), nextHops);
+		}
+		nextHops.add(faceId);
+	}
+
+	public synchronized void removeNextHop(Name prefix, int faceId) {
+		Set<Integer> nextHops = fib.get(prefix);
+		if (nextHops != null) {
+			nextHops.remove(faceId);
+			if (nextHops.isEmpty()) {
+				fib.remove(prefix);
+			}
+		}
+	}
+
+	/**
+	 * Interests under /ndn/broadcast go to every face registered on any
+	 * matching prefix, everything else goes to the first next hop of the
+	 * longest matching prefix. The incoming face is never a next hop.
+	 */
+	private List<Integer> lookupNextHops(Name name, int incomingFaceId) {
+		List<Integer> result = new ArrayList<>();
+		boolean multicast = BROADCAST_PREFIX.isPrefixOf(name);
+		for (int i = name.size(); i >= 0; --i) {
+			Set<Integer> nextHops = fib.get(name.getPrefix(i));
+			if (nextHops == null) {
+				continue;
+			}
+			for (int nextHop : nextHops) {
+				if (nextHop != incomingFaceId && !result.contains(nextHop)) {
+					result.add(nextHop);
+					if (!multicast) {
+						return result;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private CsEntry findInContentStore(Interest interest, double now) {
+		Name name = interest.getName();
+		for (Map.Entry<Name, CsEntry> entry = contentStore.ceilingEntry(name);
+		     entry != null && name.isPrefixOf(entry.getKey());
+		     entry = contentStore.higherEntry(entry.getKey())) {
+			CsEntry cached = entry.getValue();
+			if (interest.getMustBeFresh() && !cached.isFresh(now)) {
+				continue;
+			}
+			if (interest.matchesName(entry.getKey())) {
+				return cached;
+			}
+		}
+		return null;
+	}
+
+	private void insertIntoContentStore(Name name, CsEntry entry) {
+		if (contentStoreCapacity <= 0) {
+			return;
+		}
+		if (contentStore.put(name, entry) == null) {
+			contentStoreOrder.addLast(name);
+		}
+		while (contentStore.size() > contentStoreCapacity) {
+			contentStore.remove(contentStoreOrder.removeFirst());
+		}
+	}
+
+	private void purgeExpiredPitEntries(double now) {
+		Iterator<PitEntry> it = pit.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().isExpired(now)) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Send the Interest encoded in interestWire back to faceId inside an
+	 * NDNLPv2 packet with a Nack header, which the Face hands to the
+	 * Interest's OnNetworkNack.
+	 */
+	private void sendNack(int faceId, Blob interestWire, NetworkNack.Reason reason) {
+		TlvEncoder encoder = new TlvEncoder(interestWire.size() + 16);
+		int saveLength = encoder.getLength();
+		encoder.writeBlobTlv(Tlv.LpPacket_Fragment, interestWire.buf());
+		int saveNackLength = encoder.getLength();
+		encoder.writeNonNegativeIntegerTlv(Tlv.LpPacket_NackReason, reason.getNumericType());
+		encoder.writeTypeAndLength(Tlv.LpPacket_Nack, encoder.getLength() - saveNackLength);
+		encoder.writeTypeAndLength(Tlv.LpPacket_LpPacket, encoder.getLength() - saveLength);
+		sendTo(faceId, new Blob(encoder.getOutput(), false));
+	}
+
+	private void sendTo(int faceId, Blob wire) {
+		LoopbackTransport transport = faces.get(faceId);
+		if (transport != null) {
+			transport.deliver(wire.buf());
+		}
+	}
+
+	double getNowMilliseconds() {
+		return clock.getNowMilliseconds();
+	}
+
+	public synchronized int getPitSize() {
+		return pit.size();
+	}
+
+	public synchronized int getContentStoreSize() {
+		return contentStore.size();
+	}
+
+	public synchronized long getInterestsReceived() {
+		return interestsReceived;
+	}
+
+	public synchronized long getDataReceived() {
+		return dataReceived;
+	}
+
+	public synchronized long getContentStoreHits() {
+		return contentStoreHits;
+	}
+
+	public synchronized long getInterestsAggregated() {
+		return interestsAggregated;
+	}
+
+	public synchronized long getInterestsUnrouted() {
+		return interestsUnrouted;
+	}
+
+	/**
+	 * @return How many Interests were NACKed because the PIT was full.
+	 */
+	public synchronized long getInterestsCongested() {
+		return interestsCongested;
+	}
+
+	/**
+	 * Limit the PIT to pitCapacity entries, 0 (the default) for no limit. A
+	 * new Interest that does not fit is NACKed with reason Congestion.
+	 */
+	public synchronized void setPitCapacity(int pitCapacity) {
+		this.pitCapacity = pitCapacity;
+	}
+
+	private static class PitEntry {
+		final Interest interest;
+		final Set<Blob> nonces = new HashSet<>();
+		// face id -> expiry of that downstream record
+		final Map<Integer, Double> downstream = new HashMap<>();
+		// faces this Interest has been forwarded to
+		final Set<Integer> upstream = new HashSet<>();
+
+		PitEntry(Interest interest) {
+			this.interest = interest;
+		}
+
+		void addDownstream(int faceId, double expiry) {
+			Double current = downstream.get(faceId);
+			if (current == null || current < expiry) {
+				downstream.put(faceId, expiry);
+			}
+		}
+
+		boolean isExpired(double now) {
+			for (double expiry : downstream.values()) {
+				if (expiry >= now) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class CsEntry {
+		final Blob wire;
+		final double staleTime;
+
+		CsEntry(Blob wire, double arrivalTime, double freshnessPeriod) {
+			this.wire = wire;
+			// Data without a FreshnessPeriod is stale as soon as it arrives.
+			this.staleTime = freshnessPeriod >= 0 ? arrivalTime + freshnessPeriod : arrivalTime;
+		}
+
+		boolean isFresh(double now) {
+			return now < staleTime;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.encoding.ElementListener;
+import net.named_data.jndn.encoding.EncodingException;
+import net.named_data.jndn.transport.Transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A Transport whose far end is a {@link LoopbackForwarder} in the same JVM.
+ * Outgoing packets are handed to the forwarder directly; incoming packets are
+ * queued by the forwarder and handed to the Face's ElementListener from
+ * processEvents, so all callbacks still run on the thread pumping the Face.
+ */
+public class LoopbackTransport extends Transport implements SignalingTransport {
+	private final ConcurrentLinkedQueue<ByteBuffer> incoming = new ConcurrentLinkedQueue<>();
+	private LoopbackForwarder forwarder;
+	private ElementListener elementListener;
+	private int faceId;
+	private volatile Runnable onReceive;
+
+	public static class ConnectionInfo extends Transport.ConnectionInfo {
+		private final LoopbackForwarder forwarder;
+
+		public ConnectionInfo(LoopbackForwarder forwarder) {
+			this.forwarder = forwarder;
+		}
+
+		public LoopbackForwarder getForwarder() {
+			return forwarder;
+		}
+	}
+
+	@Override
+	public boolean isLocal(Transport.ConnectionInfo connectionInfo) {
+		return true;
+	}
+
+	@Override
+	public boolean isAsync() {
+		return false;
+	}
+
+	@Override
+	public void connect(Transport.ConnectionInfo connectionInfo, ElementListener elementListener, Runnable onConnected)
+			throws IOException {
+		close();
+		this.forwarder = ((ConnectionInfo) connectionInfo).getForwarder();
+		this.elementListener = elementListener;
+		this.faceId = forwarder.addFace(this);
+		if (onConnected != null) {
+			onConnected.run();
+		}
+	}
+
+	@Override
+	public void send(ByteBuffer data) throws IOException {
+		if (forwarder == null) {
+			throw new IOException("Cannot send because the loopback transport is not connected.");
+		}
+		forwarder.receive(faceId, data);
+	}
+
+	@Override
+	public void processEvents() throws IOException, EncodingException {
+		ByteBuffer element;
+		while ((element = incoming.poll()) != null) {
+			elementListener.onReceivedElement(element);
+		}
+	}
+
+	@Override
+	public boolean getIsConnected() {
+		return forwarder != null;
+	}
+
+	@Override
+	public void close() {
+		if (forwarder != null) {
+			forwarder.removeFace(faceId);
+			forwarder = null;
+		}
+	}
+
+	@Override
+	public void setOnReceive(Runnable onReceive) {
+		this.onReceive = onReceive;
+	}
+
+	public int getFaceId() {
+		return faceId;
+	}
+
+	void deliver(ByteBuffer element) {
+		incoming.add(element);
+		Runnable onReceive = this.onReceive;
+		if (onReceive != null) {
+			onReceive.run();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.transport.Transport;
+
+public class LoopbackTransportFactory implements TransportFactory {
+	private final LoopbackForwarder forwarder;
+
+	public LoopbackTransportFactory() {
+		this(new LoopbackForwarder());
+	}
+
+	public LoopbackTransportFactory(LoopbackForwarder forwarder) {
+		this.forwarder = forwarder;
+	}
+
+	@Override
+	public Transport getTransport() {
+		return new LoopbackTransport();
+	}
+
+	@Override
+	public Transport.ConnectionInfo getConnectionInfo() {
+		return new LoopbackTransport.ConnectionInfo(forwarder);
+	}
+
+	public LoopbackForwarder getForwarder() {
+		return forwarder;
+	}
+}
@@ -0,0 +1,21 @@
+package com.uofantarctica.jndn.helpers;
+
+/**
+ * A clock that never goes backwards, for measuring intervals in real time:
+ * System.nanoTime offset to read like the wall clock did when the class was
+ * loaded.
+ */
+public class MonotonicClock implements Clock {
+	public static final MonotonicClock INSTANCE = new MonotonicClock();
+
+	private final double startMilliseconds = (double)System.currentTimeMillis();
+	private final long startNanos = System.nanoTime();
+
+	private MonotonicClock() {
+	}
+
+	@Override
+	public double getNowMilliseconds() {
+		return startMilliseconds + (System.nanoTime() - startNanos) / 1e6;
+	}
+}
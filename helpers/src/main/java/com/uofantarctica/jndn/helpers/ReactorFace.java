@@ -0,0 +1,54 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Face;
+import net.named_data.jndn.transport.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A Face owned by one {@link EventLoop}. The loop calls processEvents when the
+ * transport signals incoming packets (or on its poll interval for transports
+ * that cannot signal), and callLater, which jndn uses for Interest timeouts, is
+ * scheduled on the loop's timer queue so the loop wakes up exactly when the
+ * next timeout is due. Like any Face it is not thread safe: only touch it from
+ * its loop, e.g. through {@link #execute} or {@link #invokeAndWait}.
+ */
+public class ReactorFace extends Face {
+	private static final Logger log = LoggerFactory.getLogger(ReactorFace.class);
+
+	private final EventLoop eventLoop;
+	final AtomicBoolean pumpScheduled = new AtomicBoolean(false);
+
+	ReactorFace(Transport transport, Transport.ConnectionInfo connectionInfo, EventLoop eventLoop) {
+		super(transport, connectionInfo);
+		this.eventLoop = eventLoop;
+	}
+
+	@Override
+	public void callLater(double delayMilliseconds, Runnable callback) {
+		eventLoop.schedule(callback, delayMilliseconds);
+	}
+
+	public EventLoop getEventLoop() {
+		return eventLoop;
+	}
+
+	public void execute(Runnable task) {
+		eventLoop.execute(task);
+	}
+
+	public void invokeAndWait(Runnable task) throws Exception {
+		eventLoop.invokeAndWait(task);
+	}
+
+	void pump() {
+		try {
+			processEvents();
+		}
+		catch (Exception e) {
+			log.error("failed to process events", e);
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package com.uofantarctica.jndn.helpers;
+
+/**
+ * Runs a callback later on the thread that owns the caller's state, e.g.
+ * Face::callLater, which fires from the thread pumping the face.
+ */
+public interface Scheduler {
+	void callLater(double delayMilliseconds, Runnable callback);
+}
@@ -0,0 +1,134 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.security.KeyParams;
+import net.named_data.jndn.security.RsaKeyParams;
+import net.named_data.jndn.security.SafeBag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds each signing identity once and hands the same
+ * {@link FaceSecurity.SecurityData} to every face that asks for it.
+ *
+ * A KeyChain fills its PIB and TPM caches lazily on first use, so every
+ * identity is used to sign a Data and an Interest before it is published.
+ * After that signing only reads those caches, which is what makes one
+ * KeyChain safe to share between faces pumped by different threads.
+ */
+public class SecurityContextCache {
+	private static final Logger log = LoggerFactory.getLogger(SecurityContextCache.class);
+	private static final SecurityContextCache defaultCache = new SecurityContextCache(new RsaKeyParams());
+
+	private final KeyParams keyParams;
+	private final ConcurrentMap<Name, FaceSecurity.SecurityData> identities = new ConcurrentHashMap<>();
+	private volatile FaceSecurity.SecurityData defaultIdentity;
+
+	/**
+	 * @param keyParams The parameters for keys generated by getIdentity and
+	 * prepareIdentities.
+	 */
+	public SecurityContextCache(KeyParams keyParams) {
+		this.keyParams = keyParams;
+	}
+
+	public static SecurityContextCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * The identity every face used before: /testname with the hard-coded RSA
+	 * key from {@link FaceSecurity}, imported only once.
+	 */
+	public FaceSecurity.SecurityData getDefaultIdentity() throws Exception {
+		FaceSecurity.SecurityData identity = defaultIdentity;
+		if (identity == null) {
+			synchronized (this) {
+				identity = defaultIdentity;
+				if (identity == null) {
+					KeyChain keyChain = newKeyChain();
+					keyChain.importSafeBag(FaceSecurity.getDefaultSafeBag());
+					identity = warm(keyChain, keyChain.getDefaultCertificateName());
+					defaultIdentity = identity;
+				}
+			}
+		}
+		return identity;
+	}
+
+	/**
+	 * The identity identityName in its own KeyChain with a freshly generated
+	 * key, creating it on first use.
+	 */
+	public FaceSecurity.SecurityData getIdentity(Name identityName) throws Exception {
+		FaceSecurity.SecurityData identity = identities.get(identityName);
+		if (identity != null) {
+			return identity;
+		}
+		identity = createIdentity(identityName);
+		FaceSecurity.SecurityData raced = identities.putIfAbsent(new Name(identityName), identity);
+		return raced != null ? raced : identity;
+	}
+
+	/**
+	 * Create the identities prefix/0 .. prefix/(count - 1) on numThreads
+	 * threads, so key generation is paid before a simulation rather than
+	 * while it starts up.
+	 * @return The identities in order.
+	 */
+	public List<FaceSecurity.SecurityData> prepareIdentities(final Name prefix, int count, int numThreads)
+			throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(count, numThreads)));
+		try {
+			List<Future<FaceSecurity.SecurityData>> futures = new ArrayList<>(count);
+			for (int i = 0; i < count; ++i) {
+				final Name identityName = new Name(prefix).append(Integer.toString(i));
+				futures.add(pool.submit(() -> getIdentity(identityName)));
+			}
+			List<FaceSecurity.SecurityData> prepared = new ArrayList<>(count);
+			for (Future<FaceSecurity.SecurityData> future : futures) {
+				prepared.add(future.get());
+			}
+			return prepared;
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	public int size() {
+		return identities.size() + (defaultIdentity != null ? 1 : 0);
+	}
+
+	private FaceSecurity.SecurityData createIdentity(Name identityName) throws Exception {
+		KeyChain keyChain = newKeyChain();
+		keyChain.createIdentityV2(identityName, keyParams);
+		log.debug("created identity " + identityName.toUri());
+		return warm(keyChain, keyChain.getDefaultCertificateName());
+	}
+
+	private static FaceSecurity.SecurityData warm(KeyChain keyChain, Name certificateName) throws Exception {
+		keyChain.sign(new Data(new Name("/localhost/warm-up")), certificateName);
+		keyChain.sign(new Interest(new Name("/localhost/warm-up")), certificateName);
+		return new FaceSecurity.SecurityData(keyChain, certificateName);
+	}
+
+	/**
+	 * KeyChain creates its PIB and TPM factory tables lazily without locking,
+	 * so construction is serialized. Key generation and import are not.
+	 */
+	private static synchronized KeyChain newKeyChain() throws Exception {
+		return new KeyChain("pib-memory:", "tpm-memory:");
+	}
+}
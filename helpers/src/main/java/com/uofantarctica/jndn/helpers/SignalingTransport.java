@@ -0,0 +1,10 @@
+package com.uofantarctica.jndn.helpers;
+
+/**
+ * A Transport that can tell when it has incoming packets waiting, so whoever
+ * pumps its Face only needs to call processEvents when there is something to
+ * process. Transports that cannot signal have to be polled.
+ */
+public interface SignalingTransport {
+	void setOnReceive(Runnable onReceive);
+}
@@ -0,0 +1,113 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.DigestSha256Signature;
+import net.named_data.jndn.HmacWithSha256Signature;
+import net.named_data.jndn.KeyLocator;
+import net.named_data.jndn.KeyLocatorType;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.Sha256WithEcdsaSignature;
+import net.named_data.jndn.security.KeyChain;
+import net.named_data.jndn.security.SecurityException;
+import net.named_data.jndn.security.v2.CertificateV2;
+import net.named_data.jndn.util.Blob;
+import net.named_data.jndn.util.Common;
+import net.named_data.jndn.util.SignedBlob;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * The Data signing strategies a simulation can use, from the most to the
+ * least expensive. None of them is ever verified by the simulation, so the
+ * non-RSA ones simply name the identity's key in their KeyLocator.
+ */
+public enum SigningAlgorithm {
+	/** SHA256withRSA through the identity's KeyChain, like a real NDN app. */
+	RSA {
+		@Override
+		public SigningStrategy newStrategy(final FaceSecurity.SecurityData securityData) {
+			return data -> securityData.keyChain.sign(data, securityData.certificateName);
+		}
+	},
+	/**
+	 * SHA256withECDSA (P-256) with a key generated per strategy. jndn's memory
+	 * TPM cannot create EC keys, so this signs with the JCA directly.
+	 */
+	ECDSA {
+		@Override
+		public SigningStrategy newStrategy(FaceSecurity.SecurityData securityData) {
+			final Name keyName = getKeyName(securityData);
+			final PrivateKey privateKey;
+			try {
+				KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+				generator.initialize(new ECGenParameterSpec("secp256r1"));
+				privateKey = generator.generateKeyPair().getPrivate();
+			}
+			catch (GeneralSecurityException e) {
+				throw new IllegalStateException("cannot generate an ECDSA key", e);
+			}
+			return data -> {
+				Sha256WithEcdsaSignature signature = new Sha256WithEcdsaSignature();
+				setKeyName(signature.getKeyLocator(), keyName);
+				data.setSignature(signature);
+				SignedBlob encoding = data.wireEncode();
+				try {
+					Signature ecdsa = Signature.getInstance("SHA256withECDSA");
+					ecdsa.initSign(privateKey);
+					ecdsa.update(encoding.signedBuf());
+					data.getSignature().setSignature(new Blob(ecdsa.sign(), false));
+				}
+				catch (GeneralSecurityException e) {
+					throw new SecurityException("ECDSA signing failed: " + e);
+				}
+			};
+		}
+	},
+	/** HMAC-SHA256 with a random 256 bit key per strategy. */
+	HMAC_SHA256 {
+		@Override
+		public SigningStrategy newStrategy(FaceSecurity.SecurityData securityData) {
+			final Name keyName = getKeyName(securityData);
+			byte[] keyBytes = new byte[32];
+			new SecureRandom().nextBytes(keyBytes);
+			final Blob key = new Blob(keyBytes, false);
+			return data -> {
+				HmacWithSha256Signature signature = new HmacWithSha256Signature();
+				setKeyName(signature.getKeyLocator(), keyName);
+				data.setSignature(signature);
+				KeyChain.signWithHmacWithSha256(data, key);
+			};
+		}
+	},
+	/** A plain SHA-256 digest: integrity only, no key at all. */
+	DIGEST_SHA256 {
+		@Override
+		public SigningStrategy newStrategy(FaceSecurity.SecurityData securityData) {
+			return data -> {
+				data.setSignature(new DigestSha256Signature());
+				SignedBlob encoding = data.wireEncode();
+				data.getSignature().setSignature(new Blob(Common.digestSha256(encoding.signedBuf()), false));
+			};
+		}
+	};
+
+	/**
+	 * @return A new strategy signing as securityData's identity. Strategies
+	 * are stateless after creation and may be shared between threads.
+	 */
+	public abstract SigningStrategy newStrategy(FaceSecurity.SecurityData securityData);
+
+	private static Name getKeyName(FaceSecurity.SecurityData securityData) {
+		return CertificateV2.extractKeyNameFromCertName(securityData.certificateName);
+	}
+
+	private static void setKeyName(KeyLocator keyLocator, Name keyName) {
+		keyLocator.setType(KeyLocatorType.KEYNAME);
+		keyLocator.setKeyName(keyName);
+	}
+}
@@ -0,0 +1,65 @@
+package com.uofantarctica.jndn.helpers;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts signatures and the wall time spent computing them per
+ * {@link SigningAlgorithm}, so crypto cost can be told apart from the rest of
+ * a simulation's CPU time. Time is measured with System.nanoTime even in
+ * virtual time: signing costs real CPU either way.
+ */
+public class SigningStats {
+	private final Map<SigningAlgorithm, LongAdder> signatures = new EnumMap<>(SigningAlgorithm.class);
+	private final Map<SigningAlgorithm, LongAdder> signingNanos = new EnumMap<>(SigningAlgorithm.class);
+
+	public SigningStats() {
+		// Filled up front so the maps are only ever read afterwards.
+		for (SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+			signatures.put(algorithm, new LongAdder());
+			signingNanos.put(algorithm, new LongAdder());
+		}
+	}
+
+	/**
+	 * @return strategy, counting every signature it makes towards algorithm.
+	 */
+	public SigningStrategy timed(SigningAlgorithm algorithm, final SigningStrategy strategy) {
+		final LongAdder count = signatures.get(algorithm);
+		final LongAdder nanos = signingNanos.get(algorithm);
+		return data -> {
+			long start = System.nanoTime();
+			try {
+				strategy.sign(data);
+			}
+			finally {
+				nanos.add(System.nanoTime() - start);
+				count.increment();
+			}
+		};
+	}
+
+	public long getSignatureCount(SigningAlgorithm algorithm) {
+		return signatures.get(algorithm).sum();
+	}
+
+	public long getSigningNanos(SigningAlgorithm algorithm) {
+		return signingNanos.get(algorithm).sum();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (SigningAlgorithm algorithm : SigningAlgorithm.values()) {
+			long count = getSignatureCount(algorithm);
+			if (count == 0) {
+				continue;
+			}
+			long nanos = getSigningNanos(algorithm);
+			sb.append(String.format("%s signatures: %d, signing time (ms): %.1f, mean (us): %.1f%n",
+					algorithm, count, nanos / 1e6, nanos / 1e3 / count));
+		}
+		return sb.toString();
+	}
+}
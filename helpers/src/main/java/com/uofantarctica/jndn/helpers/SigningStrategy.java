@@ -0,0 +1,12 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.security.SecurityException;
+
+/**
+ * How a producer signs the Data it answers with. See {@link SigningAlgorithm}
+ * for the available strategies.
+ */
+public interface SigningStrategy {
+	void sign(Data data) throws SecurityException;
+}
@@ -0,0 +1,13 @@
+package com.uofantarctica.jndn.helpers;
+
+public class SystemClock implements Clock {
+	public static final SystemClock INSTANCE = new SystemClock();
+
+	private SystemClock() {
+	}
+
+	@Override
+	public double getNowMilliseconds() {
+		return (double)System.currentTimeMillis();
+	}
+}
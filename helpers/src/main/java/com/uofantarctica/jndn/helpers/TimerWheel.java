@@ -0,0 +1,255 @@
+package com.uofantarctica.jndn.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hashed timer wheel for many long, coarse timers, such as liveness checks
+ * that are pushed back every time a peer is heard from.
+ *
+ * Time is cut into ticks of tickMilliseconds and a timer sits in the slot of
+ * the tick its deadline falls in, modulo the number of slots. Arming,
+ * cancelling and moving a deadline are O(1): a deadline moved later only
+ * updates the timer, which is filed again when its old slot comes round. The
+ * wheel asks its {@link Scheduler} for one wakeup at a time, at the next
+ * non-empty slot, and none at all while no timer is armed. Timers fire up to
+ * one tick late, never early.
+ *
+ * Not thread safe: use it from the thread the scheduler calls back on, e.g.
+ * the one pumping the face whose callLater drives it.
+ */
+public class TimerWheel {
+	public static final double DEFAULT_TICK_MILLISECONDS = 1000.0;
+	public static final int DEFAULT_NUM_SLOTS = 256;
+	private static final long NONE = Long.MIN_VALUE;
+
+	private final Scheduler scheduler;
+	private final Clock clock;
+	private final double tickMilliseconds;
+	private final Timer[] slots;
+	private final List<Timer> due = new ArrayList<>();
+	// Every tick up to and including this one has been handled.
+	private long currentTick;
+	private long nextWakeupTick = NONE;
+	private int armedTimers = 0;
+	private long timersFired = 0;
+	private long deadlinesMoved = 0;
+	private long wakeups = 0;
+
+	public TimerWheel(Scheduler scheduler, Clock clock) {
+		this(scheduler, clock, DEFAULT_TICK_MILLISECONDS, DEFAULT_NUM_SLOTS);
+	}
+
+	public TimerWheel(Scheduler scheduler, Clock clock, double tickMilliseconds, int numSlots) {
+		if (tickMilliseconds <= 0 || numSlots <= 0) {
+			throw new IllegalArgumentException("need a positive tick and number of slots, got " +
+					tickMilliseconds + " and " + numSlots);
+		}
+		this.scheduler = scheduler;
+		this.clock = clock;
+		this.tickMilliseconds = tickMilliseconds;
+		this.slots = new Timer[numSlots];
+		this.currentTick = (long)Math.floor(clock.getNowMilliseconds() / tickMilliseconds);
+	}
+
+	/**
+	 * @return A timer that runs task when it fires, not armed yet.
+	 */
+	public Timer newTimer(Runnable task) {
+		return new Timer(task);
+	}
+
+	/**
+	 * @return A timer that runs task once, delayMilliseconds from now.
+	 */
+	public Timer schedule(double delayMilliseconds, Runnable task) {
+		Timer timer = new Timer(task);
+		timer.reschedule(delayMilliseconds);
+		return timer;
+	}
+
+	public final class Timer {
+		private final Runnable task;
+		private double deadline;
+		private boolean armed = false;
+		private long bucketTick = NONE;
+		private Timer previous;
+		private Timer next;
+
+		private Timer(Runnable task) {
+			this.task = task;
+		}
+
+		/**
+		 * Fire delayMilliseconds from now, instead of at any earlier deadline.
+		 */
+		public void reschedule(double delayMilliseconds) {
+			setDeadline(clock.getNowMilliseconds() + delayMilliseconds);
+		}
+
+		/**
+		 * Fire at deadline (in the clock's milliseconds), instead of at any
+		 * earlier deadline.
+		 */
+		public void setDeadline(double deadline) {
+			this.deadline = deadline;
+			if (!armed) {
+				armed = true;
+				++armedTimers;
+			}
+			else {
+				++deadlinesMoved;
+			}
+			long tick = getDeadlineTick(deadline);
+			if (bucketTick == NONE) {
+				insert(this, tick);
+			}
+			else if (tick < bucketTick) {
+				unlink(this);
+				insert(this, tick);
+			}
+		}
+
+		public void cancel() {
+			if (armed) {
+				armed = false;
+				--armedTimers;
+			}
+			if (bucketTick != NONE) {
+				unlink(this);
+			}
+		}
+
+		public boolean isArmed() {
+			return armed;
+		}
+
+		public double getDeadline() {
+			return deadline;
+		}
+	}
+
+	/**
+	 * @return How many timers are armed right now.
+	 */
+	public int getArmedTimers() {
+		return armedTimers;
+	}
+
+	public long getTimersFired() {
+		return timersFired;
+	}
+
+	/**
+	 * @return How many times an armed timer's deadline was moved instead of
+	 * a new timer being armed.
+	 */
+	public long getDeadlinesMoved() {
+		return deadlinesMoved;
+	}
+
+	/**
+	 * @return How many times the scheduler woke the wheel up.
+	 */
+	public long getWakeups() {
+		return wakeups;
+	}
+
+	private long getDeadlineTick(double deadline) {
+		return Math.max(currentTick + 1, (long)Math.ceil(deadline / tickMilliseconds));
+	}
+
+	private int getSlot(long tick) {
+		return (int)(tick % slots.length);
+	}
+
+	private void insert(Timer timer, long tick) {
+		int slot = getSlot(tick);
+		timer.bucketTick = tick;
+		timer.previous = null;
+		timer.next = slots[slot];
+		if (timer.next != null) {
+			timer.next.previous = timer;
+		}
+		slots[slot] = timer;
+		wakeUpBy(tick);
+	}
+
+	private void unlink(Timer timer) {
+		if (timer.previous != null) {
+			timer.previous.next = timer.next;
+		}
+		else {
+			slots[getSlot(timer.bucketTick)] = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.previous = timer.previous;
+		}
+		timer.previous = null;
+		timer.next = null;
+		timer.bucketTick = NONE;
+	}
+
+	private void wakeUpBy(long tick) {
+		if (nextWakeupTick != NONE && nextWakeupTick <= tick) {
+			return;
+		}
+		nextWakeupTick = tick;
+		final long wakeupTick = tick;
+		double delay = Math.max(0, tick * tickMilliseconds - clock.getNowMilliseconds());
+		scheduler.callLater(delay, () -> onWakeup(wakeupTick));
+	}
+
+	private void onWakeup(long wakeupTick) {
+		if (wakeupTick != nextWakeupTick) {
+			// An earlier wakeup took over.
+			return;
+		}
+		++wakeups;
+		nextWakeupTick = NONE;
+		advance();
+		for (int distance = 1; armedTimers > 0 && distance <= slots.length; ++distance) {
+			if (slots[getSlot(currentTick + distance)] != null) {
+				wakeUpBy(currentTick + distance);
+				break;
+			}
+		}
+	}
+
+	private void advance() {
+		double now = clock.getNowMilliseconds();
+		long nowTick = (long)Math.floor(now / tickMilliseconds);
+		long ticks = Math.min(nowTick - currentTick, slots.length);
+		for (long i = 1; i <= ticks; ++i) {
+			Timer timer = slots[getSlot(currentTick + i)];
+			while (timer != null) {
+				Timer next = timer.next;
+				if (timer.bucketTick <= nowTick) {
+					unlink(timer);
+					due.add(timer);
+				}
+				timer = next;
+			}
+		}
+		currentTick = Math.max(currentTick, nowTick);
+
+		for (int i = 0; i < due.size(); ++i) {
+			Timer timer = due.get(i);
+			if (!timer.armed || timer.bucketTick != NONE) {
+				// Cancelled or filed again by a task that fired before it.
+				continue;
+			}
+			if (timer.deadline <= now) {
+				timer.armed = false;
+				--armedTimers;
+				++timersFired;
+				timer.task.run();
+			}
+			else {
+				// Its deadline moved on since it was filed.
+				insert(timer, getDeadlineTick(timer.deadline));
+			}
+		}
+		due.clear();
+	}
+}
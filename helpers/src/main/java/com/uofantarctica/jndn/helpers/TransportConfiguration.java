@@ -9,7 +9,15 @@ public class TransportConfiguration {
 		transportFactory = newTransportFactory;
 	}
 
+	public static TransportFactory getTransportFactory() {
+		return transportFactory;
+	}
+
 	public static Face getFace() {
 		return new Face(transportFactory.getTransport(), transportFactory.getConnectionInfo());
 	}
+
+	public static ReactorFace getFace(FaceReactor reactor) {
+		return reactor.newFace(transportFactory);
+	}
 }
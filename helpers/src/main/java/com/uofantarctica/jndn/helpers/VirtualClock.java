@@ -0,0 +1,30 @@
+package com.uofantarctica.jndn.helpers;
+
+/**
+ * A clock that only moves when an {@link EventLoop} advances it to its next
+ * timer. It starts at the wall clock time it was created at, so anything
+ * derived from "now" (such as chat session numbers) looks the same as in a
+ * real run.
+ */
+public class VirtualClock implements Clock {
+	private volatile double now;
+
+	public VirtualClock() {
+		this((double)System.currentTimeMillis());
+	}
+
+	public VirtualClock(double startMilliseconds) {
+		now = startMilliseconds;
+	}
+
+	@Override
+	public double getNowMilliseconds() {
+		return now;
+	}
+
+	void advanceTo(double milliseconds) {
+		if (milliseconds > now) {
+			now = milliseconds;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.uofantarctica.jndn.helpers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventLoopTest {
+	private EventLoop loop;
+
+	@Before
+	public void setUp() {
+		loop = new EventLoop("EventLoopTest", FaceReactor.DEFAULT_POLL_INTERVAL_MILLIS);
+		loop.start();
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		loop.shutdown();
+		loop.awaitTermination(1000);
+	}
+
+	@Test
+	public void sleepIsReleasedByATimerOnTheLoop() throws InterruptedException {
+		long start = System.nanoTime();
+		loop.sleep(50);
+		assertTrue((System.nanoTime() - start) / 1000000 >= 50);
+	}
+
+	@Test
+	public void refusesToSleepOnItsOwnThread() throws Exception {
+		final AtomicReference<Exception> thrown = new AtomicReference<>();
+		loop.invokeAndWait(() -> {
+			try {
+				loop.sleep(10);
+			}
+			catch (Exception e) {
+				thrown.set(e);
+			}
+		});
+		assertEquals(IllegalStateException.class, thrown.get().getClass());
+	}
+
+	@Test
+	public void sleepsInVirtualTimeWithoutWaitingForIt() throws InterruptedException {
+		VirtualClock clock = new VirtualClock();
+		EventLoop virtual = new EventLoop("EventLoopTest-virtual", FaceReactor.DEFAULT_POLL_INTERVAL_MILLIS, clock);
+		virtual.start();
+		try {
+			virtual.registerActor();
+			long start = System.nanoTime();
+			virtual.sleep(60000);
+			assertTrue(clock.getNowMilliseconds() >= 60000);
+			assertTrue((System.nanoTime() - start) / 1000000 < 60000);
+		}
+		finally {
+			virtual.shutdown();
+			virtual.awaitTermination(1000);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.uofantarctica.jndn.helpers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void percentilesAreWithinThePrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 100000; ++value) {
+			histogram.record(value);
+		}
+		assertEquals(100000, histogram.getCount());
+		assertEquals(1, histogram.getMin());
+		assertEquals(100000, histogram.getMax());
+		assertWithin(50000, histogram.getValueAtPercentile(50));
+		assertWithin(99000, histogram.getValueAtPercentile(99));
+		assertWithin(99900, histogram.getValueAtPercentile(99.9));
+		assertEquals(100000, histogram.getValueAtPercentile(100));
+
+		LatencyHistogram small = new LatencyHistogram();
+		small.record(7);
+		assertEquals(7, small.getValueAtPercentile(50));
+	}
+
+	@Test
+	public void mergedHistogramsCountEverything() {
+		LatencyHistogram low = new LatencyHistogram();
+		LatencyHistogram high = new LatencyHistogram();
+		for (int i = 0; i < 90; ++i) {
+			low.record(10);
+		}
+		for (int i = 0; i < 10; ++i) {
+			high.record(5000000);
+		}
+		LatencyHistogram room = new LatencyHistogram();
+		room.add(low);
+		room.add(high);
+		assertEquals(100, room.getCount());
+		assertEquals(10, room.getValueAtPercentile(90));
+		assertEquals(5000000, room.getValueAtPercentile(91));
+		assertEquals(5000000, room.getMax());
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(expected + " vs " + actual, Math.abs(actual - expected) <= expected * 2.0 / 64);
+	}
+}
@@ -0,0 +1,243 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.InterestFilter;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+import net.named_data.jndn.OnData;
+import net.named_data.jndn.OnInterestCallback;
+import net.named_data.jndn.OnNetworkNack;
+import net.named_data.jndn.OnRegisterFailed;
+import net.named_data.jndn.OnRegisterSuccess;
+import net.named_data.jndn.OnTimeout;
+import net.named_data.jndn.util.Blob;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoopbackForwarderTest {
+	LoopbackForwarder forwarder;
+	List<Face> faces;
+
+	@Before
+	public void setUp() {
+		LoopbackTransportFactory transportFactory = new LoopbackTransportFactory();
+		forwarder = transportFactory.getForwarder();
+		TransportConfiguration.setTransportFactory(transportFactory);
+		faces = new ArrayList<>();
+	}
+
+	@Test
+	public void interestReachesProducerAndDataReturns() throws Exception {
+		Face consumer = newFace();
+		Face producer = newFace();
+		final Name prefix = new Name("/test/producer");
+		register(producer, prefix, new Responder("hello"));
+
+		final List<Data> received = new ArrayList<>();
+		consumer.expressInterest(new Interest(new Name(prefix).append("1"), 1000), collect(received), failOnTimeout());
+		pumpUntil(received, 1);
+
+		assertEquals("hello", received.get(0).getContent().toString());
+		assertEquals(0, forwarder.getPitSize());
+	}
+
+	@Test
+	public void broadcastInterestReachesEveryRegisteredFace() throws Exception {
+		Face consumer = newFace();
+		Name prefix = new Name("/ndn/broadcast/test");
+		Responder first = new Responder("first");
+		Responder second = new Responder("second");
+		register(newFace(), prefix, first);
+		register(newFace(), prefix, second);
+
+		final List<Data> received = new ArrayList<>();
+		consumer.expressInterest(new Interest(new Name(prefix).append("x"), 1000), collect(received), failOnTimeout());
+		pumpUntil(received, 1);
+		pumpAll(5);
+
+		assertEquals(1, first.interests);
+		assertEquals(1, second.interests);
+		assertEquals("Only the first Data satisfies the consumer's PIT entry", 1, received.size());
+	}
+
+	@Test
+	public void identicalInterestsAreAggregated() throws Exception {
+		Face first = newFace();
+		Face second = newFace();
+		Name prefix = new Name("/test/aggregate");
+		Responder responder = new Responder("once");
+		register(newFace(), prefix, responder);
+
+		final List<Data> received = new ArrayList<>();
+		Name name = new Name(prefix).append("1");
+		first.expressInterest(new Interest(name, 1000), collect(received), failOnTimeout());
+		second.expressInterest(new Interest(name, 1000), collect(received), failOnTimeout());
+		pumpUntil(received, 2);
+
+		assertEquals(1, responder.interests);
+		assertEquals(1, forwarder.getInterestsAggregated());
+	}
+
+	@Test
+	public void unroutedInterestIsDropped() throws Exception {
+		Face consumer = newFace();
+		final boolean[] timedOut = {false};
+		consumer.expressInterest(new Interest(new Name("/nobody/home"), 50), collect(new ArrayList<Data>()),
+				new OnTimeout() {
+					@Override
+					public void onTimeout(Interest interest) {
+						timedOut[0] = true;
+					}
+				});
+		long start = System.currentTimeMillis();
+		while (!timedOut[0] && System.currentTimeMillis() - start < 2000) {
+			pumpAll(1);
+		}
+		assertTrue(timedOut[0]);
+		assertEquals(1, forwarder.getInterestsUnrouted());
+	}
+
+	@Test
+	public void unroutedInterestIsNackedWithNoRoute() throws Exception {
+		Face consumer = newFace();
+		List<NetworkNack.Reason> nacks = new ArrayList<>();
+		consumer.expressInterest(new Interest(new Name("/nobody/home"), 1000), collect(new ArrayList<Data>()),
+				failOnTimeout(), collectNacks(nacks));
+		pumpUntilNacked(nacks, 1);
+
+		assertEquals(NetworkNack.Reason.NO_ROUTE, nacks.get(0));
+	}
+
+	@Test
+	public void interestBeyondPitCapacityIsNackedWithCongestion() throws Exception {
+		forwarder.setPitCapacity(1);
+		Face consumer = newFace();
+		Name prefix = new Name("/test/silent");
+		register(newFace(), prefix, new OnInterestCallback() {
+			@Override
+			public void onInterest(Name prefix, Interest interest, Face face, long interestFilterId,
+			                       InterestFilter filter) {
+				// Never answer, so the first Interest stays in the PIT.
+			}
+		});
+
+		List<NetworkNack.Reason> nacks = new ArrayList<>();
+		consumer.expressInterest(new Interest(new Name(prefix).append("1"), 1000), collect(new ArrayList<Data>()),
+				failOnTimeout(), collectNacks(nacks));
+		consumer.expressInterest(new Interest(new Name(prefix).append("2"), 1000), collect(new ArrayList<Data>()),
+				failOnTimeout(), collectNacks(nacks));
+		pumpUntilNacked(nacks, 1);
+
+		assertEquals(NetworkNack.Reason.CONGESTION, nacks.get(0));
+		assertEquals(1, forwarder.getInterestsCongested());
+		assertEquals(1, forwarder.getPitSize());
+	}
+
+	private Face newFace() {
+		Face face = TransportConfiguration.getFace();
+		FaceSecurity.initFaceAndGetSecurityData(face);
+		faces.add(face);
+		return face;
+	}
+
+	private void register(Face face, Name prefix, OnInterestCallback onInterest) throws Exception {
+		final boolean[] registered = {false};
+		face.registerPrefix(prefix, onInterest, new OnRegisterFailed() {
+			@Override
+			public void onRegisterFailed(Name prefix) {
+				throw new AssertionError("register failed for " + prefix.toUri());
+			}
+		}, new OnRegisterSuccess() {
+			@Override
+			public void onRegisterSuccess(Name prefix, long registeredPrefixId) {
+				registered[0] = true;
+			}
+		});
+		long start = System.currentTimeMillis();
+		while (!registered[0] && System.currentTimeMillis() - start < 2000) {
+			pumpAll(1);
+		}
+		assertTrue("prefix registration did not complete", registered[0]);
+	}
+
+	private void pumpUntil(List<Data> received, int count) throws Exception {
+		long start = System.currentTimeMillis();
+		while (received.size() < count && System.currentTimeMillis() - start < 2000) {
+			pumpAll(1);
+		}
+		assertEquals(count, received.size());
+	}
+
+	private void pumpUntilNacked(List<NetworkNack.Reason> nacks, int count) throws Exception {
+		long start = System.currentTimeMillis();
+		while (nacks.size() < count && System.currentTimeMillis() - start < 2000) {
+			pumpAll(1);
+		}
+		assertEquals(count, nacks.size());
+	}
+
+	private void pumpAll(int times) throws Exception {
+		for (int i = 0; i < times; ++i) {
+			for (Face face : faces) {
+				face.processEvents();
+			}
+			Thread.sleep(1);
+		}
+	}
+
+	private static OnData collect(final List<Data> received) {
+		return new OnData() {
+			@Override
+			public void onData(Interest interest, Data data) {
+				received.add(data);
+			}
+		};
+	}
+
+	private static OnNetworkNack collectNacks(final List<NetworkNack.Reason> nacks) {
+		return new OnNetworkNack() {
+			@Override
+			public void onNetworkNack(Interest interest, NetworkNack networkNack) {
+				nacks.add(networkNack.getReason());
+			}
+		};
+	}
+
+	private static OnTimeout failOnTimeout() {
+		return new OnTimeout() {
+			@Override
+			public void onTimeout(Interest interest) {
+				throw new AssertionError("timed out on " + interest.getName().toUri());
+			}
+		};
+	}
+
+	private static class Responder implements OnInterestCallback {
+		final String content;
+		int interests = 0;
+
+		Responder(String content) {
+			this.content = content;
+		}
+
+		@Override
+		public void onInterest(Name prefix, Interest interest, Face face, long interestFilterId, InterestFilter filter) {
+			++interests;
+			Data data = new Data(interest.getName());
+			data.setContent(new Blob(content));
+			try {
+				face.putData(data);
+			} catch (Exception e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
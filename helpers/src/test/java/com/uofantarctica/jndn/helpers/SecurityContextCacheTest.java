@@ -0,0 +1,44 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.RsaKeyParams;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SecurityContextCacheTest {
+
+	@Test
+	public void defaultIdentityIsBuiltOnce() throws Exception {
+		SecurityContextCache cache = new SecurityContextCache(new RsaKeyParams());
+		FaceSecurity.SecurityData first = cache.getDefaultIdentity();
+		assertSame(first, cache.getDefaultIdentity());
+		assertTrue(first.certificateName.toUri().startsWith("/testname/KEY/123"));
+	}
+
+	@Test
+	public void preparedIdentitiesAreDistinctAndCached() throws Exception {
+		SecurityContextCache cache = new SecurityContextCache(new RsaKeyParams());
+		Name prefix = new Name("/test/participant");
+		List<FaceSecurity.SecurityData> identities = cache.prepareIdentities(prefix, 4, 2);
+
+		Set<Name> certificateNames = new HashSet<>();
+		for (FaceSecurity.SecurityData identity : identities) {
+			certificateNames.add(identity.certificateName);
+			Data data = new Data(new Name("/test/data"));
+			identity.keyChain.sign(data, identity.certificateName);
+			assertTrue(data.getSignature().getSignature().size() > 0);
+		}
+		assertEquals(4, certificateNames.size());
+		assertTrue(new Name(prefix).append("2").isPrefixOf(identities.get(2).certificateName));
+		assertSame(identities.get(2), cache.getIdentity(new Name(prefix).append("2")));
+		assertEquals(4, cache.size());
+	}
+}
@@ -0,0 +1,69 @@
+package com.uofantarctica.jndn.helpers;
+
+import net.named_data.jndn.Data;
+import net.named_data.jndn.DigestSha256Signature;
+import net.named_data.jndn.HmacWithSha256Signature;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.Sha256WithEcdsaSignature;
+import net.named_data.jndn.Sha256WithRsaSignature;
+import net.named_data.jndn.util.Blob;
+import net.named_data.jndn.util.Common;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SigningAlgorithmTest {
+	FaceSecurity.SecurityData securityData;
+
+	@Before
+	public void setUp() throws Exception {
+		securityData = SecurityContextCache.getDefault().getDefaultIdentity();
+	}
+
+	@Test
+	public void everyAlgorithmProducesItsSignatureType() throws Exception {
+		assertTrue(sign(SigningAlgorithm.RSA).getSignature() instanceof Sha256WithRsaSignature);
+		assertTrue(sign(SigningAlgorithm.ECDSA).getSignature() instanceof Sha256WithEcdsaSignature);
+		assertTrue(sign(SigningAlgorithm.HMAC_SHA256).getSignature() instanceof HmacWithSha256Signature);
+		assertTrue(sign(SigningAlgorithm.DIGEST_SHA256).getSignature() instanceof DigestSha256Signature);
+	}
+
+	@Test
+	public void digestMatchesTheSignedPortion() throws Exception {
+		Data data = sign(SigningAlgorithm.DIGEST_SHA256);
+		Data decoded = new Data();
+		decoded.wireDecode(data.wireEncode());
+		byte[] expected = Common.digestSha256(decoded.wireEncode().signedBuf());
+		assertArrayEquals(expected, decoded.getSignature().getSignature().getImmutableArray());
+	}
+
+	@Test
+	public void statsCountSignaturesPerAlgorithm() throws Exception {
+		SigningStats stats = new SigningStats();
+		SigningStrategy hmac = stats.timed(SigningAlgorithm.HMAC_SHA256,
+				SigningAlgorithm.HMAC_SHA256.newStrategy(securityData));
+		for (int i = 0; i < 3; ++i) {
+			hmac.sign(newData());
+		}
+		assertEquals(3, stats.getSignatureCount(SigningAlgorithm.HMAC_SHA256));
+		assertEquals(0, stats.getSignatureCount(SigningAlgorithm.RSA));
+		assertTrue(stats.getSigningNanos(SigningAlgorithm.HMAC_SHA256) > 0);
+		assertTrue(stats.toString().startsWith("HMAC_SHA256 signatures: 3"));
+	}
+
+	private Data sign(SigningAlgorithm algorithm) throws Exception {
+		Data data = newData();
+		algorithm.newStrategy(securityData).sign(data);
+		assertTrue(data.getSignature().getSignature().size() > 0);
+		return data;
+	}
+
+	private static Data newData() {
+		Data data = new Data(new Name("/test/signing"));
+		data.setContent(new Blob("content"));
+		return data;
+	}
+}
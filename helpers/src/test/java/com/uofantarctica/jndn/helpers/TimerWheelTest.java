@@ -0,0 +1,76 @@
+package com.uofantarctica.jndn.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+	private double now = 0;
+	private long sequence = 0;
+	private final PriorityQueue<double[]> calls = new PriorityQueue<>((a, b) ->
+			a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+	private final List<Runnable> callbacks = new ArrayList<>();
+	private final TimerWheel wheel = new TimerWheel((delay, callback) -> {
+		calls.add(new double[] {now + delay, sequence++, callbacks.size()});
+		callbacks.add(callback);
+	}, () -> now, 100, 8);
+
+	@Test
+	public void firesAtTheDeadlineNotBefore() {
+		List<Double> fired = new ArrayList<>();
+		wheel.schedule(250, () -> fired.add(now));
+		wheel.schedule(2500, () -> fired.add(now));
+		runUntil(349);
+		assertEquals(1, fired.size());
+		assertTrue(fired.get(0) >= 250);
+
+		runUntil(10000);
+		assertEquals(2, fired.size());
+		assertTrue(fired.get(1) >= 2500 && fired.get(1) < 2600);
+		assertEquals(0, wheel.getArmedTimers());
+		assertEquals(2, wheel.getTimersFired());
+	}
+
+	@Test
+	public void movingTheDeadlineKeepsOneTimer() {
+		List<Double> fired = new ArrayList<>();
+		TimerWheel.Timer timer = wheel.newTimer(() -> fired.add(now));
+		for (int i = 0; i < 10; ++i) {
+			timer.reschedule(1000);
+			runUntil(now + 500);
+		}
+		assertTrue(fired.isEmpty());
+		assertEquals(1, wheel.getArmedTimers());
+		assertEquals(9, wheel.getDeadlinesMoved());
+
+		runUntil(now + 1000);
+		assertEquals(1, fired.size());
+		assertEquals(5500, fired.get(0), 100);
+	}
+
+	@Test
+	public void cancelledTimersDoNotFire() {
+		List<Double> fired = new ArrayList<>();
+		TimerWheel.Timer timer = wheel.schedule(300, () -> fired.add(now));
+		timer.cancel();
+		assertFalse(timer.isArmed());
+		runUntil(1000);
+		assertTrue(fired.isEmpty());
+		assertEquals(0, wheel.getArmedTimers());
+	}
+
+	private void runUntil(double time) {
+		while (!calls.isEmpty() && calls.peek()[0] <= time) {
+			double[] call = calls.poll();
+			now = Math.max(now, call[0]);
+			callbacks.get((int)call[2]).run();
+		}
+		now = Math.max(now, time);
+	}
+}
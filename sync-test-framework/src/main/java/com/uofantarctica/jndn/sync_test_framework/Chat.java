@@ -7,4 +7,10 @@ public interface Chat {
 	void sendMessage(String chatMessage);
 	void leave();
 	void pumpFaceAwhile(long awhile);
+
+	/**
+	 * Keep the face's events flowing for awhile milliseconds, then run then.
+	 * Returns at once when the face has an event loop to run then on.
+	 */
+	void pumpFaceAwhile(long awhile, Runnable then);
 }
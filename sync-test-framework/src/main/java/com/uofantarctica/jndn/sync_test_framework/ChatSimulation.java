@@ -1,54 +1,125 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.EventLoop;
+import com.uofantarctica.jndn.helpers.FaceReactor;
 import com.uofantarctica.jndn.helpers.FaceSecurity;
-import com.uofantarctica.jndn.sync_test_framework.SyncQueue;
+import com.uofantarctica.jndn.helpers.LoopbackForwarder;
+import com.uofantarctica.jndn.helpers.LoopbackTransportFactory;
+import com.uofantarctica.jndn.helpers.MonotonicClock;
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import com.uofantarctica.jndn.helpers.SigningAlgorithm;
+import com.uofantarctica.jndn.helpers.SigningStats;
+import com.uofantarctica.jndn.helpers.SigningStrategy;
 import com.uofantarctica.jndn.helpers.TransportConfiguration;
+import com.uofantarctica.jndn.helpers.VirtualClock;
 import net.named_data.jndn.Face;
-import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.uofantarctica.jndn.helpers.FaceSecurity.initFaceAndGetSecurityData;
 
 public class ChatSimulation {
 	private static final Logger log = LoggerFactory.getLogger(ChatSimulation.class);
+	private static final String PARTICIPANT_IDENTITY_PREFIX = "/sync-simulation/participant";
+	public static final long DEFAULT_RESULTS_DEADLINE_MILLISECONDS = 30 * 60 * 1000;
 	final int participants;
 	final int numMessages;
 	final String broadcastBaseName;
 	final String screenName;
 	final String hubPrefix;
 	final String chatRoom;
+	final int reactorThreads;
+	final Clock clock;
+	final ExecutionMode executionMode;
+	final boolean identityPerParticipant;
+	final SigningAlgorithm signingAlgorithm;
+	final SigningStats signingStats = new SigningStats();
+	final MessageTracer messageTracer;
+	final ChatterOptions chatterOptions;
 	final int[] messagesSentCountPerUser;
-	final SyncQueue<ArrayList<UserChatSummary>> resultQueue = new SyncQueue<>(5);
-	private List<Interest> interestExpressed;
+	final long resultsDeadlineMilliseconds;
+	final SimulationMetrics metrics;
+	final EventRecorder eventRecorder;
 
 	public ChatSimulation(int participants, int numMessages, String broadcastBaseName, String screenName, String
 			hubPrefix, String chatRoom) {
-		this.participants = participants;
-		this.numMessages = numMessages;
-		this.broadcastBaseName = broadcastBaseName;
-		this.screenName = screenName;
-		this.hubPrefix = hubPrefix;
-		this.chatRoom = chatRoom;
+		this(ChatSimulationBuilder.aChatSimulation()
+				.withNumParticipants(participants)
+				.withNumMessages(numMessages)
+				.withBroadcastBaseName(broadcastBaseName)
+				.withScreenName(screenName)
+				.withHubPrefix(hubPrefix)
+				.withChatRoom(chatRoom));
+	}
+
+	ChatSimulation(ChatSimulationBuilder builder) {
+		this.participants = builder.participants;
+		this.numMessages = builder.numMessages;
+		this.broadcastBaseName = builder.broadcastBaseName;
+		this.screenName = builder.screenName;
+		this.hubPrefix = builder.hubPrefix;
+		this.chatRoom = builder.chatRoom;
+		this.reactorThreads = builder.reactorThreads;
+		this.clock = builder.clock;
+		this.executionMode = builder.executionMode;
+		this.identityPerParticipant = builder.identityPerParticipant;
+		this.signingAlgorithm = builder.signingAlgorithm;
+		this.messageTracer = builder.traceSampleEvery > 0 ? new MessageTracer(builder.traceSampleEvery,
+				clock instanceof VirtualClock ? clock : MonotonicClock.INSTANCE) : MessageTracer.DISABLED;
+		this.chatterOptions = new ChatterOptions(builder, newWorkload(builder), messageTracer);
+		this.resultsDeadlineMilliseconds = builder.resultsDeadlineMilliseconds;
+		this.metrics = new SimulationMetrics(participants, clock);
 		messagesSentCountPerUser = new int[participants];
-		interestExpressed = new CopyOnWriteArrayList<>();
+		eventRecorder = new EventRecorder(builder.eventStripeCapacity);
+	}
+
+	/**
+	 * @return The builder's workload, or a fresh replay of its trace.
+	 */
+	private static Workload newWorkload(ChatSimulationBuilder builder) {
+		if (builder.tracePath == null) {
+			return builder.workload;
+		}
+		try {
+			return TraceReplay.open(builder.tracePath, builder.participants, builder.traceTimeScale);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("failed to open trace " + builder.tracePath, e);
+		}
+	}
+
+	public SigningStats getSigningStats() {
+		return signingStats;
+	}
+
+	public MessageTracer getMessageTracer() {
+		return messageTracer;
 	}
 
-	public List<Interest> getAllInterests() {
-		return interestExpressed;
+	/**
+	 * @return What happened to every chatter's chat Interests.
+	 */
+	public EventRecorder getEventRecorder() {
+		return eventRecorder;
 	}
 
 	public UserChatSummary simulate() {
 		UserChatSummary summary = null;
-		ExecutorService executor = Executors.newFixedThreadPool(participants,
+		log.info("workload seed " + chatterOptions.workloadSeed + ", pass it to withWorkloadSeed to repeat this run.");
+		boolean eventDriven = executionMode == ExecutionMode.EVENT_DRIVEN;
+		ExecutorService executor = Executors.newFixedThreadPool(eventDriven ? 1 : participants,
 				new ThreadFactory() {
 					@Override
 					public Thread newThread(Runnable runnable) {
@@ -59,70 +130,165 @@ public class ChatSimulation {
 					}
 				});
 
-		for (int i = 0; i < participants; ++i) {
-			Face face = TransportConfiguration.getFace();
-			FaceSecurity.SecurityData securityData = initFaceAndGetSecurityData(face);
-			ChronoChatUser.pumpFaceAwhile(face, 2000);
-
-			ChronoChatUser chronoChatUser = new ChronoChatUser(i, participants,
-					broadcastBaseName, screenName, chatRoom, hubPrefix, face, securityData, resultQueue,
-					 messagesSentCountPerUser, numMessages, interestExpressed);
+		FaceReactor reactor = createReactor();
+		// In virtual time this thread and every participant are actors: the
+		// event loop only moves time while all of them are waiting on it.
+		EventLoop virtualTimeLoop = clock instanceof VirtualClock ? reactor.getEventLoop() : null;
+		if (virtualTimeLoop != null) {
+			virtualTimeLoop.registerActor();
+		}
 
+		// Participants with nothing to send are done from the start.
+		int silentParticipants = 0;
+		for (int messages : chatterOptions.messagesPerParticipant) {
+			if (messages == 0) {
+				++silentParticipants;
+			}
+		}
+		AtomicInteger usersDoneSending = new AtomicInteger(silentParticipants);
+		// Count the packets of this simulation only, if the forwarder is ours.
+		LoopbackForwarder forwarder = TransportConfiguration.getTransportFactory() instanceof LoopbackTransportFactory ?
+				((LoopbackTransportFactory) TransportConfiguration.getTransportFactory()).getForwarder() : null;
+		long interestsBefore = forwarder != null ? forwarder.getInterestsReceived() : 0;
+		long dataBefore = forwarder != null ? forwarder.getDataReceived() : 0;
+		StartupBarrier startup;
+		List<ChronoChatUser> users;
+		try {
+			List<FaceSecurity.SecurityData> identities = identityPerParticipant ?
+					SecurityContextCache.getDefault().prepareIdentities(new Name(PARTICIPANT_IDENTITY_PREFIX),
+							participants, Runtime.getRuntime().availableProcessors()) : null;
+			startup = new StartupBarrier(participants, clock);
+			users = createParticipants(reactor, identities, usersDoneSending, startup);
+		}
+		catch (Exception e) {
+			log.error("failed to set up participants.", e);
+			if (reactor != null) {
+				reactor.shutdown();
+			}
+			return null;
+		}
+		for (ChronoChatUser chronoChatUser : users) {
+			if (eventDriven) {
+				chronoChatUser.start();
+				continue;
+			}
+			if (virtualTimeLoop != null) {
+				virtualTimeLoop.registerActor();
+			}
 			executor.execute(chronoChatUser);
 		}
+		if (virtualTimeLoop != null) {
+			virtualTimeLoop.deregisterActor();
+		}
 
 		// gatherMetrics does not return until all chatter users have finished
-		// sending all their chatter messages and published their results to the
-		// resultQueue.
+		// sending all their chatter messages and reported their results to
+		// metrics, or the deadline passed.
 		try {
-			UserChatSummary accumulator = gatherMetrics(participants, resultQueue);
-			verifyValidExperiment(accumulator, participants);
+			UserChatSummary accumulator = gatherMetrics(metrics, resultsDeadlineMilliseconds);
+			accumulator.setWorkloadSeed(chatterOptions.workloadSeed);
+			accumulator.setStartupLatencyMilliseconds(startup.getStartupLatencyMilliseconds());
+			accumulator.setSigningStats(signingStats);
+			accumulator.setMessageCacheStats(users);
+			if (forwarder != null) {
+				accumulator.setForwardedPackets(forwarder.getInterestsReceived() - interestsBefore,
+						forwarder.getDataReceived() - dataBefore);
+			}
+			if (messageTracer.isEnabled()) {
+				accumulator.setStageLatencies(messageTracer.getNumTraced(), messageTracer.getBreakdown());
+			}
+			verifyValidExperiment(accumulator, chatterOptions.getExpectedUniqueChats());
 			shutDownExperiment(executor);
 			summary = accumulator;
 		}
 		catch (Exception e) {
 			log.error("error finishing simulation.", e);
 		}
+		finally {
+			if (reactor != null) {
+				reactor.shutdown();
+			}
+		}
 		return summary;
 	}
 
-	public static UserChatSummary gatherMetrics(int participants, SyncQueue
-			resultQueue) {
-		UserChatSummary accumulator = null;
-		ArrayList<UserChatSummary> newResults;
-		int numOfUsersFinished = 0;
-		int numUniqueChats = 0;
-		while (numOfUsersFinished < participants) {
-			try {
-				newResults = (ArrayList<UserChatSummary>) resultQueue.deQ();
-				if (newResults != null) {
-					++numOfUsersFinished;
-					if (newResults.size() > 0)
-						log.debug("Another participant finished " + numOfUsersFinished);
-					else
-						log.debug("Another participant finished " + numOfUsersFinished +
-								" results is of size 0.");
-					for (UserChatSummary u : newResults) {
-						++numUniqueChats;
-						if (accumulator == null) {
-							accumulator = u;
-						} else {
-							accumulator.plus(u);
-						}
+	/**
+	 * Build every participant's face and security data on a pool of setup
+	 * threads. Participants do not wait here for their face to come up; they
+	 * report readiness to startup instead.
+	 */
+	private List<ChronoChatUser> createParticipants(final FaceReactor reactor,
+	                                                final List<FaceSecurity.SecurityData> identities,
+	                                                final AtomicInteger usersDoneSending,
+	                                                final StartupBarrier startup) throws Exception {
+		int setupThreads = Math.max(1, Math.min(participants, Runtime.getRuntime().availableProcessors()));
+		ExecutorService setupPool = Executors.newFixedThreadPool(setupThreads,
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread t = new Thread(runnable);
+						t.setDaemon(true);
+						t.setName("ChatSimulationSetup");
+						return t;
 					}
-				}
+				});
+		try {
+			List<Future<ChronoChatUser>> futures = new ArrayList<>(participants);
+			for (int i = 0; i < participants; ++i) {
+				final int participantNo = i;
+				futures.add(setupPool.submit(() -> {
+					Face face = reactor != null ? TransportConfiguration.getFace(reactor) : TransportConfiguration.getFace();
+					FaceSecurity.SecurityData securityData = identities != null ?
+							FaceSecurity.initFace(face, identities.get(participantNo)) : initFaceAndGetSecurityData(face);
+					SigningStrategy signingStrategy = signingStats.timed(signingAlgorithm,
+							signingAlgorithm.newStrategy(securityData));
+					return new ChronoChatUser(participantNo, participants,
+							broadcastBaseName, screenName, chatRoom, hubPrefix, face, securityData, signingStrategy,
+							metrics,
+							messagesSentCountPerUser, usersDoneSending, startup, chatterOptions,
+							chatterOptions.messagesPerParticipant[participantNo], eventRecorder);
+				}));
 			}
-			catch (Exception e) {
-				log.error(" error in gather metrics.",e);
+			List<ChronoChatUser> users = new ArrayList<>(participants);
+			for (Future<ChronoChatUser> future : futures) {
+				users.add(future.get());
 			}
+			return users;
+		}
+		finally {
+			setupPool.shutdown();
+		}
+	}
+
+	private FaceReactor createReactor() {
+		if (clock instanceof VirtualClock) {
+			if (reactorThreads > 1) {
+				log.debug("virtual time runs on a single event loop, ignoring reactorThreads " + reactorThreads);
+			}
+			return new FaceReactor((VirtualClock) clock);
+		}
+		return reactorThreads > 0 ? new FaceReactor(reactorThreads) : null;
+	}
+
+	/**
+	 * Wait for every participant to report to metrics, but no longer than
+	 * deadlineMilliseconds.
+	 * @return The totals of the participants that reported.
+	 */
+	public static UserChatSummary gatherMetrics(SimulationMetrics metrics, long deadlineMilliseconds)
+			throws InterruptedException {
+		if (!metrics.await(deadlineMilliseconds, TimeUnit.MILLISECONDS)) {
+			log.error("only " + metrics.getNumReported() + " participants reported their results within " +
+					deadlineMilliseconds + " ms, summarizing those.");
+		}
+		if (metrics.getNumFailed() > 0) {
+			log.error(metrics.getNumFailed() + " participants failed, summarizing the rest.");
 		}
-		accumulator.setAccumulationStats(numOfUsersFinished, numUniqueChats);
-		return accumulator;
+		return metrics.getSummary();
 	}
 
 	private static void verifyValidExperiment(UserChatSummary accumulator,
-	                                          int numParticipants) {
-		int expectedNumUniqueChats = numParticipants * (numParticipants - 1);
+	                                          long expectedNumUniqueChats) {
 		int numUniqueChats = accumulator.getNumUniqueChats();
 
 		if (numUniqueChats != expectedNumUniqueChats) {
@@ -179,7 +345,7 @@ public class ChatSimulation {
 
 	public boolean correctNumberOfChats(UserChatSummary summary) {
 		boolean valid = true;
-		if (summary.getNumUniqueChats() != UserChatSummary.getExpectedNumUniqueChats(participants)) {
+		if (summary.getNumUniqueChats() != chatterOptions.getExpectedUniqueChats()) {
 			log.error("FAILED: number of unique chats (combinations of 2 in N number of users) not " +
 					"equal" +
 					"to expected number of unique chats.");
@@ -190,7 +356,7 @@ public class ChatSimulation {
 
 	public boolean correctNumberOfMesages(UserChatSummary summary) {
 		boolean valid = true;
-		int expectedTotalCount = UserChatSummary.getExpectedTotalCount(participants, numMessages);
+		long expectedTotalCount = chatterOptions.getExpectedReceipts();
 		if (expectedTotalCount != summary.getTotalCount()) {
 			log.error("Expected Total Count: " + expectedTotalCount);
 			valid = false;
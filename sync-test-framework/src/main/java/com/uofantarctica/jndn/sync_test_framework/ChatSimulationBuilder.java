@@ -1,12 +1,39 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.SigningAlgorithm;
+import com.uofantarctica.jndn.helpers.SystemClock;
+import com.uofantarctica.jndn.helpers.VirtualClock;
+
+import java.util.Random;
+
 public final class ChatSimulationBuilder {
 	int participants;
 	int numMessages;
+	double messageRate = 0;
+	Workload workload = Workloads.uniform();
+	long workloadSeed = new Random().nextLong();
+	String tracePath;
+	double traceTimeScale = 1;
+	SyncFactory[] syncFactories = {SyncFactories.getDefault()};
 	String screenName;
 	String hubPrefix;
 	String chatRoom;
 	String broadcastBaseName;
+	int reactorThreads = Runtime.getRuntime().availableProcessors();
+	Clock clock = SystemClock.INSTANCE;
+	ExecutionMode executionMode = ExecutionMode.THREAD_PER_PARTICIPANT;
+	boolean identityPerParticipant = false;
+	SigningAlgorithm signingAlgorithm = SigningAlgorithm.RSA;
+	int messageCacheCapacity = MessageCache.DEFAULT_CAPACITY;
+	long messageCacheMaxBytes = 0;
+	boolean preEncodeData = true;
+	int fetchInitialWindow = FetchPipeline.DEFAULT_INITIAL_WINDOW;
+	int fetchMaxWindow = FetchPipeline.DEFAULT_MAX_WINDOW;
+	int fetchMaxRetransmissions = FetchPipeline.DEFAULT_MAX_RETRANSMISSIONS;
+	int eventStripeCapacity = EventRecorder.DEFAULT_STRIPE_CAPACITY;
+	long resultsDeadlineMilliseconds = ChatSimulation.DEFAULT_RESULTS_DEADLINE_MILLISECONDS;
+	int traceSampleEvery = 0;
 
 	private ChatSimulationBuilder() {
 	}
@@ -25,6 +52,58 @@ public final class ChatSimulationBuilder {
 		return this;
 	}
 
+	/**
+	 * How many messages per second each participant sends on average over
+	 * the room. 0 (the default) means {@link Workload#DEFAULT_MESSAGE_RATE}.
+	 */
+	public ChatSimulationBuilder withMessageRate(double messageRate) {
+		this.messageRate = messageRate;
+		return this;
+	}
+
+	/**
+	 * When participants send their messages, see {@link Workloads}.
+	 * {@link Workloads#uniform()} by default.
+	 */
+	public ChatSimulationBuilder withWorkload(Workload workload) {
+		this.workload = workload;
+		return this;
+	}
+
+	/**
+	 * Seed every participant's workload generator from seed, so the same
+	 * seed sends the same messages at the same times. Random by default.
+	 */
+	public ChatSimulationBuilder withWorkloadSeed(long workloadSeed) {
+		this.workloadSeed = workloadSeed;
+		return this;
+	}
+
+	/**
+	 * Replay the {@link TraceFile} at tracePath instead of the workload, see
+	 * {@link TraceReplay}. Each participant then sends as many messages as
+	 * the trace has for it, whatever the number of messages. timeScale
+	 * speeds the replay up, 1 replays in recorded time.
+	 */
+	public ChatSimulationBuilder withTraceReplay(String tracePath, double timeScale) {
+		this.tracePath = tracePath;
+		this.traceTimeScale = timeScale;
+		return this;
+	}
+
+	/**
+	 * Which sync participants run on, see {@link SyncFactories}. Given more
+	 * than one, participant n runs on syncFactories[n % syncFactories.length]
+	 * and the room is mixed; participants on different syncs are only
+	 * expected to hear each other if {@link SyncFactory#interoperatesWith}
+	 * says so. The one the system property "sync" names
+	 * by default, DSync without it.
+	 */
+	public ChatSimulationBuilder withSync(SyncFactory... syncFactories) {
+		this.syncFactories = syncFactories.clone();
+		return this;
+	}
+
 	public ChatSimulationBuilder withScreenName(String screenName) {
 		this.screenName = screenName;
 		return this;
@@ -45,7 +124,159 @@ public final class ChatSimulationBuilder {
 		return this;
 	}
 
+	/**
+	 * Number of threads that pump all participants' Faces, by default one per
+	 * processor. 0 gives every participant its own busy-polling Face like
+	 * before, as the Docker run against NFD did.
+	 */
+	public ChatSimulationBuilder withReactorThreads(int reactorThreads) {
+		this.reactorThreads = reactorThreads;
+		return this;
+	}
+
+	/**
+	 * Run the simulation against clock. With a VirtualClock the whole room
+	 * runs on one event loop in virtual time, skipping every wait straight to
+	 * the next timer. That needs the loopback transport, and its
+	 * LoopbackForwarder must be built with the same clock.
+	 */
+	public ChatSimulationBuilder withClock(Clock clock) {
+		this.clock = clock;
+		return this;
+	}
+
+	/**
+	 * See {@link ExecutionMode}. EVENT_DRIVEN is what makes rooms with
+	 * thousands of participants fit in one JVM.
+	 */
+	public ChatSimulationBuilder withExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+		return this;
+	}
+
+	/**
+	 * Give every participant its own signing identity instead of sharing the
+	 * default one. The keys are generated in parallel before the simulation
+	 * starts, so they do not count towards the startup latency.
+	 */
+	public ChatSimulationBuilder withIdentityPerParticipant(boolean identityPerParticipant) {
+		this.identityPerParticipant = identityPerParticipant;
+		return this;
+	}
+
+	/**
+	 * How participants sign the chat Data they answer with, RSA by default.
+	 * The cheaper algorithms take crypto out of the measurement.
+	 */
+	public ChatSimulationBuilder withSigningAlgorithm(SigningAlgorithm signingAlgorithm) {
+		this.signingAlgorithm = signingAlgorithm;
+		return this;
+	}
+
+	/**
+	 * How many of its own messages each chatter keeps to answer Interests
+	 * with, 100 by default.
+	 */
+	public ChatSimulationBuilder withMessageCacheCapacity(int messageCacheCapacity) {
+		this.messageCacheCapacity = messageCacheCapacity;
+		return this;
+	}
+
+	/**
+	 * Also bound each chatter's message cache by size; 0 (the default) only
+	 * bounds it by the number of messages.
+	 */
+	public ChatSimulationBuilder withMessageCacheMaxBytes(long messageCacheMaxBytes) {
+		this.messageCacheMaxBytes = messageCacheMaxBytes;
+		return this;
+	}
+
+	/**
+	 * Whether chatters sign each message's Data once when they publish it and
+	 * answer every Interest for it from those bytes (the default), or build
+	 * and sign a fresh Data for every Interest.
+	 */
+	public ChatSimulationBuilder withPreEncodedData(boolean preEncodeData) {
+		this.preEncodeData = preEncodeData;
+		return this;
+	}
+
+	/**
+	 * How many chat Interests each chatter keeps outstanding per producer
+	 * while it catches up: initialWindow at first, growing by one per
+	 * window of Data up to maxWindow and halving on every timeout. 4 and 32
+	 * by default.
+	 */
+	public ChatSimulationBuilder withFetchWindow(int initialWindow, int maxWindow) {
+		this.fetchInitialWindow = initialWindow;
+		this.fetchMaxWindow = maxWindow;
+		return this;
+	}
+
+	/**
+	 * How many times a chatter sends a chat Interest again after it timed
+	 * out, each time with the producer's retransmission timeout doubled,
+	 * before it gives up on the message. 3 by default; 0 never retries.
+	 */
+	public ChatSimulationBuilder withFetchRetransmissions(int maxRetransmissions) {
+		this.fetchMaxRetransmissions = maxRetransmissions;
+		return this;
+	}
+
+	/**
+	 * How many chat Interest events the simulation's {@link EventRecorder}
+	 * keeps per recording thread before overwriting the oldest, 16384 by
+	 * default.
+	 */
+	public ChatSimulationBuilder withEventStripeCapacity(int eventStripeCapacity) {
+		this.eventStripeCapacity = eventStripeCapacity;
+		return this;
+	}
+
+	/**
+	 * How long, in real time, the simulation waits for every participant to
+	 * report its results once it started them. Participants that have not
+	 * reported by then are left out of the summary. 30 minutes by default.
+	 */
+	public ChatSimulationBuilder withResultsDeadline(long resultsDeadlineMilliseconds) {
+		this.resultsDeadlineMilliseconds = resultsDeadlineMilliseconds;
+		return this;
+	}
+
+	/**
+	 * Trace one in sampleEvery chat messages of each producer through every
+	 * stage of its delivery, see {@link MessageTracer}. 0 (the default)
+	 * traces none.
+	 */
+	public ChatSimulationBuilder withMessageTracing(int sampleEvery) {
+		this.traceSampleEvery = sampleEvery;
+		return this;
+	}
+
 	public ChatSimulation build() {
-		return new ChatSimulation(participants, numMessages, broadcastBaseName, screenName, hubPrefix, chatRoom);
+		if (executionMode == ExecutionMode.EVENT_DRIVEN && reactorThreads <= 0
+				&& !(clock instanceof VirtualClock)) {
+			throw new IllegalStateException("EVENT_DRIVEN execution needs reactor threads");
+		}
+		if (messageRate < 0) {
+			throw new IllegalStateException("need a message rate >= 0, got " + messageRate);
+		}
+		if (workload == null) {
+			throw new IllegalStateException("need a workload");
+		}
+		if (syncFactories.length == 0) {
+			throw new IllegalStateException("need a sync");
+		}
+		if (tracePath != null && traceTimeScale <= 0) {
+			throw new IllegalStateException("need a trace time scale > 0, got " + traceTimeScale);
+		}
+		if (traceSampleEvery < 0) {
+			throw new IllegalStateException("need a trace sample rate >= 0, got " + traceSampleEvery);
+		}
+		if (fetchInitialWindow <= 0 || fetchMaxWindow < fetchInitialWindow) {
+			throw new IllegalStateException("need 0 < initial fetch window <= max fetch window, got " +
+					fetchInitialWindow + " and " + fetchMaxWindow);
+		}
+		return new ChatSimulation(this);
 	}
 }
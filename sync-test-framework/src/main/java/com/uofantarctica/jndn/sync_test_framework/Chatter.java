@@ -1,5 +1,10 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.ReactorFace;
+import com.uofantarctica.jndn.helpers.SigningStrategy;
+import com.uofantarctica.jndn.helpers.SystemClock;
+import com.uofantarctica.jndn.helpers.TimerWheel;
 import com.uofantarctica.jndn.proto.ChatbufProto;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.uofantarctica.jndn.sync_test_framework.Switches;
@@ -8,9 +13,12 @@ import net.named_data.jndn.Face;
 import net.named_data.jndn.Interest;
 import net.named_data.jndn.InterestFilter;
 import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
 import net.named_data.jndn.OnData;
 import net.named_data.jndn.OnInterestCallback;
+import net.named_data.jndn.OnNetworkNack;
 import net.named_data.jndn.OnRegisterFailed;
+import net.named_data.jndn.OnRegisterSuccess;
 import net.named_data.jndn.OnTimeout;
 import net.named_data.jndn.security.KeyChain;
 import net.named_data.jndn.security.SecurityException;
@@ -20,61 +28,62 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		ChronoSync2013.OnReceivedSyncState, OnData, OnInterestCallback, Chat {
 	private static final Logger log = LoggerFactory.getLogger(Chatter.class);
 
-	protected Map<String, Map<String, Integer>> userByMessageByMessageCount = new HashMap<>();
-	protected Map<String, Integer> aChatLog = new HashMap<>();
-	protected List<Interest> interestsExpressed;
+	protected final EventRecorder eventRecorder_;
+	protected MessageTracer tracer_ = MessageTracer.DISABLED;
 
 	public Chatter (String screenName, String broadcastBaseName, String chatRoom, Name hubPrefix, Face face,
-		 KeyChain keyChain, Name certificateName, List<Interest> interestsExpressed) {
+		 KeyChain keyChain, Name certificateName, EventRecorder eventRecorder, SyncFactory syncFactory) {
 		screenName_ = screenName;
 		chatRoom_ = chatRoom;
 		face_ = face;
+		clock_ = getClock(face);
+		fetchPipeline_ = newFetchPipeline(FetchPipeline.DEFAULT_INITIAL_WINDOW, FetchPipeline.DEFAULT_MAX_WINDOW,
+			MessageCache.DEFAULT_CAPACITY, FetchPipeline.DEFAULT_MAX_RETRANSMISSIONS);
 		keyChain_ = keyChain;
 		certificateName_ = certificateName;
-		heartbeat_ = this.new Heartbeat();
-		this.interestsExpressed = interestsExpressed;
+		timerWheel_ = new TimerWheel(face_::callLater, clock_);
+		heartbeat_ = timerWheel_.newTimer(this::heartbeat);
+		signingStrategy_ = data -> keyChain_.sign(data, certificateName_);
+		eventRecorder_ = eventRecorder;
 
 		// This should only be called once, so get the random string here.
 		chatPrefix_ = new Name(hubPrefix).append(chatRoom_).append(getRandomString());
 		int session = (int)Math.round(getNowMilliseconds() / 1000.0);
+		session_ = session;
 		userName_ = screenName_ + session;
 		Name broadcastPrefix = new Name(broadcastBaseName).append(chatRoom_);
-		//TODO to accommodate any new sync implementations. Should rely on a sync factory.
 		try {
-			if (Switches.useNewSyncImpl()) {
-				sync_ = new Sync(this, this, hubPrefix + "/" + chatRoom, broadcastPrefix.toUri(), session, face, keyChain, chatRoom,
-					screenName);
+			sync_ = syncFactory.newSync(new SyncContext(this, hubPrefix, chatRoom, screenName, chatPrefix_,
+				broadcastPrefix, session, face, keyChain, certificateName, syncLifetime_));
+			if (sync_.deliversData()) {
+				pendingStartupEvents_ = 1;
 			}
 			else {
-			sync_ = new ChronoSyncClassic(
-				this,
-				this,
-				chatPrefix_,
-				broadcastPrefix,
-				session,
-				face,
-				keyChain,
-				certificateName,
-				syncLifetime_,
-				RegisterFailed.onRegisterFailed_);
+				// The sync only spreads sequence numbers, so this chatter
+				// answers for its own chat Data.
+				pendingStartupEvents_ = 2;
+				servesChatData_ = true;
 				try {
-					face.registerPrefix(chatPrefix_, this, RegisterFailed.onRegisterFailed_);
+					face.registerPrefix(chatPrefix_, this, RegisterFailed.onRegisterFailed_,
+						new OnRegisterSuccess() {
+							@Override
+							public void onRegisterSuccess(Name prefix, long registeredPrefixId) {
+								startupEventDone();
+							}
+						});
 				} catch (IOException | SecurityException ex) {
 					log.error("failed to register prefix", ex);
 				}
 			}
 		} catch (Exception e) {
-			log.error("failed to create ChronoSync2013 class", e);
+			log.error("failed to create the sync", e);
 			System.exit(1);
 			return;
 		}
@@ -83,6 +92,14 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 	@Override
 	public abstract void recordMessageReceipt(String from, String msg);
 
+	/**
+	 * Called for every message recordMessageReceipt is called for, with how
+	 * long it took from being published to arriving here. This does nothing;
+	 * test chatters override it.
+	 */
+	protected void recordDeliveryLatency(String from, long latencyMicroseconds) {
+	}
+
 	@Override
 	public abstract void updateUser(String oldName, String newName);
 
@@ -92,6 +109,16 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 	@Override
 	public void
 	sendMessage(String chatMessage) {
+		sendMessage(chatMessage, getNowMilliseconds());
+	}
+
+	/**
+	 * Send chatMessage stamped as sent at sentMilliseconds instead of now, so
+	 * a message sent later than it was due counts its delivery latency from
+	 * when it was due.
+	 */
+	public void
+	sendMessage(String chatMessage, double sentMilliseconds) {
 		if (messageCache_.size() == 0) {
 			messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.JOIN, "xxx");
 		}
@@ -101,7 +128,7 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		try {
 			if (!chatMessage.equals("")) {
 				sync_.publishNextSequenceNo();
-				messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.CHAT, chatMessage);
+				messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.CHAT, chatMessage, sentMilliseconds);
 				log.debug(screenName_ + ": " + chatMessage);
 			}
 		}
@@ -121,13 +148,71 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		}
 	}
 
+	/**
+	 * Call onReady once this chatter is up: the sync has fired onInitialized,
+	 * the chat prefix is registered and the sync knows about all roomSize
+	 * producers, so what is published from now on is not fetched as recovery
+	 * state. Runs it right away if that already happened. Must be called from
+	 * the thread pumping the face.
+	 */
+	public void setOnReady(int roomSize, Runnable onReady) {
+		roomSize_ = roomSize;
+		onReady_ = onReady;
+		checkReady();
+	}
+
+	private void startupEventDone() {
+		--pendingStartupEvents_;
+		checkReady();
+	}
+
+	private void checkReady() {
+		if (onReady_ == null || pendingStartupEvents_ > 0) {
+			return;
+		}
+		int numProducers = sync_.getNumProducers();
+		if (numProducers >= 0 && numProducers < roomSize_) {
+			return;
+		}
+		Runnable onReady = onReady_;
+		onReady_ = null;
+		onReady.run();
+	}
+
+	/**
+	 * Sign the chat Data this chatter answers with signingStrategy instead of
+	 * the KeyChain's RSA key. ChronoSync still signs its sync Data itself.
+	 */
+	public void setSigningStrategy(SigningStrategy signingStrategy) {
+		signingStrategy_ = signingStrategy;
+	}
+
 	/**
 	 * Get the current time in milliseconds.
 	 * @return  The current time in milliseconds since 1/1/1970, including
-	 * fractions of a millisecond.
+	 * fractions of a millisecond, according to the face's clock.
 	 */
-	 static double
-	getNowMilliseconds() { return (double)System.currentTimeMillis(); }
+	double
+	getNowMilliseconds() { return clock_.getNowMilliseconds(); }
+
+	/**
+	 * @return milliseconds as the whole microseconds chat message timestamps
+	 * carry.
+	 */
+	static long
+	toMicroseconds(double milliseconds) { return Math.round(milliseconds * 1000.0); }
+
+	/**
+	 * The clock of the event loop pumping face, which may be virtual, or the
+	 * system clock for a face pumped by its own thread.
+	 */
+	static Clock
+	getClock(Face face) {
+		if (face instanceof ReactorFace) {
+			return ((ReactorFace) face).getEventLoop().getClock();
+		}
+		return SystemClock.INSTANCE;
+	}
 
 	// initial: push the JOIN message in to the messageCache_, update roster and
 	// start the heartbeat.
@@ -136,75 +221,61 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 	onInitialized()
 	{
 		log.debug("on initialzed for...: " + screenName_);
-		// Set the heartbeat timeout using the Interest timeout mechanism. The
-		// heartbeat() function will call itself again after a timeout.
-		// TODO: Are we sure using a "/local/timeout" interest is the best future call approach?
-		Interest timeout = new Interest(new Name("/local/timeout"));
-		timeout.setInterestLifetimeMilliseconds(60000);
-		try {
-			face_.expressInterest(timeout, DummyOnData.onData_, heartbeat_);
-		} catch (IOException ex) {
-			log.error("failed to express interest.", ex);
-			return;
+		if (!initialized_) {
+			initialized_ = true;
+			startupEventDone();
 		}
+		// Start the heartbeat. heartbeat() arms its timer again every time.
+		heartbeat_.reschedule(HEARTBEAT_INTERVAL);
 
-		if (roster_.indexOf(userName_) < 0) {
-			addToRoster(userName_);
+		if (!roster_.contains(screenName_, session_)) {
+			addToRoster(screenName_, session_);
 			log.debug("Member: " + screenName_);
 			log.debug(screenName_ + ": Join");
 			messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.JOIN, "xxx");
 		}
 	}
 
-	// sendInterest: Send a Chatter Interest to fetch chatter messages after the
-	// user gets the Sync data packet back but will not send interest.
+	// sendInterest: Hand the newest sequence number of every producer in the
+	// update to the fetch pipeline, which sends the Chatter Interests for it
+	// and for anything before it not yet asked for.
 	// (Do not call this. It is only public to implement the interface.)
 	public final void
 	onReceivedSyncState(List syncStates, boolean isRecovery)
 	{
-		// This is used by onData to decide whether to display the chatter messages.
-		isRecoverySyncState_ = isRecovery;
-
-		ArrayList sendList = new ArrayList(); // of String
-		ArrayList sessionNoList = new ArrayList(); // of long
-		ArrayList sequenceNoList = new ArrayList(); // of long
-		for (int j = 0; j < syncStates.size(); ++j) {
-			ChronoSync2013.SyncState syncState = (ChronoSync2013.SyncState)syncStates.get(j);
-			Name nameComponents = new Name(syncState.getDataPrefix());
-			String tempName = nameComponents.get(-1).toEscapedString();
-			long sessionNo = syncState.getSessionNo();
-			if (!tempName.equals(screenName_)) {
-				int index = -1;
-				for (int k = 0; k < sendList.size(); ++k) {
-					if (((String)sendList.get(k)).equals(syncState.getDataPrefix())) {
-						index = k;
-						break;
-					}
-				}
-				if (index != -1) {
-					sessionNoList.set(index, sessionNo);
-					sequenceNoList.set(index, syncState.getSequenceNo());
-				}
-				else {
-					sendList.add(syncState.getDataPrefix());
-					sessionNoList.add(sessionNo);
-					sequenceNoList.add(syncState.getSequenceNo());
-				}
+		// Skip our own data: chatPrefix_ ends with the random string, not screenName_.
+		int numProducers = syncStateCoalescer_.coalesce(syncStates, chatPrefix_.get(-1).toEscapedString());
+		for (int i = 0; i < numProducers; ++i) {
+			if (tracer_.isEnabled()) {
+				Name prefixName = syncStateCoalescer_.getPrefixName(i);
+				long sessionNo = syncStateCoalescer_.getSessionNo(i);
+				tracer_.stampRange(MessageTracer.Stage.SYNC_STATE_SEEN, prefixName, sessionNo,
+					fetchPipeline_.getLatestSequenceNo(prefixName, sessionNo) + 1, syncStateCoalescer_.getSequenceNo(i),
+					screenName_);
 			}
+			fetchPipeline_.onSyncState(syncStateCoalescer_.getPrefixName(i), syncStateCoalescer_.getSessionNo(i),
+				syncStateCoalescer_.getSequenceNo(i), isRecovery);
 		}
+		checkReady();
+	}
 
-		for (int i = 0; i < sendList.size(); ++i) {
-			String uri = (String)sendList.get(i) + "/" + (long)sessionNoList.get(i) +
-				"/" + (long)sequenceNoList.get(i);
-			Interest interest = new Interest(new Name(uri));
-			interest.setInterestLifetimeMilliseconds(syncLifetime_);
-			try {
-				face_.expressInterest(interest, this, ChatTimeout.onTimeout_);
-			} catch (IOException ex) {
-				log.error( "fail to express interest", ex);
-				return;
-			}
+	/**
+	 * Express the Interest for one chat Data on behalf of fetchPipeline_,
+	 * which picks its lifetime from the producer's RTT.
+	 */
+	private boolean
+	fetch(Name name, double lifetimeMilliseconds)
+	{
+		Interest interest = new Interest(name);
+		interest.setInterestLifetimeMilliseconds(lifetimeMilliseconds);
+		try {
+			face_.expressInterest(interest, this, chatTimeout_, chatNack_);
+		} catch (IOException ex) {
+			log.error( "fail to express interest", ex);
+			return false;
 		}
+		tracer_.stamp(MessageTracer.Stage.INTEREST_EXPRESSED, name, screenName_);
+		return true;
 	}
 
 	// Send back a Chatter Data Packet which contains the user's message.
@@ -214,54 +285,73 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 	(Name prefix, Interest interest, Face face, long interestFilterId,
 	 InterestFilter filter)
 	{
-		ChatbufProto.ChatMessage.Builder builder = ChatbufProto.ChatMessage.newBuilder();
 		long sequenceNo = Long.parseLong(interest.getName().get(chatPrefix_.size() + 1).toEscapedString());
-		boolean gotContent = false;
-		for (int i = messageCache_.size() - 1; i >= 0; --i) {
-			CachedMessage message = (CachedMessage)messageCache_.get(i);
-			if (message.getSequenceNo() == sequenceNo) {
-				if (!message.getMessageType().equals(ChatbufProto.ChatMessage.ChatMessageType.CHAT)) {
-					builder.setFrom(screenName_);
-					builder.setTo(chatRoom_);
-					builder.setType(message.getMessageType());
-					builder.setTimestamp((int)Math.round(message.getTime() / 1000.0));
-				}
-				else {
-					builder.setFrom(screenName_);
-					builder.setTo(chatRoom_);
-					builder.setType(message.getMessageType());
-					builder.setData(message.getMessage());
-					builder.setTimestamp((int)Math.round(message.getTime() / 1000.0));
-				}
-				gotContent = true;
-				break;
-			}
+		CachedMessage message = messageCache_.get(sequenceNo);
+		if (message == null) {
+			return;
 		}
 
-		if (gotContent) {
-			ChatbufProto.ChatMessage content = builder.build();
-			byte[] array = content.toByteArray();
-			Data data = new Data(interest.getName());
-			data.setContent(new Blob(array, false));
+		try {
+			// Answer straight from the bytes signed at publish time when the
+			// Interest asks for the name they were signed under.
+			if (message.getEncoding() != null && message.getName().equals(interest.getName())) {
+				tracer_.stamp(MessageTracer.Stage.INTEREST_SERVED, interest.getName(), sequenceNo, null);
+				face.send(message.getEncoding());
+				++dataAnsweredFromBytes_;
+				return;
+			}
+			Data data;
 			try {
-				keyChain_.sign(data, certificateName_);
+				data = makeData(interest.getName(), message);
 			} catch (SecurityException ex) {
 				log.error("security exception in keychain sign", ex);
 				return;
 			}
-			try {
-				face.putData(data);
-			} catch (IOException ex) {
-				log.error("failed to put data", ex);
-			}
+			tracer_.stamp(MessageTracer.Stage.INTEREST_SERVED, interest.getName(), sequenceNo, null);
+			face.putData(data);
+		} catch (IOException ex) {
+			log.error("failed to put data", ex);
 		}
 	}
 
+	/**
+	 * The signed chat Data answering name with message.
+	 */
+	private Data
+	makeData(Name name, CachedMessage message) throws SecurityException
+	{
+		ChatbufProto.ChatMessage.Builder builder = ChatbufProto.ChatMessage.newBuilder();
+		if (!message.getMessageType().equals(ChatbufProto.ChatMessage.ChatMessageType.CHAT)) {
+			builder.setFrom(screenName_);
+			builder.setTo(chatRoom_);
+			builder.setType(message.getMessageType());
+			builder.setTimestamp(toMicroseconds(message.getTime()));
+		}
+		else {
+			builder.setFrom(screenName_);
+			builder.setTo(chatRoom_);
+			builder.setType(message.getMessageType());
+			builder.setData(message.getMessage());
+			builder.setTimestamp(toMicroseconds(message.getTime()));
+		}
+
+		ChatbufProto.ChatMessage content = builder.build();
+		byte[] array = content.toByteArray();
+		Data data = new Data(name);
+		data.setContent(new Blob(array, false));
+		signingStrategy_.sign(data);
+		++dataEncodings_;
+		return data;
+	}
+
 	// Process the incoming Chatter data.
 	// (Do not call this. It is only public to implement the interface.)
 	public final void
 	onData(Interest interest, Data data) {
-	 	interestsExpressed.add(interest);
+		eventRecorder_.record(EventRecorder.Type.DATA, interest.getName(), getNowMilliseconds());
+		tracer_.stamp(MessageTracer.Stage.DATA_RECEIVED, data.getName(), screenName_);
+		// DSync hands over Data it fetched itself, which the pipeline ignores.
+		fetchPipeline_.onData(data.getName());
 		ChatbufProto.ChatMessage content;
 		try {
 			content = ChatbufProto.ChatMessage.parseFrom(data.getContent().getImmutableArray());
@@ -270,8 +360,8 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 			return;
 		}
 		double timeNow = getNowMilliseconds();
-		int messagePublished = content.getTimestamp();
-		double diff = timeNow - messagePublished * 1000.0;
+		long messagePublished = content.getTimestamp();
+		double diff = timeNow - messagePublished / 1000.0;
 		boolean displaying;
 		if (Switches.alwaysDisplayReceivedMessages()) {
 			displaying = true;
@@ -281,66 +371,45 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		}
 		if (displaying) {
 			String name = content.getFrom();
-			String prefix = data.getName().getPrefix(-2).toUri();
 			long sessionNo = Long.parseLong(data.getName().get(-2).toEscapedString());
 			long sequenceNo = Long.parseLong(data.getName().get(-1).toEscapedString());
-			String nameAndSession = name + sessionNo;
 
-			int l = 0;
 			//update roster
-			while (l < roster_.size()) {
-				String entry = (String)roster_.get(l);
-				String tempName = entry.substring(0, entry.length() - 10);
-				long tempSessionNo = Long.parseLong(entry.substring(entry.length() - 10));
-				if (!name.equals(tempName) && !content.getType().equals(ChatbufProto.ChatMessage.ChatMessageType
-						.LEAVE)) {
-					++l;
-				}
-				else {
-					if (name.equals(tempName) && sessionNo > tempSessionNo) {
-						roster_.set(l, nameAndSession);
-						setRoster(l, nameAndSession);
-					}
-					break;
+			Roster.Member member = roster_.get(name);
+			if (member == null) {
+				if (!content.getType().equals(ChatbufProto.ChatMessage.ChatMessageType.LEAVE)) {
+					member = addToRoster(name, sessionNo);
+					member.setDataPrefix(data.getName().getPrefix(-2).toUri());
+					log.debug(name + ": Join");
 				}
 			}
-
-			if (l == roster_.size()) {
-				addToRoster(nameAndSession);
-				log.debug(name + ": Join");
+			else if (sessionNo > member.getSessionNo()) {
+				updateUser(roster_.updateSession(member, sessionNo), member.getNameAndSession());
+				member.setDataPrefix(data.getName().getPrefix(-2).toUri());
 			}
-
-			// Set the alive timeout using the Interest timeout mechanism.
-			// TODO: Are we sure using a "/local/timeout" interest is the best future call approach?
-			Interest timeout = new Interest(new Name("/local/timeout"));
-			timeout.setInterestLifetimeMilliseconds(120000);
-			try {
-				face_.expressInterest
-					(timeout, DummyOnData.onData_,
-						this.new Alive(sequenceNo, name, sessionNo, prefix));
-			} catch (IOException ex) {
-				log.error("failed to express interest.", ex);
-				return;
+			if (member != null) {
+				roster_.heard(member, sequenceNo, timeNow);
+				// Push the member's liveness check back rather than arming a
+				// timer per Data.
+				if (member.getLivenessTimer() == null) {
+					final Roster.Member alive = member;
+					member.setLivenessTimer(timerWheel_.newTimer(() -> checkAlive(alive)));
+				}
+				member.getLivenessTimer().reschedule(ALIVE_TIMEOUT);
 			}
 
-			// isRecoverySyncState_ was set by sendInterest.
-			// TODO: If isRecoverySyncState_ changed, this assumes that we won't get
-			//   data from an interest sent before it changed.
+			// The pipeline knows which messages were fetched as recovery state,
+			// whatever sync updates came in since the Interest went out.
 			if (content.getType().equals(ChatbufProto.ChatMessage.ChatMessageType.CHAT) && !content.getFrom().equals(screenName_)) {
-				if (Switches.useNewSyncImpl()) {
+				if (sync_.deliversData() || !fetchPipeline_.isRecovery(data.getName())) {
 					recordMessageReceipt(content.getFrom(), content.getData());
-				}
-				else {
-					if (!isRecoverySyncState_) {
-						recordMessageReceipt(content.getFrom(), content.getData());
-					}
+					recordDeliveryLatency(content.getFrom(), toMicroseconds(timeNow) - messagePublished);
+					tracer_.stamp(MessageTracer.Stage.RECEIPT_RECORDED, data.getName(), sequenceNo, screenName_);
 				}
 			}
 			else if (content.getType().equals(ChatbufProto.ChatMessage.ChatMessageType.LEAVE)) {
 				// leave message
-				int n = roster_.indexOf(nameAndSession);
-				if (n >= 0 && !name.equals(screenName_)) {
-					roster_.remove(n);
+				if (!name.equals(screenName_) && roster_.leave(name, sessionNo)) {
 					log.debug(name + ": Leave");
 				}
 			}
@@ -348,124 +417,162 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 	}
 
 
-	public void addToRoster(String name) {
-		roster_.add(name);
-		addUser(name);
-	}
-
-	public void setRoster(int i, String newName){
-		try{
-			String oldName = (String) roster_.get(i);
-			if (oldName != null) {
-				roster_.set(i, newName);
-				updateUser(oldName, newName);
-			}
-		}
-		catch(Exception e) {
-			log.error("could not setRoster with newName: " +
-				newName, e);
-		}
+	public Roster.Member addToRoster(String name, long sessionNo) {
+		Roster.Member member = roster_.join(name, sessionNo, getNowMilliseconds());
+		addUser(member.getNameAndSession());
+		return member;
 	}
 
-	private static class ChatTimeout implements OnTimeout {
+	private class ChatTimeout implements OnTimeout {
 		public final void
 		onTimeout(Interest interest) {
 			log.debug("Timeout waiting for chatter data");
+			eventRecorder_.record(EventRecorder.Type.TIMEOUT, interest.getName(), getNowMilliseconds());
+			fetchPipeline_.onTimeout(interest.getName());
 		}
+	}
 
-		public final static OnTimeout onTimeout_ = new ChatTimeout();
+	private class ChatNack implements OnNetworkNack {
+		public final void
+		onNetworkNack(Interest interest, NetworkNack networkNack) {
+			log.debug("NACK " + networkNack.getReason() + " for chatter data " + interest.getName().toUri());
+			eventRecorder_.record(EventRecorder.Type.NACK, interest.getName(), getNowMilliseconds());
+			fetchPipeline_.onNack(interest.getName(), networkNack.getReason());
+		}
 	}
 
 	/**
-	 * This repeatedly calls itself after a timeout to send a heartbeat message
-	 * (chatter message type HELLO).
-	 * This method has an "interest" argument because we use it as the onTimeout
-	 * for Face.expressInterest.
+	 * This repeatedly re-arms its timer to send a heartbeat message (chatter
+	 * message type HELLO).
 	 */
-	private class Heartbeat implements OnTimeout {
-		public final void
-		onTimeout(Interest interest) {
-			if (messageCache_.size() == 0)
-				messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.JOIN, "xxx");
+	private void
+	heartbeat()
+	{
+		if (messageCache_.size() == 0)
+			messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.JOIN, "xxx");
 
-			sync_.publishNextSequenceNo();
-			messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.HELLO, "xxx");
+		sync_.publishNextSequenceNo();
+		messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType.HELLO, "xxx");
 
-			// Call again.
-			// TODO: Are we sure using a "/local/timeout" interest is the best future call approach?
-			Interest timeout = new Interest(new Name("/local/timeout"));
-			timeout.setInterestLifetimeMilliseconds(60000);
-			try {
-				face_.expressInterest(timeout, DummyOnData.onData_, heartbeat_);
-			} catch (IOException ex) {
-				log.error("fail to express interest.", ex);
-			}
-		}
+		// Call again.
+		heartbeat_.reschedule(HEARTBEAT_INTERVAL);
 	}
 
 	/**
-	 * This is called after a timeout to check if the user with prefix has a newer
-	 * sequence number than the given temp_seq. If not, assume the user is idle and
-	 * remove from the roster and print a leave message.
-	 * This is used as the onTimeout for Face.expressInterest.
+	 * This is called ALIVE_TIMEOUT after the last Data from member to check if
+	 * the sync has a newer sequence number for it than the last one we heard.
+	 * If not, assume the user is idle and remove from the roster and print a
+	 * leave message.
 	 */
-	private class Alive implements OnTimeout {
-		public Alive(long tempSequenceNo, String name, long sessionNo, String prefix)
-		{
-			tempSequenceNo_ = tempSequenceNo;
-			name_ = name;
-			sessionNo_ = sessionNo;
-			prefix_ = prefix;
-		}
-
-		public final void
-		onTimeout(Interest interest)
-		{
-			long sequenceNo;
-			sequenceNo = sync_.getProducerSequenceNo(prefix_, sessionNo_);
-			String nameAndSession = name_ + sessionNo_;
-			int n = roster_.indexOf(nameAndSession);
-			if (sequenceNo != -1 && n >= 0) {
-				if (tempSequenceNo_ == sequenceNo) {
-					roster_.remove(n);
-					log.debug(name_ + ": Leave");
-				}
+	private void
+	checkAlive(Roster.Member member)
+	{
+		long sequenceNo;
+		sequenceNo = sync_.getProducerSequenceNo(member.getDataPrefix(), member.getSessionNo());
+		if (sequenceNo != -1 && member.getLastSequenceNo() == sequenceNo) {
+			if (roster_.leave(member.getName(), member.getSessionNo())) {
+				log.debug(member.getName() + ": Leave");
 			}
 		}
+	}
 
-		private final long tempSequenceNo_;
-		private final String name_;
-		private final long sessionNo_;
-		private final String prefix_;
+	private void
+	messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType messageType, String message)
+	{
+		messageCacheAppend(messageType, message, getNowMilliseconds());
 	}
 
 	/**
 	 * Append a new CachedMessage to messageCache_, using given messageType and message,
 	 *
-	 * the sequence number from sync_.getSequenceNo() and the current time. Also
-	 * remove elements from the front of the cache as needed to keep
-	 * the size to maxMessageCacheLength_.
+	 * the sequence number from sync_.getSequenceNo() and the time it was sent. The
+	 * cache evicts its oldest messages as needed to stay within its capacity.
 	 */
 	private void
-	messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType messageType, String message)
+	messageCacheAppend(ChatbufProto.ChatMessage.ChatMessageType messageType, String message,
+		double sentMilliseconds)
 	{
 		long seqNo;
 		seqNo = sync_.getSequenceNo();
-		CachedMessage cm = new CachedMessage (seqNo, messageType, message, getNowMilliseconds());
+		if (tracer_.isSampled(seqNo)) {
+			tracer_.stamp(MessageTracer.Stage.PUBLISHED, SyncStateCoalescer.makeDataName(chatPrefix_, session_, seqNo),
+				seqNo, null);
+		}
+		CachedMessage cm = new CachedMessage (seqNo, messageType, message, sentMilliseconds);
+		if (preEncodeData_ && servesChatData_) {
+			// Sign the Data consumers will ask for once, now, instead of on
+			// every Interest. This is the name they build from the sync state.
+			Name name = SyncStateCoalescer.makeDataName(chatPrefix_, session_, seqNo);
+			try {
+				cm.setEncoding(name, makeData(name, cm).wireEncode());
+			} catch (SecurityException ex) {
+				log.error("failed to pre-sign data, it will be signed on request", ex);
+			}
+		}
 
 		ChatbufProto.ChatMessage.Builder builder = ChatbufProto.ChatMessage.newBuilder();
 		builder.setFrom(userName_)
 				.setTo(chatRoom_)
 				.setType(ChatbufProto.ChatMessage.ChatMessageType.CHAT)
 				.setData(message)
-				.setTimestamp((int)getNowMilliseconds());
+				.setTimestamp(toMicroseconds(sentMilliseconds));
 		Data newData = new Data();
 		newData.setContent(new Blob(builder.build().toByteArray()));
 		sync_.publishNextMessage(newData);
 
-		messageCache_.add(cm);
-		while (messageCache_.size() > maxMessageCacheLength_)
-			messageCache_.remove(0);
+		messageCache_.append(seqNo, cm);
+	}
+
+	/**
+	 * Apply the per-simulation settings. Call this right after construction,
+	 * before the face is pumped.
+	 */
+	public void configure(ChatterOptions options) {
+		messageCache_ = newMessageCache(options.messageCacheCapacity, options.messageCacheMaxBytes);
+		preEncodeData_ = options.preEncodeData;
+		tracer_ = options.messageTracer;
+		fetchPipeline_ = newFetchPipeline(options.fetchInitialWindow, options.fetchMaxWindow,
+			options.messageCacheCapacity, options.fetchMaxRetransmissions);
+	}
+
+	/**
+	 * @return The wheel running this chatter's heartbeat and liveness timers.
+	 */
+	public TimerWheel getTimerWheel() {
+		return timerWheel_;
+	}
+
+	public FetchPipeline getFetchPipeline() {
+		return fetchPipeline_;
+	}
+
+	/**
+	 * @return How many chat Data packets this chatter built and signed.
+	 */
+	public long getDataEncodings() {
+		return dataEncodings_;
+	}
+
+	/**
+	 * @return How many Interests were answered with pre-encoded bytes, each
+	 * one a signature avoided.
+	 */
+	public long getDataAnsweredFromBytes() {
+		return dataAnsweredFromBytes_;
+	}
+
+	public MessageCache<?> getMessageCache() {
+		return messageCache_;
+	}
+
+	private FetchPipeline newFetchPipeline(int initialWindow, int maxWindow, int maxBacklog,
+			int maxRetransmissions) {
+		return new FetchPipeline(this::fetch, clock_, face_::callLater, initialWindow, maxWindow, maxBacklog,
+			maxRetransmissions);
+	}
+
+	private static MessageCache<CachedMessage> newMessageCache(int capacity, long maxBytes) {
+		return new MessageCache<>(capacity, maxBytes, CachedMessage::getSize);
 	}
 
 	// Generate a random name for ChronoSync.
@@ -484,7 +591,7 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		return result;
 	}
 
-	private static class RegisterFailed implements OnRegisterFailed {
+	static class RegisterFailed implements OnRegisterFailed {
 		public final void
 		onRegisterFailed(Name prefix)
 		{
@@ -495,15 +602,6 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		public final static OnRegisterFailed onRegisterFailed_ = new RegisterFailed();
 	}
 
-	// This is a do-nothing onData for using expressInterest for timeouts.
-	// This should never be called.
-	private static class DummyOnData implements OnData {
-		public final void
-		onData(Interest interest, Data data) {}
-
-		public final static OnData onData_ = new DummyOnData();
-	}
-
 	private static class CachedMessage {
 		public CachedMessage
 			(long sequenceNo, ChatbufProto.ChatMessage.ChatMessageType messageType, String message, double time)
@@ -526,17 +624,75 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 		public final double
 		getTime() { return time_; }
 
+		public final Name
+		getName() { return name_; }
+
+		public final Blob
+		getEncoding() { return encoding_; }
+
+		public final void
+		setEncoding(Name name, Blob encoding)
+		{
+			name_ = name;
+			encoding_ = encoding;
+		}
+
+		// Roughly what the message costs in memory: its text plus the fields,
+		// and the signed Data if it was encoded up front.
+		public final int
+		getSize() { return 2 * message_.length() + 40 + (encoding_ != null ? encoding_.size() : 0); }
+
 		private final long sequenceNo_;
 		private final ChatbufProto.ChatMessage.ChatMessageType messageType_;
 		private final String message_;
 		private final double time_;
+		private Name name_;
+		private Blob encoding_;
 	};
 
 	public void pumpFaceAwhile(long awhile) {
 		pumpFaceAwhile(face_, awhile);
 	}
 
+	@Override
+	public void pumpFaceAwhile(long awhile, Runnable then) {
+		pumpFaceAwhile(face_, awhile, then);
+	}
+
+	/**
+	 * Keep the face's events flowing for awhile milliseconds, then run then.
+	 * A ReactorFace is already pumped by its event loop, so then is only
+	 * scheduled on the loop and this returns at once; any other Face is
+	 * pumped from the calling thread first.
+	 */
+	public static void pumpFaceAwhile(Face face, long awhile, Runnable then) {
+		if (face instanceof ReactorFace) {
+			((ReactorFace) face).getEventLoop().schedule(then, awhile);
+			return;
+		}
+		pumpFaceAwhile(face, awhile);
+		then.run();
+	}
+
+	/**
+	 * Keep the face's events flowing for awhile milliseconds. A ReactorFace is
+	 * already pumped by its event loop, so this only blocks the calling
+	 * thread, which must not be the loop's, until a timer on the loop's clock
+	 * (which may be virtual) releases it; any other Face is pumped from the
+	 * calling thread.
+	 */
 	public static void pumpFaceAwhile(Face face, long awhile) {
+		if (face instanceof ReactorFace) {
+			try {
+				((ReactorFace) face).getEventLoop().sleep(awhile);
+			}
+			catch (InterruptedException e) {
+				log.error("interrupted in pumpFaceAwhile", e);
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
+
 		long startTime0 = System.currentTimeMillis();
 		long timeNow0 = System.currentTimeMillis();
 		while((timeNow0 - startTime0) <= awhile) {
@@ -552,12 +708,12 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 
 	}
 
-	// Use a non-template ArrayList so it works with older Java compilers.
-	protected final ArrayList messageCache_ = new ArrayList(); // of
-	// CachedMessage
-	protected final ArrayList roster_ = new ArrayList(); // of String
-	protected final int maxMessageCacheLength_ = 100;
-	protected boolean isRecoverySyncState_ = true;
+	protected MessageCache<CachedMessage> messageCache_ = newMessageCache(MessageCache.DEFAULT_CAPACITY, 0);
+	protected final Roster roster_ = new Roster();
+	protected final SyncStateCoalescer syncStateCoalescer_ = new SyncStateCoalescer();
+	protected FetchPipeline fetchPipeline_;
+	private final OnTimeout chatTimeout_ = this.new ChatTimeout();
+	private final OnNetworkNack chatNack_ = this.new ChatNack();
 	protected final String screenName_;
 	protected final String chatRoom_;
 	public final String userName_;
@@ -565,7 +721,22 @@ public abstract class Chatter implements ChronoSync2013.OnInitialized,
 	protected final double syncLifetime_ = 5000.0; // milliseconds
 	protected SyncAdapter sync_;
 	protected final Face face_;
+	protected final Clock clock_;
 	protected final KeyChain keyChain_;
 	protected final Name certificateName_;
-	protected final OnTimeout heartbeat_;
+	protected final TimerWheel timerWheel_;
+	protected final TimerWheel.Timer heartbeat_;
+	protected static final double HEARTBEAT_INTERVAL = 60000.0; // milliseconds
+	protected static final double ALIVE_TIMEOUT = 120000.0; // milliseconds
+	protected SigningStrategy signingStrategy_;
+	protected final long session_;
+	protected boolean preEncodeData_ = true;
+	// Only set when this chatter answers chat Interests itself (ChronoSync).
+	private boolean servesChatData_ = false;
+	protected long dataEncodings_ = 0;
+	protected long dataAnsweredFromBytes_ = 0;
+	private boolean initialized_ = false;
+	private int pendingStartupEvents_;
+	private Runnable onReady_;
+	private int roomSize_;
 }
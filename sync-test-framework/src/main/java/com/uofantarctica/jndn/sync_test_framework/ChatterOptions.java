@@ -0,0 +1,97 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+/**
+ * Settings every chatter of a simulation shares, filled in from
+ * {@link ChatSimulationBuilder}.
+ */
+public class ChatterOptions {
+	final int messageCacheCapacity;
+	final long messageCacheMaxBytes;
+	final boolean preEncodeData;
+	final int fetchInitialWindow;
+	final int fetchMaxWindow;
+	final int fetchMaxRetransmissions;
+	final MessageTracer messageTracer;
+	final double messageRate;
+	final Workload workload;
+	final long workloadSeed;
+	// How many messages each participant sends, and the most any does.
+	final int[] messagesPerParticipant;
+	final int maxMessages;
+	final SyncFactory[] syncFactories;
+
+	ChatterOptions(ChatSimulationBuilder builder, Workload workload, MessageTracer messageTracer) {
+		this.messageCacheCapacity = builder.messageCacheCapacity;
+		this.messageCacheMaxBytes = builder.messageCacheMaxBytes;
+		this.preEncodeData = builder.preEncodeData;
+		this.fetchInitialWindow = builder.fetchInitialWindow;
+		this.fetchMaxWindow = builder.fetchMaxWindow;
+		this.fetchMaxRetransmissions = builder.fetchMaxRetransmissions;
+		this.messageTracer = messageTracer;
+		this.messageRate = builder.messageRate > 0 ? builder.messageRate : Workload.DEFAULT_MESSAGE_RATE;
+		this.workload = workload;
+		this.workloadSeed = builder.workloadSeed;
+		this.messagesPerParticipant = new int[builder.participants];
+		int max = 0;
+		for (int i = 0; i < builder.participants; ++i) {
+			messagesPerParticipant[i] = workload.getNumMessages(i, builder.participants, builder.numMessages);
+			max = Math.max(max, messagesPerParticipant[i]);
+		}
+		this.maxMessages = max;
+		this.syncFactories = builder.syncFactories.clone();
+	}
+
+	/**
+	 * @return The sync participantNo runs on.
+	 */
+	SyncFactory getSyncFactory(int participantNo) {
+		return syncFactories[participantNo % syncFactories.length];
+	}
+
+	/**
+	 * @return Whether the receiver's sync hears the producer's, so the
+	 * receiver should get the producer's messages.
+	 */
+	boolean hears(int receiver, int producer) {
+		return receiver != producer && getSyncFactory(receiver).interoperatesWith(getSyncFactory(producer));
+	}
+
+	/**
+	 * @return How many pairs of a receiver and a producer it hears the room
+	 * has: every ordered pair of participants unless it mixes syncs that do
+	 * not interoperate.
+	 */
+	long getExpectedUniqueChats() {
+		return sumOverHeardProducers(false);
+	}
+
+	/**
+	 * @return How many messages all receivers should get together, one of
+	 * each message of every producer they hear.
+	 */
+	long getExpectedReceipts() {
+		return sumOverHeardProducers(true);
+	}
+
+	// Participants on the same factory hear the same producers, so the sums
+	// go over receivers and factories rather than over every pair.
+	private long sumOverHeardProducers(boolean messages) {
+		long[] bySync = new long[syncFactories.length];
+		for (int i = 0; i < messagesPerParticipant.length; ++i) {
+			bySync[i % syncFactories.length] += messages ? messagesPerParticipant[i] : 1;
+		}
+		long sum = 0;
+		for (int receiver = 0; receiver < messagesPerParticipant.length; ++receiver) {
+			SyncFactory receiverSync = getSyncFactory(receiver);
+			for (int sync = 0; sync < syncFactories.length; ++sync) {
+				if (receiverSync.interoperatesWith(syncFactories[sync])) {
+					sum += bySync[sync];
+				}
+			}
+			if (receiverSync.interoperatesWith(receiverSync)) {
+				sum -= messages ? messagesPerParticipant[receiver] : 1;
+			}
+		}
+		return sum;
+	}
+}
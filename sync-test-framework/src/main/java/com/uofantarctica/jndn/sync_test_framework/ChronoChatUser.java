@@ -1,20 +1,36 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.EventLoop;
 import com.uofantarctica.jndn.helpers.FaceSecurity;
+import com.uofantarctica.jndn.helpers.ReactorFace;
+import com.uofantarctica.jndn.helpers.SigningStrategy;
 import net.named_data.jndn.Face;
-import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.security.KeyChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ChronoChatUser implements Runnable {
 	private static final Logger log = LoggerFactory.getLogger(ChronoChatUser.class);
-
-	protected static ArrayList<String> generatedMessages = null;
+	// How long a participant waits for the rest of the room to come up
+	// before it starts sending anyway.
+	private static final long STARTUP_TIMEOUT_MILLIS = 30000;
+	private static final long STARTUP_POLL_MILLIS = 10;
+	// Spreads the participant numbers over the seed's bits, so neighbouring
+	// participants' generators do not start out alike.
+	private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L;
+	// A message padded to a workload's payload size gets a space, which no
+	// generated message has, then this up to the size, but never past what
+	// still fits its chat Data in one NDN packet.
+	private static final char PADDING = 'x';
+	private static final int MAX_PAYLOAD_BYTES = 7000;
+	private static final String MESSAGE_TEXT = "sample_text";
+	// Digits in the largest index getMessageIndex parses without overflow.
+	private static final int MAX_INDEX_DIGITS = 9;
 
 	protected String screenName;
 	protected String broadcastBaseName;
@@ -26,17 +42,28 @@ public class ChronoChatUser implements Runnable {
 	protected int participants;
 	protected int participantNo;
 	protected Name certificateName;
-	protected SyncQueue queue;
+	protected SimulationMetrics metrics;
 	protected TestChat chatter;
 	protected int[] messagesSentCountPerUser;
 	protected int numMessages;
-	protected List<Interest> interestsExpressed;
+	protected EventRecorder eventRecorder;
+	protected AtomicInteger usersDoneSending;
+	protected StartupBarrier startup;
+	protected SigningStrategy signingStrategy;
+	protected ChatterOptions options;
+	private int totalMessagesSent = 0;
+	private boolean sendingStarted = false;
+	private boolean failed = false;
+	private Workload.Arrivals arrivals;
+	// When the next message is due, on the face's clock.
+	private double nextMessageDue;
 
 	public ChronoChatUser(int participantNo, int participants, String broadcastBaseName,
 	                      String baseScreenName, String chatRoom, String hubPrefix,
-	                      Face face, FaceSecurity.SecurityData securityData,
-	                      SyncQueue queue, int[] messagesSentCountPerUser,
-	                      int numMessages, List<Interest> interestExpressed) {
+	                      Face face, FaceSecurity.SecurityData securityData, SigningStrategy signingStrategy,
+	                      SimulationMetrics metrics, int[] messagesSentCountPerUser,
+	                      AtomicInteger usersDoneSending, StartupBarrier startup, ChatterOptions options,
+	                      int numMessages, EventRecorder eventRecorder) {
 		this.participantNo = participantNo;
 		this.participants = participants;
 		this.baseScreenName = baseScreenName;
@@ -46,23 +73,69 @@ public class ChronoChatUser implements Runnable {
 		this.hubPrefix = hubPrefix;
 		this.face = face;
 		this.keyChain = securityData.keyChain;
-		this.queue = queue;
+		this.metrics = metrics;
 		this.certificateName = securityData.certificateName;
+		this.signingStrategy = signingStrategy;
 		this.messagesSentCountPerUser = messagesSentCountPerUser;
+		this.usersDoneSending = usersDoneSending;
+		this.startup = startup;
+		this.options = options;
 		this.numMessages = numMessages;
-		this.interestsExpressed = interestExpressed;
+		this.eventRecorder = eventRecorder;
 	}
 
-	public static ArrayList<String> getMessages(int numMessages) {
-		if (generatedMessages == null) {
-			String sampleText = "sample_text";
-			ArrayList<String> messages = new ArrayList<>();
-			for (int i = 0; i < numMessages; ++i) {
-				messages.add(sampleText + i);
+	/**
+	 * @return The index-th message every participant sends. Messages are
+	 * made from their index as they are sent, so a long run keeps none of
+	 * them around.
+	 */
+	public static String getMessage(int index) {
+		return MESSAGE_TEXT + index;
+	}
+
+	/**
+	 * @return The index of a message {@link #getMessage(int)} made, or -1
+	 * for any other message.
+	 */
+	public static int getMessageIndex(String message) {
+		int length = message.length() - MESSAGE_TEXT.length();
+		if (!message.startsWith(MESSAGE_TEXT) || length < 1 || length > MAX_INDEX_DIGITS ||
+				(length > 1 && message.charAt(MESSAGE_TEXT.length()) == '0')) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = MESSAGE_TEXT.length(); i < message.length(); ++i) {
+			char c = message.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
 			}
-			generatedMessages = messages;
+			index = index * 10 + (c - '0');
 		}
-		return generatedMessages;
+		return index;
+	}
+
+	/**
+	 * @return message padded to payloadBytes, or message if it is no
+	 * shorter.
+	 */
+	public static String padMessage(String message, int payloadBytes) {
+		int length = Math.min(payloadBytes, MAX_PAYLOAD_BYTES);
+		if (length <= message.length() + 1) {
+			return message;
+		}
+		StringBuilder padded = new StringBuilder(length).append(message).append(' ');
+		while (padded.length() < length) {
+			padded.append(PADDING);
+		}
+		return padded.toString();
+	}
+
+	/**
+	 * @return The message {@link #padMessage} padded.
+	 */
+	public static String unpadMessage(String message) {
+		int space = message.indexOf(' ');
+		return space < 0 ? message : message.substring(0, space);
 	}
 
 	public static void leave(Chat chat) {
@@ -78,59 +151,35 @@ public class ChronoChatUser implements Runnable {
 	@Override
 	public void run() {
 		try {
-			String testType = System.getProperty("runMock");
-			if (testType == null || !testType.equals("true")) {
-				log.debug( "RUNNING REAL CHAT TEST.");
-				this.chatter = new TestChatChatter(screenName, broadcastBaseName, chatRoom,
-					new Name(hubPrefix), face, keyChain, certificateName, interestsExpressed);
-			}
-			else {
-				log.debug( "RUNNING MOCK CHAT TEST.");
-				this.chatter = new MockTestChatChatter(screenName, broadcastBaseName, chatRoom,
-					new Name(hubPrefix), face, keyChain, certificateName, interestsExpressed);
-			}
-
-			chatter.setTestContext(this, numMessages, participantNo,
-				participants, baseScreenName);
-			chatter.pumpFaceAwhile(5000);
+			runOnFaceThread(this::createChatter);
+			awaitStartup();
 
 			//create thread pool to
 			//1. create chats and send series of predefined messages n times then send leave command.
 			//2. Verify that each message was received n times from each thread.
 			//3. each thread print metric: for each chatter participant number received over total.
-			int totalMessagesSent = 0;
-			ArrayList<String> messages = getMessages(numMessages);
-
-			for (String m : messages) {
-				long chatDelayTime = chatter.getChatDelayTime();
-				long startTime = System.currentTimeMillis();
-				long timeNow = System.currentTimeMillis();
-
-				boolean sentMessage = false;
-				while (!sentMessage) {
-					if  ((timeNow - startTime) >= chatDelayTime) {
-						chatter.sendMessage(m);
-						++totalMessagesSent;
-						//messagesSentCountPerUser is shared in
-						// every thread but each thread only writes to
-						// one cell.
-						messagesSentCountPerUser[participantNo] =  totalMessagesSent;
-						sentMessage = true;
-					}
-					chatter.pumpFaceAwhile(10);
-					timeNow = System.currentTimeMillis();
+			Clock clock = Chatter.getClock(face);
+			nextMessageDue = clock.getNowMilliseconds();
+			for (int i = 0; i < numMessages; ++i) {
+				final double due = nextMessageDue += arrivals.nextInterval();
+				final String m = padMessage(getMessage(i), arrivals.getPayloadBytes());
+				long wait = Math.round(due - clock.getNowMilliseconds());
+				if (wait > 0) {
+					chatter.pumpFaceAwhile(wait);
 				}
+				runOnFaceThread(() -> chatter.sendMessage(m, due));
+				recordMessageSent();
 			}
 
-			int numMessagesEachUserMustSend = numMessages;
-			while(allUsersHaveNotSentAllMessages(numMessagesEachUserMustSend)) {
+			while(allUsersHaveNotSentAllMessages()) {
 				chatter.pumpFaceAwhile(3000);
 			}
 			chatter.pumpFaceAwhile(15000); // for 3 sync lifetimes just to be sure.
-			leave(chatter);
-			chatter.submitStats(queue, numMessages);
+			runOnFaceThread(() -> chatter.leave());
+			chatter.pumpFaceAwhile(1000);
+			runOnFaceThread(() -> chatter.submitStats(metrics, numMessages));
 
-			if (allUsersHaveNotSentAllMessages(numMessagesEachUserMustSend)) {
+			if (allUsersHaveNotSentAllMessages()) {
 				log.error( " Failed to conduct valid experiment. " +
 							"Not all messages were sent in chatter room, " +
 							"results invalid.");
@@ -138,19 +187,190 @@ public class ChronoChatUser implements Runnable {
 			}
 
 		} catch (Exception e) {
-			log.error( "failed running chronochatuser thread", e);
+			fail(e);
+		}
+		finally {
+			if (face instanceof ReactorFace && ((ReactorFace) face).getEventLoop().isVirtualTime()) {
+				((ReactorFace) face).getEventLoop().deregisterActor();
+			}
+		}
+	}
+
+	/**
+	 * Event driven alternative to {@link #run}: the same steps with the same
+	 * waits, but each step is a timer on the face's event loop instead of a
+	 * blocked thread, so a participant costs no thread at all. Needs a
+	 * ReactorFace. Returns immediately.
+	 */
+	public void start() {
+		if (!(face instanceof ReactorFace)) {
+			throw new IllegalStateException("event driven participants need a ReactorFace");
+		}
+		final EventLoop loop = ((ReactorFace) face).getEventLoop();
+		loop.execute(guarded(() -> {
+			createChatter();
+			startup.whenOpen(() -> loop.execute(guarded(this::startSending)));
+			chatter.pumpFaceAwhile(STARTUP_TIMEOUT_MILLIS, guarded(() -> {
+				if (!startup.isOpen()) {
+					logStartupTimeout();
+				}
+				startSending();
+			}));
+		}));
+	}
+
+	private void startSending() {
+		if (!sendingStarted) {
+			sendingStarted = true;
+			nextMessageDue = Chatter.getClock(face).getNowMilliseconds();
+			sendNextMessage();
+		}
+	}
+
+	private void sendNextMessage() {
+		if (totalMessagesSent == numMessages) {
+			awaitAllUsersSent();
+			return;
+		}
+		final double due = nextMessageDue += arrivals.nextInterval();
+		final String message = padMessage(getMessage(totalMessagesSent), arrivals.getPayloadBytes());
+		// Rounded up so the message never goes out before it is due.
+		long wait = (long) Math.ceil(Math.max(0, due - Chatter.getClock(face).getNowMilliseconds()));
+		chatter.pumpFaceAwhile(wait, guarded(() -> {
+			chatter.sendMessage(message, due);
+			recordMessageSent();
+			sendNextMessage();
+		}));
+	}
+
+	private void awaitAllUsersSent() {
+		if (allUsersHaveNotSentAllMessages()) {
+			chatter.pumpFaceAwhile(3000, guarded(this::awaitAllUsersSent));
+			return;
 		}
+		// for 3 sync lifetimes just to be sure.
+		chatter.pumpFaceAwhile(15000, guarded(() -> {
+			chatter.leave();
+			chatter.pumpFaceAwhile(1000, guarded(() -> chatter.submitStats(metrics, numMessages)));
+		}));
 	}
 
-	private boolean allUsersHaveNotSentAllMessages(int numMessagesEachUserMustSend) {
-		boolean allUsersHaveNotSentAllMessages = false;
-		for (int a : messagesSentCountPerUser) {
-			if (a != numMessagesEachUserMustSend) {
-				return true;
+	/**
+	 * @return step as an event loop task that fails this participant if it
+	 * throws, and does nothing once the participant failed. Otherwise a
+	 * throwing step would end its chain of timers quietly and leave the rest
+	 * of the room waiting for it until the results deadline.
+	 */
+	private Runnable guarded(final Runnable step) {
+		return () -> {
+			if (failed) {
+				return;
+			}
+			try {
+				step.run();
 			}
+			catch (RuntimeException e) {
+				fail(e);
+			}
+		};
+	}
+
+	/**
+	 * Give up on this participant: count it as done sending, so the others
+	 * stop waiting for its messages, and tell metrics it will not report.
+	 */
+	private void fail(Exception e) {
+		if (failed) {
+			return;
+		}
+		failed = true;
+		log.error(screenName + " failed after sending " + totalMessagesSent + " of " + numMessages +
+			" messages, counting it as done", e);
+		if (totalMessagesSent < numMessages) {
+			usersDoneSending.incrementAndGet();
+		}
+		metrics.participantFailed();
+	}
 
+	private void createChatter() {
+		arrivals = options.workload.newArrivals(participantNo, participants, options.messageRate,
+			new Random(options.workloadSeed + participantNo * SEED_STRIDE));
+		String testType = System.getProperty("runMock");
+		if (testType == null || !testType.equals("true")) {
+			log.debug( "RUNNING REAL CHAT TEST.");
+			this.chatter = new TestChatChatter(screenName, broadcastBaseName, chatRoom,
+				new Name(hubPrefix), face, keyChain, certificateName, eventRecorder,
+				options.getSyncFactory(participantNo));
 		}
-		return allUsersHaveNotSentAllMessages;
+		else {
+			log.debug( "RUNNING MOCK CHAT TEST.");
+			this.chatter = new MockTestChatChatter(screenName, broadcastBaseName, chatRoom,
+				new Name(hubPrefix), face, keyChain, certificateName, eventRecorder,
+				options.getSyncFactory(participantNo));
+		}
+
+		chatter.setTestContext(this, options.maxMessages, participantNo,
+			participants, baseScreenName);
+		chatter.configure(options);
+		chatter.setSigningStrategy(signingStrategy);
+		chatter.setOnReady(participants, startup::participantReady);
+	}
+
+	/**
+	 * Keep the face pumped until every participant in the room is ready, or
+	 * give up waiting after STARTUP_TIMEOUT_MILLIS.
+	 */
+	private void awaitStartup() {
+		Clock clock = Chatter.getClock(face);
+		double deadline = clock.getNowMilliseconds() + STARTUP_TIMEOUT_MILLIS;
+		while (!startup.isOpen() && clock.getNowMilliseconds() < deadline) {
+			chatter.pumpFaceAwhile(STARTUP_POLL_MILLIS);
+		}
+		if (!startup.isOpen()) {
+			logStartupTimeout();
+		}
+	}
+
+	private void logStartupTimeout() {
+		log.warn(screenName + " gave up waiting for the room to start, only " +
+				startup.getNumReady() + " of " + participants + " participants are ready.");
+	}
+
+	private void recordMessageSent() {
+		++totalMessagesSent;
+		//messagesSentCountPerUser is shared in
+		// every thread but each thread only writes to
+		// one cell.
+		messagesSentCountPerUser[participantNo] = totalMessagesSent;
+		if (totalMessagesSent == numMessages) {
+			usersDoneSending.incrementAndGet();
+		}
+	}
+
+	/**
+	 * A ReactorFace belongs to its event loop's thread, so everything that
+	 * touches the chatter (and through it the face) is handed to that loop.
+	 * A plain Face is pumped by this thread and the task just runs here.
+	 */
+	private void runOnFaceThread(Runnable task) throws Exception {
+		if (face instanceof ReactorFace) {
+			((ReactorFace) face).invokeAndWait(task);
+		}
+		else {
+			task.run();
+		}
+	}
+
+	public SimulationMetrics getMetrics() {
+		return metrics;
+	}
+
+	public TestChat getChatter() {
+		return chatter;
+	}
+
+	private boolean allUsersHaveNotSentAllMessages() {
+		return usersDoneSending.get() != participants;
 	}
 
 	public static String generateScreenName(String screenName, int i) {
@@ -71,4 +71,9 @@ public class ChronoSyncClassic implements SyncAdapter {
 	public long getSequenceNo() {
 		return sync_.getSequenceNo();
 	}
+
+	@Override
+	public int getNumProducers() {
+		return sync_.getProducerPrefixes().size();
+	}
 }
@@ -0,0 +1,214 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import net.named_data.jndn.Name;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A log of what happened to the chat Interests of every chatter in a
+ * simulation, cheap enough to record every delivery.
+ *
+ * An event is a type, the hash of the Interest's name and a time, nothing
+ * more; no packet is kept. Every thread that records gets its own ring
+ * buffer (stripe) of stripeCapacity events, so recording never locks, never
+ * allocates after a thread's first event and never touches memory another
+ * recording thread writes. A full stripe overwrites its oldest events, which
+ * {@link #getDropped()} counts.
+ *
+ * Queries stream over the stripes while they are being written and may be
+ * run from any thread. They see at least every event recorded before the
+ * query started that was not overwritten, in recording order per stripe but
+ * not across stripes.
+ */
+public class EventRecorder {
+	public static final int DEFAULT_STRIPE_CAPACITY = 1 << 14;
+
+	public enum Type {
+		/** A chat Interest was answered with Data. */
+		DATA,
+		/** A chat Interest timed out. */
+		TIMEOUT,
+		/** A chat Interest was NACKed. */
+		NACK
+	}
+
+	private static final Type[] TYPES = Type.values();
+
+	private final int stripeCapacity;
+	private final Queue<Stripe> stripes = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<Stripe> localStripe = ThreadLocal.withInitial(this::newStripe);
+
+	public EventRecorder() {
+		this(DEFAULT_STRIPE_CAPACITY);
+	}
+
+	/**
+	 * @param stripeCapacity How many events each recording thread keeps.
+	 */
+	public EventRecorder(int stripeCapacity) {
+		if (stripeCapacity <= 0 || stripeCapacity >= 1 << 30) {
+			throw new IllegalArgumentException("need 0 < stripeCapacity < 2^30, got " + stripeCapacity);
+		}
+		this.stripeCapacity = stripeCapacity;
+	}
+
+	public static final class Event {
+		private final Type type;
+		private final int nameHash;
+		private final double timeMilliseconds;
+
+		Event(Type type, int nameHash, double timeMilliseconds) {
+			this.type = type;
+			this.nameHash = nameHash;
+			this.timeMilliseconds = timeMilliseconds;
+		}
+
+		public Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return The hashCode of the Interest's name.
+		 */
+		public int getNameHash() {
+			return nameHash;
+		}
+
+		public double getTimeMilliseconds() {
+			return timeMilliseconds;
+		}
+
+		/**
+		 * @return Whether the event could be for name. Names with the same
+		 * hash cannot be told apart.
+		 */
+		public boolean matches(Name name) {
+			return nameHash == name.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return type + " " + Integer.toHexString(nameHash) + " at " + timeMilliseconds;
+		}
+	}
+
+	/**
+	 * Record that type happened to the Interest for name at timeMilliseconds.
+	 */
+	public void record(Type type, Name name, double timeMilliseconds) {
+		localStripe.get().add(type, name.hashCode(), timeMilliseconds);
+	}
+
+	/**
+	 * @return Every retained event, stripe by stripe.
+	 */
+	public Stream<Event> events() {
+		return stripes.stream().flatMap(Stripe::events);
+	}
+
+	/**
+	 * @return Every retained event of type.
+	 */
+	public Stream<Event> events(Type type) {
+		return events().filter(event -> event.type == type);
+	}
+
+	/**
+	 * @return Every retained event that could be for name, see
+	 * {@link Event#matches(Name)}.
+	 */
+	public Stream<Event> events(Name name) {
+		final int nameHash = name.hashCode();
+		return events().filter(event -> event.nameHash == nameHash);
+	}
+
+	/**
+	 * @return How many retained events are of type.
+	 */
+	public long count(Type type) {
+		return events(type).count();
+	}
+
+	/**
+	 * @return How many events were ever recorded, retained or not.
+	 */
+	public long getRecorded() {
+		long recorded = 0;
+		for (Stripe stripe : stripes) {
+			recorded += stripe.written.get();
+		}
+		return recorded;
+	}
+
+	/**
+	 * @return How many events were overwritten by newer ones.
+	 */
+	public long getDropped() {
+		long dropped = 0;
+		for (Stripe stripe : stripes) {
+			dropped += Math.max(0, stripe.written.get() - stripeCapacity);
+		}
+		return dropped;
+	}
+
+	private Stripe newStripe() {
+		Stripe stripe = new Stripe(stripeCapacity);
+		stripes.add(stripe);
+		return stripe;
+	}
+
+	/**
+	 * One thread's events. Only that thread writes, and it publishes each
+	 * event by bumping written after filling in its slot. It has one slot
+	 * more than its capacity, so the writer can fill in the next event while
+	 * a reader is still reading the oldest one it keeps.
+	 */
+	private static class Stripe {
+		final int capacity;
+		final byte[] types;
+		final int[] nameHashes;
+		final double[] times;
+		final AtomicLong written = new AtomicLong();
+		// The slot the writer fills in next, written's slot. Only the writer
+		// uses it, so recording needs no division.
+		int nextSlot = 0;
+
+		Stripe(int capacity) {
+			this.capacity = capacity;
+			int slots = capacity + 1;
+			types = new byte[slots];
+			nameHashes = new int[slots];
+			times = new double[slots];
+		}
+
+		void add(Type type, int nameHash, double timeMilliseconds) {
+			long index = written.get();
+			int slot = nextSlot;
+			types[slot] = (byte)type.ordinal();
+			nameHashes[slot] = nameHash;
+			times[slot] = timeMilliseconds;
+			nextSlot = slot + 1 == types.length ? 0 : slot + 1;
+			written.lazySet(index + 1);
+		}
+
+		Stream<Event> events() {
+			long end = written.get();
+			long start = Math.max(0, end - capacity);
+			return LongStream.range(start, end).mapToObj(this::get).filter(event -> event != null);
+		}
+
+		/**
+		 * @return Event index, or null if the writer has lapped it.
+		 */
+		private Event get(long index) {
+			int slot = (int)(index % types.length);
+			Event event = new Event(TYPES[types[slot]], nameHashes[slot], times[slot]);
+			// The writer may have been filling the slot in while it was read.
+			return written.get() - types.length < index ? event : null;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+/**
+ * How a {@link ChatSimulation} runs its participants.
+ */
+public enum ExecutionMode {
+	/**
+	 * Every participant is a {@link ChronoChatUser} thread that blocks between
+	 * its steps. Simple, but a room needs as many threads as participants.
+	 */
+	THREAD_PER_PARTICIPANT,
+	/**
+	 * Every participant is a chain of timers on its face's event loop, see
+	 * {@link ChronoChatUser#start()}. The room only uses the reactor threads,
+	 * so one JVM can host tens of thousands of participants. Needs reactor
+	 * threads.
+	 */
+	EVENT_DRIVEN
+}
@@ -0,0 +1,355 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.Scheduler;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fetches every message a chat room's producers publish, not just the newest
+ * one a sync update names.
+ *
+ * For each producer (data prefix and session) it remembers the next sequence
+ * number to ask for and the newest one the sync has announced, and keeps
+ * Interests for everything in between outstanding. How many may be
+ * outstanding per producer is an AIMD window: it grows by one per window's
+ * worth of Data and halves on every timeout, so a producer that is far ahead
+ * is caught up quickly without flooding the forwarder.
+ *
+ * Interest lifetimes are each producer's retransmission timeout from an
+ * {@link RttEstimator}. An Interest that times out is sent again, with the
+ * timeout doubled, up to maxRetransmissions times before the message is
+ * given up on.
+ *
+ * A NACK is handled right away instead of waiting for the Interest to
+ * expire, and a retry counts against the same maxRetransmissions:
+ * <ul>
+ * <li>Congestion shrinks the window like a timeout and retries after the
+ * backed-off timeout.</li>
+ * <li>NoRoute retries after one timeout, giving the producer's route time to
+ * appear.</li>
+ * <li>Any other reason (e.g. Duplicate) retries at once, with a few
+ * milliseconds of jitter so consumers NACKed together do not collide
+ * again.</li>
+ * </ul>
+ *
+ * Data names are prefix/session/sequence, see
+ * {@link SyncStateCoalescer#makeDataName(Name, long, long)}.
+ *
+ * Not thread safe: a chatter only uses it from the thread pumping its face.
+ */
+public class FetchPipeline {
+	public static final int DEFAULT_INITIAL_WINDOW = 4;
+	public static final int DEFAULT_MAX_WINDOW = 32;
+	public static final int DEFAULT_MAX_RETRANSMISSIONS = 3;
+	public static final double NACK_RETRY_JITTER = 10.0;
+
+	public interface Fetcher {
+		/**
+		 * Express an Interest for name with the given lifetime.
+		 * @return false if it could not be sent, to stop filling the window.
+		 */
+		boolean fetch(Name name, double lifetimeMilliseconds);
+	}
+
+	private final Fetcher fetcher;
+	private final Clock clock;
+	private final Scheduler scheduler;
+	private final Random random = new Random();
+	private final int initialWindow;
+	private final int maxWindow;
+	private final int maxBacklog;
+	private final int maxRetransmissions;
+	private final Map<Name, Producer> producers = new HashMap<>();
+	private long interestsExpressed = 0;
+	private long gapFillInterests = 0;
+	private long timeouts = 0;
+	private long retransmissions = 0;
+	private long giveUps = 0;
+	private final long[] nacks = new long[NetworkNack.Reason.values().length];
+
+	/**
+	 * @param initialWindow The number of Interests a new producer may have
+	 * outstanding.
+	 * @param maxWindow The most a producer's window grows to.
+	 * @param maxBacklog How many messages a producer first announced with a
+	 * sequence number beyond 0 is fetched back; older ones are not asked for.
+	 * Producers cannot answer for more than their message cache holds.
+	 * @param maxRetransmissions How many times an Interest that timed out or
+	 * was NACKed is sent again.
+	 */
+	public FetchPipeline(Fetcher fetcher, Clock clock, Scheduler scheduler, int initialWindow, int maxWindow,
+			int maxBacklog, int maxRetransmissions) {
+		if (initialWindow <= 0 || maxWindow < initialWindow) {
+			throw new IllegalArgumentException("need 0 < initialWindow <= maxWindow, got " +
+					initialWindow + " and " + maxWindow);
+		}
+		this.fetcher = fetcher;
+		this.clock = clock;
+		this.scheduler = scheduler;
+		this.initialWindow = initialWindow;
+		this.maxWindow = maxWindow;
+		this.maxBacklog = Math.max(1, maxBacklog);
+		this.maxRetransmissions = Math.max(0, maxRetransmissions);
+	}
+
+	/**
+	 * The sync announced sequenceNo for the producer prefixName/sessionNo.
+	 * A producer first seen in recovery is only fetched from sequenceNo on,
+	 * and that message counts as recovery, see {@link #isRecovery(Name)}.
+	 */
+	public void onSyncState(Name prefixName, long sessionNo, long sequenceNo, boolean isRecovery) {
+		Name key = new Name(prefixName).append(Long.toString(sessionNo));
+		Producer producer = producers.get(key);
+		if (producer == null) {
+			producer = new Producer(prefixName, sessionNo, initialWindow);
+			if (isRecovery) {
+				producer.nextSequenceNo = sequenceNo;
+				producer.recoveredUpTo = sequenceNo;
+			}
+			else {
+				producer.nextSequenceNo = Math.max(0, sequenceNo - maxBacklog + 1);
+			}
+			producers.put(key, producer);
+		}
+		producer.latestSequenceNo = Math.max(producer.latestSequenceNo, sequenceNo);
+		fill(producer);
+	}
+
+	/**
+	 * The Data for dataName arrived.
+	 */
+	public void onData(Name dataName) {
+		Producer producer = getProducer(dataName);
+		if (producer == null) {
+			return;
+		}
+		long sequenceNo = getSequenceNo(dataName);
+		Outstanding outstanding = producer.outstanding.remove(sequenceNo);
+		if (outstanding == null) {
+			return;
+		}
+		if (outstanding.retransmissions == 0) {
+			producer.rtt.addMeasurement(clock.getNowMilliseconds() - outstanding.sentAt);
+		}
+		producer.highestDelivered = Math.max(producer.highestDelivered, sequenceNo);
+		producer.window = Math.min(maxWindow, producer.window + 1.0 / producer.window);
+		fill(producer);
+	}
+
+	/**
+	 * The Interest for interestName timed out. Send it again with a longer
+	 * lifetime, or give up on the message once it was retransmitted
+	 * maxRetransmissions times.
+	 */
+	public void onTimeout(Name interestName) {
+		Producer producer = getProducer(interestName);
+		if (producer == null) {
+			return;
+		}
+		long sequenceNo = getSequenceNo(interestName);
+		Outstanding outstanding = producer.outstanding.get(sequenceNo);
+		if (outstanding == null) {
+			return;
+		}
+		++timeouts;
+		producer.window = Math.max(1.0, producer.window / 2);
+		producer.rtt.backoff();
+		if (outstanding.retransmissions < maxRetransmissions &&
+				fetcher.fetch(interestName, producer.rtt.getRto())) {
+			++outstanding.retransmissions;
+			outstanding.sentAt = clock.getNowMilliseconds();
+			++retransmissions;
+		}
+		else {
+			giveUp(producer, sequenceNo);
+		}
+	}
+
+	/**
+	 * The Interest for interestName was NACKed with reason.
+	 */
+	public void onNack(Name interestName, NetworkNack.Reason reason) {
+		Producer producer = getProducer(interestName);
+		if (producer == null) {
+			return;
+		}
+		final long sequenceNo = getSequenceNo(interestName);
+		Outstanding outstanding = producer.outstanding.get(sequenceNo);
+		if (outstanding == null) {
+			return;
+		}
+		++nacks[reason.ordinal()];
+		if (outstanding.retransmissions >= maxRetransmissions) {
+			giveUp(producer, sequenceNo);
+			return;
+		}
+
+		double delay;
+		if (reason == NetworkNack.Reason.CONGESTION) {
+			producer.window = Math.max(1.0, producer.window / 2);
+			producer.rtt.backoff();
+			delay = producer.rtt.getRto();
+		}
+		else if (reason == NetworkNack.Reason.NO_ROUTE) {
+			delay = producer.rtt.getRto();
+		}
+		else {
+			delay = random.nextDouble() * NACK_RETRY_JITTER;
+		}
+		++outstanding.retransmissions;
+		final Producer retryProducer = producer;
+		final Name name = new Name(interestName);
+		scheduler.callLater(delay, () -> retry(retryProducer, sequenceNo, name));
+	}
+
+	private void retry(Producer producer, long sequenceNo, Name name) {
+		Outstanding outstanding = producer.outstanding.get(sequenceNo);
+		if (outstanding == null) {
+			return;
+		}
+		if (fetcher.fetch(name, producer.rtt.getRto())) {
+			outstanding.sentAt = clock.getNowMilliseconds();
+			++retransmissions;
+		}
+		else {
+			giveUp(producer, sequenceNo);
+		}
+	}
+
+	private void giveUp(Producer producer, long sequenceNo) {
+		producer.outstanding.remove(sequenceNo);
+		++giveUps;
+		fill(producer);
+	}
+
+	/**
+	 * @return Whether dataName is history of a producer that was first seen in
+	 * a recovery sync state, rather than something published while we
+	 * listened.
+	 */
+	public boolean isRecovery(Name dataName) {
+		Producer producer = getProducer(dataName);
+		return producer != null && getSequenceNo(dataName) <= producer.recoveredUpTo;
+	}
+
+	/**
+	 * @return The newest sequence number the sync announced for the producer
+	 * prefixName/sessionNo, or -1.
+	 */
+	public long getLatestSequenceNo(Name prefixName, long sessionNo) {
+		Producer producer = producers.get(new Name(prefixName).append(Long.toString(sessionNo)));
+		return producer != null ? producer.latestSequenceNo : -1;
+	}
+
+	/**
+	 * @return The highest sequence number received from the producer
+	 * prefixName/sessionNo, or -1.
+	 */
+	public long getHighestDelivered(Name prefixName, long sessionNo) {
+		Producer producer = producers.get(new Name(prefixName).append(Long.toString(sessionNo)));
+		return producer != null ? producer.highestDelivered : -1;
+	}
+
+	public long getInterestsExpressed() {
+		return interestsExpressed;
+	}
+
+	/**
+	 * @return How many of the Interests were for messages older than the
+	 * newest one the sync had announced at the time.
+	 */
+	public long getGapFillInterests() {
+		return gapFillInterests;
+	}
+
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	public long getRetransmissions() {
+		return retransmissions;
+	}
+
+	/**
+	 * @return How many messages were not fetched because every
+	 * retransmission of their Interest timed out or was NACKed too.
+	 */
+	public long getGiveUps() {
+		return giveUps;
+	}
+
+	/**
+	 * @return How many NACKs with reason arrived.
+	 */
+	public long getNacks(NetworkNack.Reason reason) {
+		return nacks[reason.ordinal()];
+	}
+
+	/**
+	 * @return The RTT estimator of the producer prefixName/sessionNo, or null.
+	 */
+	public RttEstimator getRttEstimator(Name prefixName, long sessionNo) {
+		Producer producer = producers.get(new Name(prefixName).append(Long.toString(sessionNo)));
+		return producer != null ? producer.rtt : null;
+	}
+
+	private void fill(Producer producer) {
+		while (producer.outstanding.size() < (int)producer.window &&
+				producer.nextSequenceNo <= producer.latestSequenceNo) {
+			long sequenceNo = producer.nextSequenceNo;
+			if (!fetcher.fetch(SyncStateCoalescer.makeDataName(producer.prefixName, producer.sessionNo, sequenceNo),
+					producer.rtt.getRto())) {
+				return;
+			}
+			++producer.nextSequenceNo;
+			producer.outstanding.put(sequenceNo, new Outstanding(clock.getNowMilliseconds()));
+			++interestsExpressed;
+			if (sequenceNo < producer.latestSequenceNo) {
+				++gapFillInterests;
+			}
+		}
+	}
+
+	private Producer getProducer(Name name) {
+		if (name.size() < 2) {
+			return null;
+		}
+		return producers.get(name.getPrefix(-1));
+	}
+
+	private static long getSequenceNo(Name name) {
+		return Long.parseLong(name.get(-1).toEscapedString());
+	}
+
+	private static class Producer {
+		final Name prefixName;
+		final long sessionNo;
+		long nextSequenceNo;
+		long latestSequenceNo = -1;
+		long highestDelivered = -1;
+		long recoveredUpTo = -1;
+		double window;
+		final Map<Long, Outstanding> outstanding = new HashMap<>();
+		final RttEstimator rtt = new RttEstimator();
+
+		Producer(Name prefixName, long sessionNo, int initialWindow) {
+			this.prefixName = prefixName;
+			this.sessionNo = sessionNo;
+			this.window = initialWindow;
+		}
+	}
+
+	private static class Outstanding {
+		double sentAt;
+		int retransmissions = 0;
+
+		Outstanding(double sentAt) {
+			this.sentAt = sentAt;
+		}
+	}
+}
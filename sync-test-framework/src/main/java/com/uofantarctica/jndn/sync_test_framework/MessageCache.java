@@ -0,0 +1,135 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * A fixed-capacity ring buffer of a producer's messages, oldest evicted
+ * first, looked up by sequence number.
+ *
+ * A producer's sequence numbers only grow, nearly always by one, so the
+ * message with sequence number s sits (newest - s) slots behind the newest
+ * one and append, evict and lookup are O(1). If that slot holds something
+ * else (e.g. a JOIN cached twice under the same number) lookup falls back to
+ * scanning from the newest entry.
+ *
+ * Not thread safe: a chatter only uses it from the thread pumping its face.
+ */
+public class MessageCache<T> {
+	public static final int DEFAULT_CAPACITY = 100;
+
+	private final int capacity;
+	private final long maxBytes;
+	private final ToIntFunction<T> sizer;
+	private final long[] sequenceNos;
+	private final Object[] messages;
+	private final int[] sizes;
+	private int head = 0;
+	private int count = 0;
+	private long bytes = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * @param capacity The maximum number of messages.
+	 * @param maxBytes The maximum total size of the messages according to
+	 * sizer, or 0 for no limit. The newest message is always kept.
+	 * @param sizer Gives a message's size in bytes.
+	 */
+	public MessageCache(int capacity, long maxBytes, ToIntFunction<T> sizer) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+		}
+		this.capacity = capacity;
+		this.maxBytes = maxBytes;
+		this.sizer = sizer;
+		sequenceNos = new long[capacity];
+		messages = new Object[capacity];
+		sizes = new int[capacity];
+	}
+
+	public void append(long sequenceNo, T message) {
+		int size = sizer.applyAsInt(message);
+		while (count == capacity || (maxBytes > 0 && count > 0 && bytes + size > maxBytes)) {
+			evictOldest();
+		}
+		int slot = (head + count) % capacity;
+		sequenceNos[slot] = sequenceNo;
+		messages[slot] = message;
+		sizes[slot] = size;
+		bytes += size;
+		++count;
+	}
+
+	/**
+	 * @return The newest message cached under sequenceNo, or null.
+	 */
+	public T get(long sequenceNo) {
+		T message = find(sequenceNo);
+		if (message != null) {
+			++hits;
+		}
+		else {
+			++misses;
+		}
+		return message;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T find(long sequenceNo) {
+		if (count == 0) {
+			return null;
+		}
+		int newest = (head + count - 1) % capacity;
+		long distance = sequenceNos[newest] - sequenceNo;
+		if (distance >= 0 && distance < count) {
+			int i = count - 1 - (int)distance;
+			if (sequenceNos[(head + i) % capacity] == sequenceNo) {
+				// Repeats of a sequence number are adjacent; use the newest.
+				while (i + 1 < count && sequenceNos[(head + i + 1) % capacity] == sequenceNo) {
+					++i;
+				}
+				return (T)messages[(head + i) % capacity];
+			}
+		}
+		for (int i = count - 1; i >= 0; --i) {
+			int slot = (head + i) % capacity;
+			if (sequenceNos[slot] == sequenceNo) {
+				return (T)messages[slot];
+			}
+		}
+		return null;
+	}
+
+	private void evictOldest() {
+		bytes -= sizes[head];
+		messages[head] = null;
+		head = (head + 1) % capacity;
+		--count;
+		++evictions;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+}
@@ -0,0 +1,247 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.LatencyHistogram;
+import com.uofantarctica.jndn.helpers.SystemClock;
+import net.named_data.jndn.Name;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Traces a sample of chat messages through every stage from being published
+ * to being counted by each consumer, to tell whether slow deliveries are
+ * waiting on sync discovery or on fetching the Data.
+ *
+ * A message is traced when its sequence number is a multiple of
+ * sampleEvery, so its producer and every consumer agree on it without
+ * coordinating. Each stage is stamped once, the first time it happens, on
+ * one clock for the whole simulation: the virtual clock, or a monotonic one
+ * in real time. {@link #getBreakdown()} turns the stamps into one latency
+ * histogram per {@link Interval}, in microseconds.
+ *
+ * Thread safe: chatters on any thread stamp into it.
+ */
+public class MessageTracer {
+	/**
+	 * A tracer that traces nothing.
+	 */
+	public static final MessageTracer DISABLED = new MessageTracer(0, SystemClock.INSTANCE);
+
+	public enum Stage {
+		/** The producer published the message. */
+		PUBLISHED,
+		/** A consumer learned of it from a sync state. */
+		SYNC_STATE_SEEN,
+		/** A consumer expressed its Interest for it. */
+		INTEREST_EXPRESSED,
+		/** The producer answered an Interest for it. */
+		INTEREST_SERVED,
+		/** A consumer received its Data. */
+		DATA_RECEIVED,
+		/** A consumer counted its receipt. */
+		RECEIPT_RECORDED
+	}
+
+	public enum Interval {
+		SYNC_DISCOVERY(Stage.PUBLISHED, Stage.SYNC_STATE_SEEN),
+		FETCH_QUEUEING(Stage.SYNC_STATE_SEEN, Stage.INTEREST_EXPRESSED),
+		INTEREST_TO_PRODUCER(Stage.INTEREST_EXPRESSED, Stage.INTEREST_SERVED),
+		DATA_TO_CONSUMER(Stage.INTEREST_SERVED, Stage.DATA_RECEIVED),
+		RECEIPT(Stage.DATA_RECEIVED, Stage.RECEIPT_RECORDED),
+		END_TO_END(Stage.PUBLISHED, Stage.RECEIPT_RECORDED);
+
+		private final Stage from;
+		private final Stage to;
+
+		Interval(Stage from, Stage to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		public Stage getFrom() {
+			return from;
+		}
+
+		public Stage getTo() {
+			return to;
+		}
+	}
+
+	private static final int NUM_STAGES = Stage.values().length;
+
+	private final int sampleEvery;
+	private final Clock clock;
+	private final Map<Name, Trace> traces = new ConcurrentHashMap<>();
+
+	/**
+	 * @param sampleEvery Trace one in sampleEvery messages of each producer,
+	 * or none for 0.
+	 */
+	public MessageTracer(int sampleEvery, Clock clock) {
+		if (sampleEvery < 0) {
+			throw new IllegalArgumentException("need sampleEvery >= 0, got " + sampleEvery);
+		}
+		this.sampleEvery = sampleEvery;
+		this.clock = clock;
+	}
+
+	public boolean isEnabled() {
+		return sampleEvery > 0;
+	}
+
+	public boolean isSampled(long sequenceNo) {
+		return sampleEvery > 0 && sequenceNo % sampleEvery == 0;
+	}
+
+	/**
+	 * Stamp stage of the message dataName (prefix/session/sequence) now, for
+	 * consumer, or for its producer if consumer is null.
+	 */
+	public void stamp(Stage stage, Name dataName, String consumer) {
+		if (sampleEvery <= 0) {
+			return;
+		}
+		long sequenceNo;
+		try {
+			sequenceNo = Long.parseLong(dataName.get(-1).toEscapedString());
+		} catch (NumberFormatException ex) {
+			return;
+		}
+		stamp(stage, dataName, sequenceNo, consumer);
+	}
+
+	/**
+	 * As {@link #stamp(Stage, Name, String)}, for a caller that already knows
+	 * the message's sequence number.
+	 */
+	public void stamp(Stage stage, Name dataName, long sequenceNo, String consumer) {
+		if (!isSampled(sequenceNo)) {
+			return;
+		}
+		double now = clock.getNowMilliseconds();
+		Trace trace = traces.get(dataName);
+		if (trace == null) {
+			trace = traces.computeIfAbsent(new Name(dataName), name -> new Trace());
+		}
+		trace.stamp(stage, consumer, now);
+	}
+
+	/**
+	 * Stamp stage now for consumer, for every sampled message of the producer
+	 * prefixName/sessionNo from sequence number first to last.
+	 */
+	public void stampRange(Stage stage, Name prefixName, long sessionNo, long first, long last, String consumer) {
+		if (sampleEvery <= 0) {
+			return;
+		}
+		long firstSampled = ((Math.max(0, first) + sampleEvery - 1) / sampleEvery) * sampleEvery;
+		for (long sequenceNo = firstSampled; sequenceNo <= last; sequenceNo += sampleEvery) {
+			stamp(stage, SyncStateCoalescer.makeDataName(prefixName, sessionNo, sequenceNo), sequenceNo, consumer);
+		}
+	}
+
+	/**
+	 * @return How many messages have been traced.
+	 */
+	public int getNumTraced() {
+		return traces.size();
+	}
+
+	/**
+	 * @return For every interval, the histogram in microseconds of how long
+	 * it took each traced message to each consumer that got through both of
+	 * its stages. INTEREST_SERVED is the producer's first answer after the
+	 * consumer expressed its Interest.
+	 */
+	public Map<Interval, LatencyHistogram> getBreakdown() {
+		Map<Interval, LatencyHistogram> breakdown = new EnumMap<>(Interval.class);
+		for (Interval interval : Interval.values()) {
+			breakdown.put(interval, new LatencyHistogram());
+		}
+		double[] stamps = new double[NUM_STAGES];
+		for (Trace trace : traces.values()) {
+			for (double[] consumerStamps : trace.consumers.values()) {
+				synchronized (consumerStamps) {
+					System.arraycopy(consumerStamps, 0, stamps, 0, NUM_STAGES);
+				}
+				stamps[Stage.PUBLISHED.ordinal()] = trace.published;
+				stamps[Stage.INTEREST_SERVED.ordinal()] = trace.getServedAfter(
+						stamps[Stage.INTEREST_EXPRESSED.ordinal()]);
+				for (Interval interval : Interval.values()) {
+					double from = stamps[interval.from.ordinal()];
+					double to = stamps[interval.to.ordinal()];
+					if (!Double.isNaN(from) && !Double.isNaN(to)) {
+						breakdown.get(interval).record(Chatter.toMicroseconds(to - from));
+					}
+				}
+			}
+		}
+		return breakdown;
+	}
+
+	private static class Trace {
+		private static final int INITIAL_SERVED = 4;
+
+		volatile double published = Double.NaN;
+		// When the producer answered an Interest for the message, the first
+		// numServed of served, which doubles when it fills up.
+		private double[] served = new double[INITIAL_SERVED];
+		private int numServed = 0;
+		final Map<String, double[]> consumers = new ConcurrentHashMap<>();
+
+		void stamp(Stage stage, String consumer, double now) {
+			if (stage == Stage.PUBLISHED) {
+				if (Double.isNaN(published)) {
+					published = now;
+				}
+				return;
+			}
+			if (stage == Stage.INTEREST_SERVED) {
+				synchronized (this) {
+					if (numServed == served.length) {
+						served = Arrays.copyOf(served, numServed * 2);
+					}
+					served[numServed++] = now;
+				}
+				return;
+			}
+			if (consumer == null) {
+				return;
+			}
+			double[] stamps = consumers.get(consumer);
+			if (stamps == null) {
+				stamps = consumers.computeIfAbsent(consumer, key -> {
+					double[] newStamps = new double[NUM_STAGES];
+					Arrays.fill(newStamps, Double.NaN);
+					return newStamps;
+				});
+			}
+			synchronized (stamps) {
+				if (Double.isNaN(stamps[stage.ordinal()])) {
+					stamps[stage.ordinal()] = now;
+				}
+			}
+		}
+
+		/**
+		 * @return The first time the producer answered at or after time, or
+		 * NaN.
+		 */
+		synchronized double getServedAfter(double time) {
+			double first = Double.NaN;
+			if (Double.isNaN(time)) {
+				return first;
+			}
+			for (int i = 0; i < numServed; ++i) {
+				double servedAt = served[i];
+				if (servedAt >= time && (Double.isNaN(first) || servedAt < first)) {
+					first = servedAt;
+				}
+			}
+			return first;
+		}
+	}
+}
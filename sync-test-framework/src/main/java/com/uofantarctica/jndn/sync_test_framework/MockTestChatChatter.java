@@ -1,28 +1,24 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
-import com.uofantarctica.jndn.sync_test_framework.SyncQueue;
+import com.uofantarctica.jndn.helpers.ReactorFace;
 import net.named_data.jndn.Face;
-import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.security.KeyChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 public class MockTestChatChatter extends TestChatChatter implements TestChat {
 	private static final Logger log = LoggerFactory.getLogger(MockTestChatChatter.class);
 
 	private String baseScreenName;
-	private ArrayList<String> messages;
-	private Map<String, Integer> sentMessageChatLog;
+	// How many times this chatter sent each of its messages.
+	private int[] sentCounts;
 
 	public MockTestChatChatter(String screenName, String broadcastBaseName, String chatRoom, Name hubPrefix, Face face,
-	                           KeyChain keyChain, Name certificateName, List<Interest> interestsExpressed) {
-		super(screenName, broadcastBaseName, chatRoom, hubPrefix, face, keyChain, certificateName, interestsExpressed);
+	                           KeyChain keyChain, Name certificateName, EventRecorder eventRecorder,
+	                           SyncFactory syncFactory) {
+		super(screenName, broadcastBaseName, chatRoom, hubPrefix, face, keyChain, certificateName, eventRecorder,
+			syncFactory);
 	}
 
 	@Override
@@ -40,32 +36,45 @@ public class MockTestChatChatter extends TestChatChatter implements TestChat {
 
 		log.debug( "Mocking test data");
 		this.baseScreenName = baseScreenName;
-		this.messages = cu.getMessages(numMessages);
-		this.sentMessageChatLog = TestChatChatter.initChatLog(messages);
+	}
 
-		Map<String, Integer> aChatLog = getPerfectTestCounts();
+
+	/**
+	 * Once the options say which participants this one hears and how many
+	 * messages each sends, mock receiving every one of them once.
+	 */
+	@Override
+	public void configure(ChatterOptions options) {
+		super.configure(options);
+		sentCounts = new int[messagesPerParticipant[particpantNo]];
 		for (int i = 0; i < participants; ++i) {
-			String screenName = ChronoChatUser.generateScreenName(baseScreenName, i);
-			if (i != participantNo) {
-				userByMessageByMessageCount.put(screenName, aChatLog);
+			if (options.hears(particpantNo, i)) {
+				setPerfectTestCounts(receipts.addProducer(participantScreenNames[i]), messagesPerParticipant[i]);
 			}
 		}
 
-		if (userByMessageByMessageCount.size() != (participants - 1)) {
-			log.error( "After mocking, the userByMessageByMessage count " +
-				"map did not have correct number of elements, needed: " +
-				numMessages + ", but had: " + userByMessageByMessageCount.size());
+		if (receipts.getNumProducers() != getNumHeard()) {
+			log.error( "After mocking, the receipts " +
+				"did not have correct number of producers, needed: " +
+				getNumHeard() + ", but had: " + receipts.getNumProducers());
 			System.exit(1);
 		}
 	}
 
+	private int getNumHeard() {
+		int heard = 0;
+		for (int i = 0; i < participants; ++i) {
+			if (options.hears(particpantNo, i)) {
+				++heard;
+			}
+		}
+		return heard;
+	}
 
-	public Map<String, Integer> getPerfectTestCounts() {
-		Map<String, Integer> perfectTestCounts = new HashMap<>();
-		for (String m: messages) {
-			perfectTestCounts.put(m, 1);
+	public void setPerfectTestCounts(int producer, int numMessages) {
+		for (int i = 0; i < numMessages; ++i) {
+			receipts.setCount(producer, i, 1);
 		}
-		return perfectTestCounts;
 	}
 
 	//TODO between setTestContext and submitStats need a fully and correctly
@@ -73,9 +82,9 @@ public class MockTestChatChatter extends TestChatChatter implements TestChat {
 	// of userNames? any way we can get around that?
 
 	@Override
-	public void submitStats(SyncQueue queue, int numMessages) {
-		for (String key : sentMessageChatLog.keySet()) {
-			if (sentMessageChatLog.get(key) != 1) {
+	public void submitStats(SimulationMetrics metrics, int numMessages) {
+		for (int sent : sentCounts) {
+			if (sent != 1) {
 				log.error( "Failed to send all messages, make sure each " +
 					"chronochat user fires off each message once.");
 				System.exit(1);
@@ -83,12 +92,12 @@ public class MockTestChatChatter extends TestChatChatter implements TestChat {
 
 		}
 
-		if (userByMessageByMessageCount.size() != (participants - 1)) {
+		if (receipts.getNumProducers() != getNumHeard()) {
 			log.error( "Do not have all users chatter data.");
 			System.exit(1);
 
 		}
-		super.submitStats(queue, numMessages);
+		super.submitStats(metrics, numMessages);
 	}
 
 	@Override
@@ -108,7 +117,7 @@ public class MockTestChatChatter extends TestChatChatter implements TestChat {
 
 	@Override
 	public void sendMessage(String chatMessage) {
-		TestChatChatter.incMessageOnLog(chatMessage, this.sentMessageChatLog);
+		++sentCounts[ChronoChatUser.getMessageIndex(chatMessage)];
 
 	}
 
@@ -122,8 +131,20 @@ public class MockTestChatChatter extends TestChatChatter implements TestChat {
 		log.debug( "STUB!");
 	}
 
+	// Event driven participants still need the wait, or their steps would
+	// run into each other; only a face without a loop skips it.
+	@Override
+	public void pumpFaceAwhile(long awhile, Runnable then) {
+		if (face_ instanceof ReactorFace) {
+			super.pumpFaceAwhile(awhile, then);
+			return;
+		}
+		log.debug( "STUB!");
+		then.run();
+	}
+
 	@Override
-	public long getChatDelayTime() {
-		return 0;
+	public void sendMessage(String chatMessage, double sentMilliseconds) {
+		sendMessage(ChronoChatUser.unpadMessage(chatMessage));
 	}
 }
@@ -0,0 +1,149 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * How many times a chatter received each test message from each other
+ * chatter.
+ *
+ * Producers are interned to dense ids when they join and messages to their
+ * index in the producer's sequence of test messages, so each producer's
+ * counts are one int array. A row only grows, doubling, to cover the
+ * messages actually received from its producer, so a receiver's counts grow
+ * with what each producer sent rather than with the number of producers
+ * times the busiest producer's messages. Recording a
+ * receipt is a hash lookup, an index and an increment; nothing is boxed or
+ * copied. A producer that moves to a new session keeps its row under its
+ * new key.
+ *
+ * Not thread safe: a chatter only uses it from the thread pumping its face.
+ */
+public class ReceiptMatrix {
+	private static final int INITIAL_PRODUCERS = 8;
+	private static final int INITIAL_MESSAGES = 16;
+	private static final int[] NO_COUNTS = new int[0];
+
+	private final ToIntFunction<String> messageIndex;
+	private final Map<String, Integer> producerIds = new HashMap<>();
+	private String[] producerKeys = new String[INITIAL_PRODUCERS];
+	private int[][] counts = new int[INITIAL_PRODUCERS][];
+	// One past the highest message index received from each producer.
+	private int[] numMessages = new int[INITIAL_PRODUCERS];
+	private int numProducers = 0;
+
+	/**
+	 * @param messageIndex Gives a test message's index, or -1 for anything
+	 * that is not a test message. Chatters can share it.
+	 */
+	public ReceiptMatrix(ToIntFunction<String> messageIndex) {
+		this.messageIndex = messageIndex;
+	}
+
+	/**
+	 * @return Each message's index in messages, for messages known up front.
+	 */
+	public static ToIntFunction<String> indexMessages(List<String> messages) {
+		Map<String, Integer> messageIndexes = new HashMap<>(messages.size() * 2);
+		for (int i = 0; i < messages.size(); ++i) {
+			messageIndexes.put(messages.get(i), i);
+		}
+		return message -> messageIndexes.getOrDefault(message, -1);
+	}
+
+	/**
+	 * Give the producer key a row, if it does not have one yet.
+	 * @return The producer's id.
+	 */
+	public int addProducer(String key) {
+		Integer id = producerIds.get(key);
+		if (id != null) {
+			return id;
+		}
+		if (numProducers == producerKeys.length) {
+			producerKeys = Arrays.copyOf(producerKeys, numProducers * 2);
+			counts = Arrays.copyOf(counts, numProducers * 2);
+			numMessages = Arrays.copyOf(numMessages, numProducers * 2);
+		}
+		producerKeys[numProducers] = key;
+		counts[numProducers] = NO_COUNTS;
+		producerIds.put(key, numProducers);
+		return numProducers++;
+	}
+
+	/**
+	 * File the producer oldKey's row under newKey from now on.
+	 * @return false if there is no producer oldKey or there already is one
+	 * newKey.
+	 */
+	public boolean rename(String oldKey, String newKey) {
+		Integer id = producerIds.get(oldKey);
+		if (id == null || producerIds.containsKey(newKey)) {
+			return false;
+		}
+		producerIds.remove(oldKey);
+		producerIds.put(newKey, id);
+		producerKeys[id] = newKey;
+		return true;
+	}
+
+	/**
+	 * @return The id of the producer key, or -1.
+	 */
+	public int getProducer(String key) {
+		Integer id = producerIds.get(key);
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * Count one receipt of message from the producer key.
+	 * @return false if the producer or the message is not known.
+	 */
+	public boolean record(String key, String message) {
+		Integer id = producerIds.get(key);
+		int index = messageIndex.applyAsInt(message);
+		if (id == null || index < 0) {
+			return false;
+		}
+		++row(id, index)[index];
+		return true;
+	}
+
+	public int getCount(int producer, int messageIndex) {
+		int[] row = counts[producer];
+		return messageIndex < row.length ? row[messageIndex] : 0;
+	}
+
+	public void setCount(int producer, int messageIndex, int count) {
+		row(producer, messageIndex)[messageIndex] = count;
+	}
+
+	/**
+	 * @return One past the highest index of a message received from
+	 * producer.
+	 */
+	public int getNumMessages(int producer) {
+		return numMessages[producer];
+	}
+
+	private int[] row(int producer, int messageIndex) {
+		int[] row = counts[producer];
+		if (messageIndex >= row.length) {
+			row = Arrays.copyOf(row, Math.max(messageIndex + 1, Math.max(INITIAL_MESSAGES, row.length * 2)));
+			counts[producer] = row;
+		}
+		numMessages[producer] = Math.max(numMessages[producer], messageIndex + 1);
+		return row;
+	}
+
+	public String getProducerKey(int producer) {
+		return producerKeys[producer];
+	}
+
+	public int getNumProducers() {
+		return numProducers;
+	}
+}
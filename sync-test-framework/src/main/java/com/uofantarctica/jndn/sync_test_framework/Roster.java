@@ -0,0 +1,155 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.TimerWheel;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The chat room members a chatter knows about, by screen name, each with the
+ * session it was last heard in. Join, session update, lookup and leave are
+ * all one hash operation; nothing is parsed out of strings.
+ *
+ * Not thread safe: a chatter only uses it from the thread pumping its face.
+ */
+public class Roster {
+	private final Map<String, Member> members = new HashMap<>();
+
+	public static class Member {
+		private final String name;
+		private long sessionNo;
+		private String nameAndSession;
+		private long lastSequenceNo = -1;
+		private double lastSeen;
+		private String dataPrefix;
+		private TimerWheel.Timer livenessTimer;
+
+		Member(String name, long sessionNo, double now) {
+			this.name = name;
+			setSessionNo(sessionNo);
+			this.lastSeen = now;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getSessionNo() {
+			return sessionNo;
+		}
+
+		/**
+		 * @return The name followed by the session number, which is how the
+		 * chat callbacks identify a member.
+		 */
+		public String getNameAndSession() {
+			return nameAndSession;
+		}
+
+		/**
+		 * @return The sequence number of the last message heard from the
+		 * member, or -1.
+		 */
+		public long getLastSequenceNo() {
+			return lastSequenceNo;
+		}
+
+		/**
+		 * @return When the member was last heard from, in milliseconds.
+		 */
+		public double getLastSeen() {
+			return lastSeen;
+		}
+
+		/**
+		 * @return The prefix the member publishes its data under, or null if
+		 * not known.
+		 */
+		public String getDataPrefix() {
+			return dataPrefix;
+		}
+
+		public void setDataPrefix(String dataPrefix) {
+			this.dataPrefix = dataPrefix;
+		}
+
+		/**
+		 * @return The timer that checks whether the member went quiet, or
+		 * null.
+		 */
+		public TimerWheel.Timer getLivenessTimer() {
+			return livenessTimer;
+		}
+
+		public void setLivenessTimer(TimerWheel.Timer livenessTimer) {
+			this.livenessTimer = livenessTimer;
+		}
+
+		private void setSessionNo(long sessionNo) {
+			this.sessionNo = sessionNo;
+			this.nameAndSession = name + sessionNo;
+		}
+	}
+
+	public Member get(String name) {
+		return members.get(name);
+	}
+
+	/**
+	 * @return Whether name is a member in session sessionNo.
+	 */
+	public boolean contains(String name, long sessionNo) {
+		Member member = members.get(name);
+		return member != null && member.sessionNo == sessionNo;
+	}
+
+	/**
+	 * Add name in session sessionNo. It must not be a member yet.
+	 * @return The new member.
+	 */
+	public Member join(String name, long sessionNo, double now) {
+		Member member = new Member(name, sessionNo, now);
+		members.put(name, member);
+		return member;
+	}
+
+	/**
+	 * Move member to a newer session.
+	 * @return The member's previous name and session.
+	 */
+	public String updateSession(Member member, long sessionNo) {
+		String oldNameAndSession = member.nameAndSession;
+		member.setSessionNo(sessionNo);
+		member.lastSequenceNo = -1;
+		return oldNameAndSession;
+	}
+
+	/**
+	 * Note that message sequenceNo was heard from member at now.
+	 */
+	public void heard(Member member, long sequenceNo, double now) {
+		member.lastSequenceNo = Math.max(member.lastSequenceNo, sequenceNo);
+		member.lastSeen = now;
+	}
+
+	/**
+	 * Remove name if it is a member in session sessionNo, cancelling its
+	 * liveness timer.
+	 * @return Whether it was removed.
+	 */
+	public boolean leave(String name, long sessionNo) {
+		Member member = members.get(name);
+		if (member == null || member.sessionNo != sessionNo) {
+			return false;
+		}
+		members.remove(name);
+		if (member.livenessTimer != null) {
+			member.livenessTimer.cancel();
+		}
+		return true;
+	}
+
+	public int size() {
+		return members.size();
+	}
+}
@@ -0,0 +1,85 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+/**
+ * Smoothed round-trip time and retransmission timeout of one producer, as in
+ * RFC 6298: SRTT and RTTVAR are moving averages of the measured RTTs and the
+ * timeout is SRTT + 4 * RTTVAR, clamped to [minRto, maxRto]. Every timeout
+ * doubles it, up to maxRto, until the next measurement.
+ *
+ * Only measure Interests that were not retransmitted (Karn's algorithm): the
+ * Data could answer either copy.
+ */
+public class RttEstimator {
+	public static final double DEFAULT_INITIAL_RTO = 1000.0;
+	public static final double DEFAULT_MIN_RTO = 200.0;
+	public static final double DEFAULT_MAX_RTO = 5000.0;
+
+	private static final double ALPHA = 1.0 / 8;
+	private static final double BETA = 1.0 / 4;
+	private static final double K = 4;
+
+	private final double minRto;
+	private final double maxRto;
+	private double smoothedRtt = -1;
+	private double rttVariation = 0;
+	private double rto;
+
+	public RttEstimator() {
+		this(DEFAULT_INITIAL_RTO, DEFAULT_MIN_RTO, DEFAULT_MAX_RTO);
+	}
+
+	/**
+	 * All times in milliseconds.
+	 */
+	public RttEstimator(double initialRto, double minRto, double maxRto) {
+		if (minRto <= 0 || maxRto < minRto) {
+			throw new IllegalArgumentException("need 0 < minRto <= maxRto, got " + minRto + " and " + maxRto);
+		}
+		this.minRto = minRto;
+		this.maxRto = maxRto;
+		this.rto = clamp(initialRto);
+	}
+
+	public void addMeasurement(double rttMilliseconds) {
+		if (smoothedRtt < 0) {
+			smoothedRtt = rttMilliseconds;
+			rttVariation = rttMilliseconds / 2;
+		}
+		else {
+			rttVariation = (1 - BETA) * rttVariation + BETA * Math.abs(smoothedRtt - rttMilliseconds);
+			smoothedRtt = (1 - ALPHA) * smoothedRtt + ALPHA * rttMilliseconds;
+		}
+		rto = clamp(smoothedRtt + K * rttVariation);
+	}
+
+	/**
+	 * Double the timeout after one expired.
+	 */
+	public void backoff() {
+		rto = clamp(rto * 2);
+	}
+
+	/**
+	 * @return The timeout, which is also the lifetime to give the next
+	 * Interest, in milliseconds.
+	 */
+	public double getRto() {
+		return rto;
+	}
+
+	/**
+	 * @return The smoothed RTT in milliseconds, or -1 before the first
+	 * measurement.
+	 */
+	public double getSmoothedRtt() {
+		return smoothedRtt;
+	}
+
+	public double getRttVariation() {
+		return rttVariation;
+	}
+
+	private double clamp(double value) {
+		return Math.max(minRto, Math.min(maxRto, value));
+	}
+}
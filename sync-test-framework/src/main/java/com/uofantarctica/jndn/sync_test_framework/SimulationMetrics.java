@@ -0,0 +1,141 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.Clock;
+import com.uofantarctica.jndn.helpers.LatencyHistogram;
+import com.uofantarctica.jndn.helpers.SystemClock;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where the participants of a simulation report their results, and where
+ * the simulation waits for them.
+ *
+ * Participants update the counters from their own threads: receipts live as
+ * messages arrive, and their per sender totals and delivery latencies once,
+ * when they finish. Each participant sums its own per sender summaries
+ * before reporting, so the merge is spread over the participants' threads
+ * and costs the simulation little. {@link #await} returns as soon as the
+ * last participant reported or failed, or at a deadline if some never do.
+ *
+ * The first and last receipt are timed on the simulation's clock, which
+ * bounds how long the room took to deliver its messages.
+ */
+public class SimulationMetrics {
+	private final int participants;
+	private final Clock clock;
+	private final CountDownLatch finished;
+	private final LongAdder receipts = new LongAdder();
+	// Microseconds on clock.
+	private final LongAccumulator firstReceipt = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator lastReceipt = new LongAccumulator(Math::max, Long.MIN_VALUE);
+	private final LongAdder totalCount = new LongAdder();
+	private final LongAdder duplicates = new LongAdder();
+	private final LongAdder numLost = new LongAdder();
+	private final LongAdder uniqueChats = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	public SimulationMetrics(int participants) {
+		this(participants, SystemClock.INSTANCE);
+	}
+
+	/**
+	 * @param clock The clock receipts are timed on.
+	 */
+	public SimulationMetrics(int participants, Clock clock) {
+		this.participants = participants;
+		this.clock = clock;
+		this.finished = new CountDownLatch(participants);
+	}
+
+	/**
+	 * A participant received a chat message.
+	 */
+	public void messageReceived() {
+		receipts.increment();
+		long now = Chatter.toMicroseconds(clock.getNowMilliseconds());
+		firstReceipt.accumulate(now);
+		lastReceipt.accumulate(now);
+	}
+
+	/**
+	 * A participant finished, with one summary per other participant it
+	 * heard from. Each participant reports once.
+	 */
+	public void report(List<UserChatSummary> summaries) {
+		long participantTotal = 0;
+		long participantDuplicates = 0;
+		long participantLost = 0;
+		LatencyHistogram participantLatency = new LatencyHistogram();
+		for (UserChatSummary summary : summaries) {
+			participantTotal += summary.getTotalCount();
+			participantDuplicates += summary.getDuplicates();
+			participantLost += summary.getNumLost();
+			participantLatency.add(summary.getLatency());
+		}
+		synchronized (latency) {
+			latency.add(participantLatency);
+		}
+		totalCount.add(participantTotal);
+		duplicates.add(participantDuplicates);
+		numLost.add(participantLost);
+		uniqueChats.add(summaries.size());
+		finished.countDown();
+	}
+
+	/**
+	 * A participant gave up without reporting, so nobody waits for it.
+	 */
+	public void participantFailed() {
+		failed.increment();
+		finished.countDown();
+	}
+
+	/**
+	 * Wait until every participant reported or failed, or until timeout
+	 * passed.
+	 * @return Whether every participant reported or failed.
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		return finished.await(timeout, unit);
+	}
+
+	public int getNumReported() {
+		return participants - (int)finished.getCount() - getNumFailed();
+	}
+
+	public int getNumFailed() {
+		return (int)failed.sum();
+	}
+
+	/**
+	 * @return How many chat messages participants received so far,
+	 * duplicates included.
+	 */
+	public long getReceipts() {
+		return receipts.sum();
+	}
+
+	/**
+	 * @return The totals of every participant that reported so far.
+	 */
+	public UserChatSummary getSummary() {
+		UserChatSummary summary = new UserChatSummary("all participants", totalCount.sum(),
+				duplicates.sum(), numLost.sum());
+		summary.setAccumulationStats(getNumReported(), (int)uniqueChats.sum());
+		summary.setNumFailed(getNumFailed());
+		LatencyHistogram roomLatency = new LatencyHistogram();
+		synchronized (latency) {
+			roomLatency.add(latency);
+		}
+		summary.setLatency(roomLatency);
+		if (receipts.sum() > 0) {
+			summary.setReceiptWindow(firstReceipt.get() / 1000.0, lastReceipt.get() / 1000.0);
+		}
+		return summary;
+	}
+}
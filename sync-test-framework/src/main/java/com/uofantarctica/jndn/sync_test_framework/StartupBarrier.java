@@ -0,0 +1,72 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.Clock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens once every participant of a simulation has reported that its
+ * chatter is ready (see {@link Chatter#setOnReady}), and measures how long
+ * that took on the simulation's clock.
+ */
+public class StartupBarrier {
+	private final int participants;
+	private final Clock clock;
+	private final double startTime;
+	private final AtomicInteger ready = new AtomicInteger(0);
+	private final List<Runnable> onOpen = new ArrayList<>();
+	private volatile double startupLatencyMilliseconds = -1;
+
+	public StartupBarrier(int participants, Clock clock) {
+		this.participants = participants;
+		this.clock = clock;
+		this.startTime = clock.getNowMilliseconds();
+	}
+
+	public void participantReady() {
+		if (ready.incrementAndGet() != participants) {
+			return;
+		}
+		List<Runnable> toRun;
+		synchronized (onOpen) {
+			startupLatencyMilliseconds = clock.getNowMilliseconds() - startTime;
+			toRun = new ArrayList<>(onOpen);
+			onOpen.clear();
+		}
+		for (Runnable r : toRun) {
+			r.run();
+		}
+	}
+
+	public boolean isOpen() {
+		return startupLatencyMilliseconds >= 0;
+	}
+
+	/**
+	 * Run r once the barrier opens, on the thread that opens it, or right
+	 * away if it is already open.
+	 */
+	public void whenOpen(Runnable r) {
+		synchronized (onOpen) {
+			if (!isOpen()) {
+				onOpen.add(r);
+				return;
+			}
+		}
+		r.run();
+	}
+
+	public int getNumReady() {
+		return ready.get();
+	}
+
+	/**
+	 * @return Milliseconds from creating the barrier until the last
+	 * participant was ready, or -1 if not all of them are ready (yet).
+	 */
+	public double getStartupLatencyMilliseconds() {
+		return startupLatencyMilliseconds;
+	}
+}
@@ -0,0 +1,274 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The measured trials of one point of a {@link SweepRunner} grid, with the
+ * mean and the 95% confidence interval of every {@link Metric} over them.
+ */
+public class SweepResult {
+	public enum Metric {
+		/** Unique messages delivered per second, from first to last receipt. */
+		THROUGHPUT("throughput_msgs_per_s"),
+		/** Milliseconds from starting the simulation to the last receipt. */
+		COMPLETION_TIME("completion_ms"),
+		DELIVERED("delivered"),
+		LOST("lost"),
+		DUPLICATES("duplicates"),
+		LATENCY_P50("latency_p50_ms"),
+		LATENCY_P99("latency_p99_ms"),
+		STARTUP_LATENCY("startup_ms"),
+		/**
+		 * Interests and Data through the in-process forwarder, sync included,
+		 * per message delivered.
+		 */
+		PACKETS_PER_MESSAGE("packets_per_message");
+
+		private final String column;
+
+		Metric(String column) {
+			this.column = column;
+		}
+
+		public String getColumn() {
+			return column;
+		}
+	}
+
+	// Two sided 95% quantiles of Student's t for 1 to 30 degrees of freedom.
+	private static final double[] T_95 = {
+		12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+		2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+		2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+	};
+	private static final double Z_95 = 1.960;
+
+	private final int participants;
+	private final int numMessages;
+	private final double messageRate;
+	private final String variant;
+	private final List<double[]> trials = new ArrayList<>();
+	private final List<Long> workloadSeeds = new ArrayList<>();
+
+	public SweepResult(int participants, int numMessages, double messageRate, String variant) {
+		this.participants = participants;
+		this.numMessages = numMessages;
+		this.messageRate = messageRate;
+		this.variant = variant;
+	}
+
+	/**
+	 * Add the trial that ran for completionMilliseconds and ended with summary.
+	 */
+	public void addTrial(UserChatSummary summary, double completionMilliseconds) {
+		double[] values = new double[Metric.values().length];
+		long delivered = summary.getTotalCount() - summary.getDuplicates();
+		double receiptSeconds = (summary.getLastReceiptMilliseconds() - summary.getFirstReceiptMilliseconds()) / 1000.0;
+		values[Metric.THROUGHPUT.ordinal()] = receiptSeconds > 0 ? delivered / receiptSeconds : Double.NaN;
+		values[Metric.COMPLETION_TIME.ordinal()] = completionMilliseconds;
+		values[Metric.DELIVERED.ordinal()] = delivered;
+		values[Metric.LOST.ordinal()] = Math.abs(summary.getNumLost());
+		values[Metric.DUPLICATES.ordinal()] = summary.getDuplicates();
+		values[Metric.LATENCY_P50.ordinal()] = summary.getLatency().getValueAtPercentile(50) / 1e3;
+		values[Metric.LATENCY_P99.ordinal()] = summary.getLatency().getValueAtPercentile(99) / 1e3;
+		double startup = summary.getStartupLatencyMilliseconds();
+		values[Metric.STARTUP_LATENCY.ordinal()] = startup >= 0 ? startup : Double.NaN;
+		long packets = summary.getForwardedInterests() + summary.getForwardedData();
+		values[Metric.PACKETS_PER_MESSAGE.ordinal()] = summary.getForwardedInterests() >= 0 && delivered > 0 ?
+			(double)packets / delivered : Double.NaN;
+		trials.add(values);
+		workloadSeeds.add(summary.hasWorkloadSeed() ? summary.getWorkloadSeed() : null);
+	}
+
+	/**
+	 * A trial whose simulation never got as far as a summary, drawn from
+	 * workloadSeed.
+	 */
+	public void addFailedTrial(long workloadSeed) {
+		double[] values = new double[Metric.values().length];
+		Arrays.fill(values, Double.NaN);
+		trials.add(values);
+		workloadSeeds.add(workloadSeed);
+	}
+
+	public int getParticipants() {
+		return participants;
+	}
+
+	public int getNumMessages() {
+		return numMessages;
+	}
+
+	public double getMessageRate() {
+		return messageRate;
+	}
+
+	public String getVariant() {
+		return variant;
+	}
+
+	public int getNumTrials() {
+		return trials.size();
+	}
+
+	/**
+	 * @return The workload seed of every trial in order, null where a trial
+	 * did not report it.
+	 */
+	public List<Long> getWorkloadSeeds() {
+		return Collections.unmodifiableList(workloadSeeds);
+	}
+
+	/**
+	 * @return metric of every trial in order, NaN where a trial could not
+	 * tell.
+	 */
+	public List<Double> getValues(Metric metric) {
+		List<Double> values = new ArrayList<>(trials.size());
+		for (double[] trial : trials) {
+			values.add(trial[metric.ordinal()]);
+		}
+		return Collections.unmodifiableList(values);
+	}
+
+	/**
+	 * @return The mean of metric over the trials that tell it, or NaN.
+	 */
+	public double getMean(Metric metric) {
+		double sum = 0;
+		int n = 0;
+		for (double[] trial : trials) {
+			double value = trial[metric.ordinal()];
+			if (!Double.isNaN(value)) {
+				sum += value;
+				++n;
+			}
+		}
+		return n > 0 ? sum / n : Double.NaN;
+	}
+
+	/**
+	 * @return Half the width of the 95% confidence interval of the mean of
+	 * metric, from Student's t distribution, or NaN with fewer than two
+	 * trials that tell it.
+	 */
+	public double getConfidenceInterval(Metric metric) {
+		double mean = getMean(metric);
+		double squares = 0;
+		int n = 0;
+		for (double[] trial : trials) {
+			double value = trial[metric.ordinal()];
+			if (!Double.isNaN(value)) {
+				squares += (value - mean) * (value - mean);
+				++n;
+			}
+		}
+		if (n < 2) {
+			return Double.NaN;
+		}
+		double t = n - 1 <= T_95.length ? T_95[n - 2] : Z_95;
+		return t * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+	}
+
+	/**
+	 * Write results as CSV, one row per point with the mean and confidence
+	 * interval of every metric, and last the trials' workload seeds
+	 * separated by semicolons.
+	 */
+	public static void writeCsv(List<SweepResult> results, Appendable out) throws IOException {
+		out.append("participants,num_messages,message_rate,variant,trials");
+		for (Metric metric : Metric.values()) {
+			out.append(',').append(metric.getColumn()).append(',').append(metric.getColumn()).append("_ci95");
+		}
+		out.append(",workload_seeds\n");
+		for (SweepResult result : results) {
+			out.append(Integer.toString(result.participants)).append(',')
+				.append(Integer.toString(result.numMessages)).append(',')
+				.append(format(result.messageRate)).append(',')
+				.append(quoteCsv(result.variant)).append(',')
+				.append(Integer.toString(result.getNumTrials()));
+			for (Metric metric : Metric.values()) {
+				out.append(',').append(format(result.getMean(metric)))
+					.append(',').append(format(result.getConfidenceInterval(metric)));
+			}
+			out.append(',');
+			for (int j = 0; j < result.workloadSeeds.size(); ++j) {
+				Long seed = result.workloadSeeds.get(j);
+				out.append(j > 0 ? ";" : "").append(seed != null ? seed.toString() : "");
+			}
+			out.append('\n');
+		}
+	}
+
+	/**
+	 * Write results as a JSON array, one object per point with the trials'
+	 * workload seeds and the mean, confidence interval and per trial values
+	 * of every metric.
+	 */
+	public static void writeJson(List<SweepResult> results, Appendable out) throws IOException {
+		out.append("[\n");
+		for (int i = 0; i < results.size(); ++i) {
+			SweepResult result = results.get(i);
+			out.append("  {\"participants\": ").append(Integer.toString(result.participants))
+				.append(", \"num_messages\": ").append(Integer.toString(result.numMessages))
+				.append(", \"message_rate\": ").append(formatJson(result.messageRate))
+				.append(", \"variant\": ").append(quoteJson(result.variant))
+				.append(", \"trials\": ").append(Integer.toString(result.getNumTrials()))
+				.append(", \"workload_seeds\": [");
+			for (int j = 0; j < result.workloadSeeds.size(); ++j) {
+				Long seed = result.workloadSeeds.get(j);
+				out.append(j > 0 ? ", " : "").append(seed != null ? seed.toString() : "null");
+			}
+			out.append("]");
+			for (Metric metric : Metric.values()) {
+				out.append(",\n    \"").append(metric.getColumn()).append("\": {\"mean\": ")
+					.append(formatJson(result.getMean(metric))).append(", \"ci95\": ")
+					.append(formatJson(result.getConfidenceInterval(metric))).append(", \"values\": [");
+				List<Double> values = result.getValues(metric);
+				for (int j = 0; j < values.size(); ++j) {
+					out.append(j > 0 ? ", " : "").append(formatJson(values.get(j)));
+				}
+				out.append("]}");
+			}
+			out.append("}").append(i + 1 < results.size() ? ",\n" : "\n");
+		}
+		out.append("]\n");
+	}
+
+	private static String format(double value) {
+		return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	private static String formatJson(double value) {
+		return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	private static String quoteCsv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private static String quoteJson(String value) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); ++i) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				quoted.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
@@ -0,0 +1,250 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.LoopbackForwarder;
+import com.uofantarctica.jndn.helpers.LoopbackTransportFactory;
+import com.uofantarctica.jndn.helpers.TransportConfiguration;
+import com.uofantarctica.jndn.helpers.VirtualClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs a {@link ChatSimulation} for every point of a grid of room sizes,
+ * message counts, message rates and named variants of the configuration,
+ * all in one JVM: warmup trials first, whose results are dropped, then the
+ * measured trials, summarized per point in a {@link SweepResult}.
+ *
+ * Every trial gets a fresh builder from the base configuration, so a base
+ * configuration that runs in virtual time must build a new clock and
+ * forwarder each time. Each trial also chats in its own room, so sync state
+ * a forwarder still holds from an earlier trial cannot leak into it.
+ *
+ * A variant is any change to the builder, e.g. the signing algorithm:
+ * <pre>
+ * new SweepRunner(base).withVariant("hmac", b -&gt; b.withSigningAlgorithm(SigningAlgorithm.HMAC_SHA256))
+ * </pre>
+ */
+public class SweepRunner {
+	private static final Logger log = LoggerFactory.getLogger(SweepRunner.class);
+	public static final String DEFAULT_VARIANT = "default";
+
+	private final Supplier<ChatSimulationBuilder> baseConfiguration;
+	private int[] participants = {2};
+	private int[] numMessages = {10};
+	private double[] messageRates = {0};
+	private final Map<String, Consumer<ChatSimulationBuilder>> variants = new LinkedHashMap<>();
+	private int warmupTrials = 1;
+	private int trials = 5;
+	private int trialsRun = 0;
+
+	/**
+	 * @param baseConfiguration Makes the builder every trial starts from, with
+	 * everything but the grid's parameters set.
+	 */
+	public SweepRunner(Supplier<ChatSimulationBuilder> baseConfiguration) {
+		this.baseConfiguration = baseConfiguration;
+	}
+
+	public SweepRunner withParticipants(int... participants) {
+		this.participants = participants.clone();
+		return this;
+	}
+
+	public SweepRunner withNumMessages(int... numMessages) {
+		this.numMessages = numMessages.clone();
+		return this;
+	}
+
+	/**
+	 * See {@link ChatSimulationBuilder#withMessageRate(double)}.
+	 */
+	public SweepRunner withMessageRates(double... messageRates) {
+		this.messageRates = messageRates.clone();
+		return this;
+	}
+
+	/**
+	 * Also run every point with customizer applied to the builder, reported
+	 * as name. Without variants every point runs once, as "default".
+	 */
+	public SweepRunner withVariant(String name, Consumer<ChatSimulationBuilder> customizer) {
+		variants.put(name, customizer);
+		return this;
+	}
+
+	/**
+	 * Also run every point on each of syncs, names registered with
+	 * {@link SyncFactories}, each reported as its name. Names joined with
+	 * "+" run one room mixed from those syncs.
+	 */
+	public SweepRunner withSyncs(String... syncs) {
+		for (String sync : syncs) {
+			String[] names = sync.split("\\+");
+			final SyncFactory[] factories = new SyncFactory[names.length];
+			for (int i = 0; i < names.length; ++i) {
+				factories[i] = SyncFactories.get(names[i].trim());
+			}
+			withVariant(sync, builder -> builder.withSync(factories));
+		}
+		return this;
+	}
+
+	/**
+	 * How many trials of each point run before the measured ones, to warm up
+	 * the JIT and the key caches. 1 by default.
+	 */
+	public SweepRunner withWarmupTrials(int warmupTrials) {
+		this.warmupTrials = warmupTrials;
+		return this;
+	}
+
+	/**
+	 * How many measured trials run per point, 5 by default.
+	 */
+	public SweepRunner withTrials(int trials) {
+		this.trials = trials;
+		return this;
+	}
+
+	/**
+	 * Run the whole grid.
+	 * @return One result per point, room sizes varying slowest and variants
+	 * fastest.
+	 */
+	public List<SweepResult> run() {
+		if (warmupTrials < 0 || trials <= 0) {
+			throw new IllegalStateException("need warmup trials >= 0 and trials > 0, got " + warmupTrials +
+					" and " + trials);
+		}
+		Map<String, Consumer<ChatSimulationBuilder>> runVariants = new LinkedHashMap<>(variants);
+		if (runVariants.isEmpty()) {
+			runVariants.put(DEFAULT_VARIANT, builder -> { });
+		}
+
+		List<SweepResult> results = new ArrayList<>();
+		for (int roomSize : participants) {
+			for (int messages : numMessages) {
+				for (double messageRate : messageRates) {
+					for (Map.Entry<String, Consumer<ChatSimulationBuilder>> variant : runVariants.entrySet()) {
+						SweepResult result = new SweepResult(roomSize, messages, messageRate, variant.getKey());
+						for (int trial = 0; trial < warmupTrials; ++trial) {
+							runTrial(result, variant.getValue(), false);
+						}
+						for (int trial = 0; trial < trials; ++trial) {
+							runTrial(result, variant.getValue(), true);
+						}
+						log.info(String.format("%d participants, %d messages, rate %.1f, %s: %.1f msgs/s +- %.1f, " +
+								"completion %.0f ms +- %.0f, lost %.1f, duplicates %.1f, p99 latency %.1f ms, " +
+								"packets per message %.1f", roomSize, messages, messageRate,
+								variant.getKey(), result.getMean(SweepResult.Metric.THROUGHPUT),
+								result.getConfidenceInterval(SweepResult.Metric.THROUGHPUT),
+								result.getMean(SweepResult.Metric.COMPLETION_TIME),
+								result.getConfidenceInterval(SweepResult.Metric.COMPLETION_TIME),
+								result.getMean(SweepResult.Metric.LOST), result.getMean(SweepResult.Metric.DUPLICATES),
+								result.getMean(SweepResult.Metric.LATENCY_P99),
+								result.getMean(SweepResult.Metric.PACKETS_PER_MESSAGE)));
+						results.add(result);
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	private void runTrial(SweepResult result, Consumer<ChatSimulationBuilder> variant, boolean measured) {
+		ChatSimulationBuilder builder = baseConfiguration.get()
+				.withNumParticipants(result.getParticipants())
+				.withNumMessages(result.getNumMessages())
+				.withMessageRate(result.getMessageRate());
+		variant.accept(builder);
+		builder.withChatRoom(builder.chatRoom + "-sweep" + trialsRun++);
+
+		double start = builder.clock.getNowMilliseconds();
+		UserChatSummary summary = builder.build().simulate();
+		if (!measured) {
+			return;
+		}
+		if (summary == null) {
+			log.error("a trial of " + result.getParticipants() + " participants, " + result.getNumMessages() +
+					" messages failed.");
+			result.addFailedTrial(builder.workloadSeed);
+			return;
+		}
+		result.addTrial(summary, summary.getLastReceiptMilliseconds() - start);
+	}
+
+	/**
+	 * Run a sweep over the in-process forwarder and write it to
+	 * &lt;out&gt;.csv and &lt;out&gt;.json. The grid comes from the comma
+	 * separated system properties participants, numMessages and messageRates,
+	 * and syncs to compare sync implementations, see {@link #withSyncs};
+	 * warmup, trials and out (default "sweep") set the rest. Runs in virtual
+	 * time unless virtualTime is false.
+	 */
+	public static void main(String[] args) throws IOException {
+		final boolean virtualTime = Boolean.parseBoolean(System.getProperty("virtualTime", "true"));
+		SweepRunner sweep = new SweepRunner(() -> {
+			ChatSimulationBuilder builder = ChatSimulationBuilder.aChatSimulation()
+					.withScreenName("scratchy")
+					.withHubPrefix("/ndn/broadcast/chat-room")
+					.withChatRoom("ndnchat")
+					.withBroadcastBaseName("/ndn/broadcast/sync-simulation-test");
+			if (virtualTime) {
+				VirtualClock clock = new VirtualClock();
+				TransportConfiguration.setTransportFactory(new LoopbackTransportFactory(new LoopbackForwarder(clock)));
+				builder.withClock(clock).withExecutionMode(ExecutionMode.EVENT_DRIVEN);
+			}
+			else {
+				TransportConfiguration.setTransportFactory(new LoopbackTransportFactory());
+			}
+			return builder;
+		})
+				.withParticipants(parseInts(System.getProperty("participants", "2,4,8")))
+				.withNumMessages(parseInts(System.getProperty("numMessages", "10")))
+				.withMessageRates(parseDoubles(System.getProperty("messageRates", "0")))
+				.withWarmupTrials(Integer.getInteger("warmup", 1))
+				.withTrials(Integer.getInteger("trials", 5));
+		String syncs = System.getProperty("syncs");
+		if (syncs != null) {
+			sweep.withSyncs(syncs.split(","));
+		}
+		List<SweepResult> results = sweep.run();
+
+		String out = System.getProperty("out", "sweep");
+		try (Writer csv = new FileWriter(out + ".csv")) {
+			SweepResult.writeCsv(results, csv);
+		}
+		try (Writer json = new FileWriter(out + ".json")) {
+			SweepResult.writeJson(results, json);
+		}
+		log.info("wrote " + out + ".csv and " + out + ".json");
+		System.exit(0);
+	}
+
+	private static int[] parseInts(String values) {
+		String[] split = values.split(",");
+		int[] parsed = new int[split.length];
+		for (int i = 0; i < split.length; ++i) {
+			parsed[i] = Integer.parseInt(split[i].trim());
+		}
+		return parsed;
+	}
+
+	private static double[] parseDoubles(String values) {
+		String[] split = values.split(",");
+		double[] parsed = new double[split.length];
+		for (int i = 0; i < split.length; ++i) {
+			parsed[i] = Double.parseDouble(split[i].trim());
+		}
+		return parsed;
+	}
+}
@@ -1,10 +1,6 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
 public class Switches {
-	public static boolean useNewSyncImpl() {
-		return true;
-	}
-
 	public static boolean alwaysDisplayReceivedMessages() {
 		return true;
 	}
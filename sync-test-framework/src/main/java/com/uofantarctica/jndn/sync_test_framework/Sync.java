@@ -50,4 +50,14 @@ public class Sync implements SyncAdapter {
 	public long getSequenceNo() {
 		return 0;
 	}
+
+	@Override
+	public int getNumProducers() {
+		return -1;
+	}
+
+	@Override
+	public boolean deliversData() {
+		return true;
+	}
 }
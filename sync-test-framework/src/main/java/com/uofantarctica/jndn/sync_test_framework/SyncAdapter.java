@@ -7,4 +7,19 @@ public interface SyncAdapter {
 	long getProducerSequenceNo(String prefix_, long sessionNo_);
 	void publishNextSequenceNo();
 	long getSequenceNo();
+
+	/**
+	 * @return How many producers (including this one) the sync knows about,
+	 * or -1 if the implementation cannot tell.
+	 */
+	int getNumProducers();
+
+	/**
+	 * @return Whether the sync hands the chatter every message's Data
+	 * itself. If not, it only spreads sequence numbers and the chatter
+	 * fetches the chat Data, and answers for its own.
+	 */
+	default boolean deliversData() {
+		return false;
+	}
 }
@@ -0,0 +1,44 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import net.named_data.jndn.Face;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.security.KeyChain;
+
+/**
+ * What a {@link SyncFactory} gets to build a chatter's sync from.
+ */
+public class SyncContext {
+	/**
+	 * The chatter the sync reports to: it is the OnReceivedSyncState,
+	 * OnInitialized and OnData for the new sync.
+	 */
+	public final Chatter chatter;
+	public final Name hubPrefix;
+	public final String chatRoom;
+	public final String screenName;
+	/** The prefix this chatter publishes its chat Data under. */
+	public final Name chatPrefix;
+	/** The multicast prefix sync Interests go out on. */
+	public final Name broadcastPrefix;
+	public final int session;
+	public final Face face;
+	public final KeyChain keyChain;
+	public final Name certificateName;
+	public final double syncLifetimeMilliseconds;
+
+	public SyncContext(Chatter chatter, Name hubPrefix, String chatRoom, String screenName, Name chatPrefix,
+	                   Name broadcastPrefix, int session, Face face, KeyChain keyChain, Name certificateName,
+	                   double syncLifetimeMilliseconds) {
+		this.chatter = chatter;
+		this.hubPrefix = hubPrefix;
+		this.chatRoom = chatRoom;
+		this.screenName = screenName;
+		this.chatPrefix = chatPrefix;
+		this.broadcastPrefix = broadcastPrefix;
+		this.session = session;
+		this.face = face;
+		this.keyChain = keyChain;
+		this.certificateName = certificateName;
+		this.syncLifetimeMilliseconds = syncLifetimeMilliseconds;
+	}
+}
@@ -0,0 +1,98 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The sync implementations a simulation can run on, by name, so one session
+ * can run the same workload against each of them:
+ * <pre>
+ * for (String name : SyncFactories.getNames()) {
+ *     sweep.withVariant(name, b -&gt; b.withSync(SyncFactories.get(name)));
+ * }
+ * </pre>
+ * "chronosync" and "dsync" are registered from the start; register others
+ * before building the simulations that use them.
+ */
+public final class SyncFactories {
+	/**
+	 * ChronoSync2013 from jndn: the sync only spreads sequence numbers, and
+	 * each chatter fetches the chat Data and answers for its own.
+	 */
+	public static final SyncFactory CHRONOSYNC = context -> new ChronoSyncClassic(
+		context.chatter,
+		context.chatter,
+		context.chatPrefix,
+		context.broadcastPrefix,
+		context.session,
+		context.face,
+		context.keyChain,
+		context.certificateName,
+		context.syncLifetimeMilliseconds,
+		Chatter.RegisterFailed.onRegisterFailed_);
+
+	/**
+	 * DSync: the sync hands every chatter the chat Data itself.
+	 */
+	public static final SyncFactory DSYNC = context -> new Sync(
+		context.chatter,
+		context.chatter,
+		context.hubPrefix + "/" + context.chatRoom,
+		context.broadcastPrefix.toUri(),
+		context.session,
+		context.face,
+		context.keyChain,
+		context.chatRoom,
+		context.screenName);
+
+	// The system property naming the sync simulations use unless they are
+	// built with another.
+	public static final String DEFAULT_PROPERTY = "sync";
+	public static final String DEFAULT_NAME = "dsync";
+
+	private static final Map<String, SyncFactory> registry = new LinkedHashMap<>();
+
+	static {
+		register("chronosync", CHRONOSYNC);
+		register(DEFAULT_NAME, DSYNC);
+	}
+
+	private SyncFactories() {
+	}
+
+	/**
+	 * Make factory available as name, replacing any factory registered as
+	 * name before.
+	 */
+	public static synchronized void register(String name, SyncFactory factory) {
+		registry.put(name, factory);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if nothing is registered as name.
+	 */
+	public static synchronized SyncFactory get(String name) {
+		SyncFactory factory = registry.get(name);
+		if (factory == null) {
+			throw new IllegalArgumentException("no sync registered as " + name + ", only " + registry.keySet());
+		}
+		return factory;
+	}
+
+	/**
+	 * @return The registered names, in the order they were registered.
+	 */
+	public static synchronized List<String> getNames() {
+		return Collections.unmodifiableList(new ArrayList<>(registry.keySet()));
+	}
+
+	/**
+	 * @return The sync the system property "sync" names, or DSync.
+	 */
+	public static SyncFactory getDefault() {
+		return get(System.getProperty(DEFAULT_PROPERTY, DEFAULT_NAME));
+	}
+}
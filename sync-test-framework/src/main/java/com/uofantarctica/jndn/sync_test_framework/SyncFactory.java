@@ -0,0 +1,20 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+/**
+ * Makes the sync a {@link Chatter} publishes through and learns about the
+ * rest of the room from. Chatters build theirs while they are constructed,
+ * so a factory must not call back into the chatter yet. See
+ * {@link SyncFactories} for the implementations and their names.
+ */
+public interface SyncFactory {
+	SyncAdapter newSync(SyncContext context) throws Exception;
+
+	/**
+	 * @return Whether chatters on this factory's syncs hear chatters on
+	 * other's. Simulations only expect messages to cross between syncs that
+	 * do; by default only between syncs from the same factory.
+	 */
+	default boolean interoperatesWith(SyncFactory other) {
+		return other == this;
+	}
+}
@@ -0,0 +1,142 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import net.named_data.jndn.Name;
+import net.named_data.jndn.sync.ChronoSync2013;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces a batch of sync states to the newest sequence number per producer,
+ * where a producer is a data prefix and session, in the order producers first
+ * appear in the batch.
+ *
+ * Coalescing is one hash lookup per sync state. The parsed prefix Name of every
+ * producer is kept across batches, and batch entries are reused, so a batch
+ * only allocates when a producer is new or the batch is larger than any
+ * before it.
+ *
+ * Not thread safe: a chatter only uses it from the thread pumping its face.
+ */
+public class SyncStateCoalescer {
+	private final Map<String, Prefix> prefixes = new HashMap<>();
+	private final List<Entry> entries = new ArrayList<>();
+	private int size = 0;
+	private int batch = 0;
+
+	/**
+	 * Coalesce syncStates, skipping producers whose data prefix ends with
+	 * ignoredLastComponent. The result is available through the getters until
+	 * the next call.
+	 * @return The number of producers in the result.
+	 */
+	public int coalesce(List syncStates, String ignoredLastComponent) {
+		++batch;
+		size = 0;
+		for (int i = 0; i < syncStates.size(); ++i) {
+			ChronoSync2013.SyncState syncState = (ChronoSync2013.SyncState)syncStates.get(i);
+			Prefix prefix = getPrefix(syncState.getDataPrefix());
+			if (prefix.lastComponent.equals(ignoredLastComponent)) {
+				continue;
+			}
+			long sessionNo = syncState.getSessionNo();
+			long sequenceNo = syncState.getSequenceNo();
+
+			Entry entry = prefix.batch == batch ? prefix.first : null;
+			Entry last = null;
+			while (entry != null && entry.sessionNo != sessionNo) {
+				last = entry;
+				entry = entry.nextSession;
+			}
+			if (entry != null) {
+				entry.sequenceNo = Math.max(entry.sequenceNo, sequenceNo);
+				continue;
+			}
+
+			entry = nextEntry();
+			entry.prefix = prefix;
+			entry.sessionNo = sessionNo;
+			entry.sequenceNo = sequenceNo;
+			entry.nextSession = null;
+			if (last != null) {
+				last.nextSession = entry;
+			}
+			else {
+				prefix.batch = batch;
+				prefix.first = entry;
+			}
+		}
+		return size;
+	}
+
+	public String getDataPrefix(int i) {
+		return entries.get(i).prefix.uri;
+	}
+
+	/**
+	 * @return The parsed data prefix. Shared between batches, so copy it
+	 * before changing it.
+	 */
+	public Name getPrefixName(int i) {
+		return entries.get(i).prefix.name;
+	}
+
+	public long getSessionNo(int i) {
+		return entries.get(i).sessionNo;
+	}
+
+	public long getSequenceNo(int i) {
+		return entries.get(i).sequenceNo;
+	}
+
+	/**
+	 * @return The name of the chat Data with the given session and sequence
+	 * number under producer i's prefix, as the producer expects it.
+	 */
+	public Name makeDataName(int i, long sequenceNo) {
+		return makeDataName(getPrefixName(i), getSessionNo(i), sequenceNo);
+	}
+
+	public static Name makeDataName(Name prefixName, long sessionNo, long sequenceNo) {
+		return new Name(prefixName).append(Long.toString(sessionNo)).append(Long.toString(sequenceNo));
+	}
+
+	private Prefix getPrefix(String uri) {
+		Prefix prefix = prefixes.get(uri);
+		if (prefix == null) {
+			prefix = new Prefix(uri);
+			prefixes.put(uri, prefix);
+		}
+		return prefix;
+	}
+
+	private Entry nextEntry() {
+		if (size == entries.size()) {
+			entries.add(new Entry());
+		}
+		return entries.get(size++);
+	}
+
+	private static class Prefix {
+		final String uri;
+		final Name name;
+		final String lastComponent;
+		int batch = 0;
+		Entry first;
+
+		Prefix(String uri) {
+			this.uri = uri;
+			this.name = new Name(uri);
+			this.lastComponent = name.get(-1).toEscapedString();
+		}
+	}
+
+	private static class Entry {
+		Prefix prefix;
+		long sessionNo;
+		long sequenceNo;
+		Entry nextSession;
+	}
+}
@@ -1,8 +1,19 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.SigningStrategy;
+import com.uofantarctica.jndn.helpers.TimerWheel;
+
 public interface TestChat extends Chat {
 	void setTestContext(ChronoChatUser cu, int numMessages, int
 		participantNo, int participants, String baseScreenName);
-	void submitStats(SyncQueue queue, int numMessages);
-	long getChatDelayTime();
+	void submitStats(SimulationMetrics metrics, int numMessages);
+	void sendMessage(String chatMessage, double sentMilliseconds);
+	void setOnReady(int roomSize, Runnable onReady);
+	void setSigningStrategy(SigningStrategy signingStrategy);
+	void configure(ChatterOptions options);
+	MessageCache<?> getMessageCache();
+	long getDataEncodings();
+	long getDataAnsweredFromBytes();
+	FetchPipeline getFetchPipeline();
+	TimerWheel getTimerWheel();
 }
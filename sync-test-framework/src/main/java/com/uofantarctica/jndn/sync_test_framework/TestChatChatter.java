@@ -1,115 +1,101 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.LatencyHistogram;
 import net.named_data.jndn.Face;
-import net.named_data.jndn.Interest;
 import net.named_data.jndn.Name;
 import net.named_data.jndn.security.KeyChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.Arrays;
 
 public class TestChatChatter extends Chatter implements TestChat {
 	private static final Logger log = LoggerFactory.getLogger(TestChatChatter.class);
 
-	protected static Random rand = new Random();
-
 	protected int particpantNo;
 	protected int participants;
+	protected ReceiptMatrix receipts;
+	protected SimulationMetrics metrics;
+	// Delivery latencies in microseconds, by producer id in receipts.
+	protected LatencyHistogram[] latencies = new LatencyHistogram[0];
+	// The screen name of every participant, and how many messages each sends.
+	protected String[] participantScreenNames = new String[0];
+	protected int[] messagesPerParticipant;
+	// The most messages any participant sends.
+	protected int maxMessages;
+	protected ChatterOptions options;
 
 	public TestChatChatter(String screenName, String broadcastBaseName, String chatRoom, Name hubPrefix, Face face,
-	                       KeyChain keyChain, Name certificateName, List<Interest> interestsExpressed) {
-		super(screenName, broadcastBaseName, chatRoom, hubPrefix, face, keyChain, certificateName, interestsExpressed);
+	                       KeyChain keyChain, Name certificateName, EventRecorder eventRecorder,
+	                       SyncFactory syncFactory) {
+		super(screenName, broadcastBaseName, chatRoom, hubPrefix, face, keyChain, certificateName, eventRecorder,
+			syncFactory);
 	}
 
 	@Override
 	public void recordMessageReceipt(String from, String msg) {
-		incMessage(from, msg);
+		incMessage(from, ChronoChatUser.unpadMessage(msg));
 	}
 
-	public long getChatDelayTime() {
-		int range = 10;
-		int interval = 10;
-		// 1 <= n <= range
-		int n = rand.nextInt(range) + 1;
-
-		//(1 * interval) ms <= chatDelayTime <= (range * interval) ms
-		long chatDelayTime = (long) n * interval;
-		return chatDelayTime;
+	@Override
+	public void configure(ChatterOptions options) {
+		super.configure(options);
+		this.options = options;
+		messagesPerParticipant = options.messagesPerParticipant;
 	}
 
+	@Override
+	protected void recordDeliveryLatency(String from, long latencyMicroseconds) {
+		Roster.Member member = roster_.get(from);
+		int producer = member != null ? receipts.getProducer(member.getNameAndSession()) : -1;
+		if (producer < 0) {
+			return;
+		}
+		if (producer >= latencies.length) {
+			latencies = Arrays.copyOf(latencies, Math.max(producer + 1, latencies.length * 2));
+		}
+		if (latencies[producer] == null) {
+			latencies[producer] = new LatencyHistogram();
+		}
+		latencies[producer].record(latencyMicroseconds);
+	}
 
 	private void incMessage(String name, String message){
-		if (name.contains(userName_)) {
+		if (name.equals(screenName_)) {
 			log.error( "Not " +
 				"incrementing message to myself, it is me. I am: " +
 				userName_ + "and I " + "tried to inc message from: " + name);
 			return;
 		}
-		Map<String, Integer> aChatLog = getUserChatLogFromUserName(name);
-		if (aChatLog == null) {
+		// Receipts are filed under the name and session the roster has for
+		// the sender.
+		Roster.Member member = roster_.get(name);
+		if (member == null || !receipts.record(member.getNameAndSession(), message)) {
 			log.error( "Asked " +
-				"for participant who was not in the map, illegal call: " +
-				name);
-			log.error( "Valid " +
-				"participants");
-
-			System.exit(1);
-		}
-		incMessageOnLog(message, aChatLog);
-	}
-
-	public static void incMessageOnLog(String message, Map<String, Integer> aChatLog) {
-		aChatLog.put(message, aChatLog.get(message) + 1);
-	}
-
-	private Map<String, Integer> getUserChatLogFromUserName(String name) {
-		String theKey = getUsersKeyFromUserName(name);
-		return userByMessageByMessageCount.get(theKey);
-	}
-
-	private String getUsersKeyFromUserName(String name) {
-		String theKey = "";
-		boolean found = false;
-		for ( String key : userByMessageByMessageCount.keySet() ) {
-			if (key.contains(name)) {
-				theKey = key;
-				found = true;
-				break;
-			}
-		}
-		if (!found) {
-			log.error(
-				"Couldn't find user with name: " + name);
+				"for participant or message that was not in the receipts, illegal call: " +
+				name + " " + message);
 			System.exit(1);
 		}
-		return theKey;
+		metrics.messageReceived();
 	}
 
 	@Override
 	public void setTestContext(ChronoChatUser cu, int numMessages, int
 		participantNo, int participants, String baseScreenName) {
-		ArrayList<String> messages = cu.getMessages(numMessages);
-		this.aChatLog = initChatLog(messages);
+		this.receipts = new ReceiptMatrix(ChronoChatUser::getMessageIndex);
+		this.maxMessages = numMessages;
+		this.metrics = cu.getMetrics();
 		this.particpantNo = participantNo;
 		this.participants = participants;
+		this.participantScreenNames = new String[participants];
+		for (int i = 0; i < participants; ++i) {
+			participantScreenNames[i] = ChronoChatUser.generateScreenName(baseScreenName, i);
+		}
 
 		addUser(userName_);
 	}
 
-	public static Map<String, Integer> initChatLog(ArrayList<String> messages) {
-		Map<String, Integer> aChatLog = new HashMap<>();
-		for (String m : messages) {
-			aChatLog.put(m, 0);
-		}
-		return aChatLog;
-	}
-
 	@Override
 	public void updateUser(String oldName, String newName) {
 		if (oldName.equals(newName)) {
@@ -119,119 +105,151 @@ public class TestChatChatter extends Chatter implements TestChat {
 
 		log.debug( "update user. " +
 			"oldName" + oldName + ", new name: " + newName);
-		Map<String, Integer> aChatLog = userByMessageByMessageCount.get(oldName);
-		if (aChatLog != null) {
+		if (receipts.rename(oldName, newName)) {
 			log.debug( "proper use of updateUser?");
-			userByMessageByMessageCount.put(newName, copyAChatLog(aChatLog));
-			userByMessageByMessageCount.remove(oldName);
 		}
 		else {
 			log.debug( "need to " +
-				"figure out what to do with updateUser, there was no userByMessageByMessageCount " +
+				"figure out what to do with updateUser, there were no receipts " +
 				"for them");
 		}
 	}
 
-	public static Map<String, Integer> copyAChatLog(Map<String, Integer>
-		                                                 oldChatLog) {
-		Map<String, Integer> newChatLog = new HashMap<>();
-		Iterator it = oldChatLog.entrySet().iterator();
-		while (it.hasNext()) {
-			Map.Entry pair = (Map.Entry) it.next();
-			newChatLog.put((String)pair.getKey(), (int)pair.getValue());
-		}
-		return newChatLog;
-	}
-
-	public Map<String, Integer> getBlankChatLog() {
-		return copyAChatLog(aChatLog);
-	}
-
 	@Override
 	public void addUser(String name) {
 		if (name.length() > screenName_.length()) {
-			if (userByMessageByMessageCount.get(name) == null && !name.contains(screenName_)) {
+			if (receipts.getProducer(name) < 0 && !name.contains(screenName_)) {
 				log.debug(
 					"adding user:" +
 					" " + name + " within test context for " + screenName_);
 
-				Map<String, Integer> newChatLog = copyAChatLog(aChatLog);
-				userByMessageByMessageCount.put(name, newChatLog);
+				receipts.addProducer(name);
 				log.debug("participant(s) " +
-					userByMessageByMessageCount.size());
+					receipts.getNumProducers());
 			}
 		}
 		else {
 			log.error( "It " +
 				"appears a userName without a session number was almost added" +
-				" to the userByMessageByMessageCount. That username was: " + name);
+				" to the receipts. That username was: " + name);
+
+		}
+	}
+
+	/**
+	 * @return How many messages the producer whose receipts are filed under
+	 * producerKey, its screen name and session, sends, or numMessages if it
+	 * is not one of the participants.
+	 */
+	protected int getExpectedMessages(String producerKey, int numMessages) {
+		int participantNo = getParticipant(producerKey);
+		if (messagesPerParticipant == null || participantNo < 0) {
+			return numMessages;
+		}
+		return messagesPerParticipant[participantNo];
+	}
+
+	/**
+	 * @return Whether this chatter's sync hears the producer whose receipts
+	 * are filed under producerKey. Producers that are not participants are
+	 * taken to be heard.
+	 */
+	protected boolean hears(String producerKey) {
+		int participantNo = getParticipant(producerKey);
+		return options == null || participantNo < 0 || options.hears(particpantNo, participantNo);
+	}
+
+	/**
+	 * @return The participant whose screen name and session producerKey is,
+	 * or -1.
+	 */
+	protected int getParticipant(String producerKey) {
+		for (int i = 0; i < participantScreenNames.length; ++i) {
+			String screenName = participantScreenNames[i];
+			if (producerKey.startsWith(screenName) && isSession(producerKey.substring(screenName.length()))) {
+				return i;
+			}
+		}
+		return -1;
+	}
 
+	private static boolean isSession(String session) {
+		for (int i = 0; i < session.length(); ++i) {
+			if (!Character.isDigit(session.charAt(i))) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 	@Override
-	public void submitStats(SyncQueue queue, int numMessages) {
+	public void submitStats(SimulationMetrics metrics, int numMessages) {
 		int messagesSize = numMessages;
 		log.debug("Expected " + messagesSize + " messages");
 
 		ArrayList<UserChatSummary> values = new ArrayList<>();
 
-		int duplicates = 0;
-		int numLost = 0;
+		long duplicates = 0;
+		long numLost = 0;
 
-		Iterator it = userByMessageByMessageCount.entrySet().iterator();
-		while (it.hasNext()) {
-			Map.Entry anIndividualsChatData = (Map.Entry) it.next();
-			Map<String, Integer> userChatLog =
-				(Map<String, Integer>) anIndividualsChatData.getValue();
-
-			Iterator ite = userChatLog.entrySet().iterator();
-
-			String userName = (String) anIndividualsChatData.getKey();
+		for (int producer = 0; producer < receipts.getNumProducers(); ++producer) {
+			String userName = receipts.getProducerKey(producer);
 			if (userName.contains(screenName_))
 				continue;
+			if (!hears(userName)) {
+				log.debug(screenName_ + " is not expected to hear " + userName + ", not counting its messages");
+				continue;
+			}
 
 			log.debug("submitStats from within " + screenName_ + " " +
 				"for " + userName);
-			log.debug("reported number of unique messages: " +
-				userChatLog
-				.size());
 			//TODO there is a case where one unique message got recorded 0 times.
-			int currDupes = 0;
-			int currNumLost = 0;
-			int currCount = 0;
-			StringBuffer individualResults = new StringBuffer();
-
-			individualResults.append(" [ ");
-			while (ite.hasNext()) {
-				Map.Entry pair = (Map.Entry) ite.next();
-				int count = (int) pair.getValue();
+			long currDupes = 0;
+			long currNumLost = 0;
+			long currCount = 0;
+			int expectedMessages = getExpectedMessages(userName, maxMessages);
+			int messagesToCheck = Math.max(expectedMessages, receipts.getNumMessages(producer));
+			log.debug("expected " + expectedMessages + " unique messages, received up to " +
+				receipts.getNumMessages(producer));
+			StringBuilder individualResults = log.isDebugEnabled() ? new StringBuilder(" [ ") : null;
+
+			for (int messageIndex = 0; messageIndex < messagesToCheck; ++messageIndex) {
+				int count = receipts.getCount(producer, messageIndex);
 				if (count > 1) {
 					int newDupes = count - 1;
 					duplicates += newDupes;
 					currDupes += newDupes;
-					individualResults.append(", +" + Integer.toString(newDupes));
-				} else if (count < 1) {
+					if (individualResults != null)
+						individualResults.append(", +").append(newDupes);
+				} else if (count < 1 && messageIndex < expectedMessages) {
 					int newNumLost = 1 - count;
 					currNumLost -= newNumLost;
 					numLost -= newNumLost;
-					individualResults.append(", -" + Integer.toString(newNumLost));
-				} else {
-					individualResults.append(", 0");
+					if (individualResults != null)
+						individualResults.append(", -").append(newNumLost);
+				} else if (count == 1) {
+					if (individualResults != null)
+						individualResults.append(", 0");
 				}
 				currCount += count;
 			}
-			individualResults.append(" ] ");
-			log.debug( individualResults
-				.toString());
+			if (individualResults != null) {
+				individualResults.append(" ] ");
+				log.debug(individualResults.toString());
+			}
 			log.debug("");
 			log.debug("count: " + currCount);
 			log.debug("duplicates: " + currDupes);
 			log.debug("numLost: " + currNumLost);
 
-			values.add(new UserChatSummary(userName, currCount, currDupes, currNumLost));
+			UserChatSummary summary = new UserChatSummary(userName, currCount, currDupes, currNumLost);
+			if (producer < latencies.length && latencies[producer] != null) {
+				log.debug("latency (us): " + latencies[producer]);
+				summary.setLatency(latencies[producer]);
+			}
+			values.add(summary);
 		}
 
-		queue.enQ(values);
+		metrics.report(values);
 	}
 }
@@ -0,0 +1,189 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A captured chat trace: one fixed size record per message sent, in the
+ * order they were sent, each with when it was sent, who sent it and how big
+ * its payload was. The file is memory mapped rather than read, so a trace
+ * of any size costs no heap; the OS pages in what is being replayed.
+ *
+ * The format is a header of MAGIC and VERSION as big endian ints, then the
+ * records: the microseconds since the first record as a big endian long,
+ * then the sender and the payload size in bytes as big endian ints. Write
+ * one with {@link Writer}, or convert a CSV capture with {@link #main}.
+ */
+public class TraceFile {
+	private static final Logger log = LoggerFactory.getLogger(TraceFile.class);
+	public static final int MAGIC = 0x4e444e54;
+	public static final int VERSION = 1;
+	static final int HEADER_BYTES = 8;
+	static final int RECORD_BYTES = 16;
+	// A mapping is addressed by int, so a large trace is mapped in segments
+	// of whole records.
+	static final int MAX_RECORDS_PER_SEGMENT = Integer.MAX_VALUE / RECORD_BYTES;
+
+	private final MappedByteBuffer[] segments;
+	private final int recordsPerSegment;
+	private final long size;
+
+	TraceFile(Path path, int recordsPerSegment) throws IOException {
+		this.recordsPerSegment = recordsPerSegment;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long bytes = channel.size() - HEADER_BYTES;
+			if (bytes < 0 || bytes % RECORD_BYTES != 0) {
+				throw new IOException(path + " is not a trace, its records do not add up");
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException(path + " is not a version " + VERSION + " trace");
+			}
+			size = bytes / RECORD_BYTES;
+			segments = new MappedByteBuffer[(int)((size + recordsPerSegment - 1) / recordsPerSegment)];
+			for (int i = 0; i < segments.length; ++i) {
+				long first = (long)i * recordsPerSegment;
+				long records = Math.min(recordsPerSegment, size - first);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * RECORD_BYTES,
+					records * RECORD_BYTES);
+			}
+		}
+	}
+
+	public static TraceFile open(Path path) throws IOException {
+		return new TraceFile(path, MAX_RECORDS_PER_SEGMENT);
+	}
+
+	/**
+	 * @return The number of records.
+	 */
+	public long size() {
+		return size;
+	}
+
+	public long getOffsetMicroseconds(long record) {
+		return segmentOf(record).getLong(positionOf(record));
+	}
+
+	public int getSender(long record) {
+		return segmentOf(record).getInt(positionOf(record) + 8);
+	}
+
+	public int getPayloadBytes(long record) {
+		return segmentOf(record).getInt(positionOf(record) + 12);
+	}
+
+	private MappedByteBuffer segmentOf(long record) {
+		if (record < 0 || record >= size) {
+			throw new IndexOutOfBoundsException("record " + record + " of " + size);
+		}
+		return segments[(int)(record / recordsPerSegment)];
+	}
+
+	private int positionOf(long record) {
+		return (int)(record % recordsPerSegment) * RECORD_BYTES;
+	}
+
+	/**
+	 * Writes a trace, one record at a time.
+	 */
+	public static class Writer implements Closeable {
+		private final DataOutputStream out;
+		private long firstTimestamp = -1;
+		private long lastTimestamp;
+
+		public Writer(Path path) throws IOException {
+			out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+		}
+
+		/**
+		 * @param timestampMicroseconds When the message was sent, on any clock,
+		 * no earlier than the last one.
+		 */
+		public void append(long timestampMicroseconds, int sender, int payloadBytes) throws IOException {
+			if (firstTimestamp < 0) {
+				firstTimestamp = timestampMicroseconds;
+				lastTimestamp = timestampMicroseconds;
+			}
+			if (timestampMicroseconds < lastTimestamp) {
+				throw new IllegalArgumentException("trace records must be in order, got " + timestampMicroseconds +
+					" after " + lastTimestamp);
+			}
+			if (payloadBytes < 0) {
+				throw new IllegalArgumentException("need a payload size >= 0, got " + payloadBytes);
+			}
+			lastTimestamp = timestampMicroseconds;
+			out.writeLong(timestampMicroseconds - firstTimestamp);
+			out.writeInt(sender);
+			out.writeInt(payloadBytes);
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+
+	/**
+	 * Convert a CSV capture, one "timestamp_ms,sender,payload_bytes" line per
+	 * message in the order they were sent, to a trace. Senders can be any
+	 * string; they are numbered in the order they first appear. A first line
+	 * that does not start with a number is taken for a header.
+	 * <pre>
+	 * TraceFile capture.csv capture.trace
+	 * </pre>
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: TraceFile <capture.csv> <out.trace>");
+			System.exit(1);
+		}
+		Map<String, Integer> senders = new HashMap<>();
+		long records = 0;
+		try (BufferedReader csv = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+		     Writer trace = new Writer(Paths.get(args[1]))) {
+			String line;
+			while ((line = csv.readLine()) != null) {
+				String[] fields = line.split(",");
+				if (line.trim().isEmpty() || (records == 0 && !startsWithNumber(fields[0]))) {
+					continue;
+				}
+				if (fields.length != 3) {
+					throw new IOException("expected timestamp_ms,sender,payload_bytes, got " + line);
+				}
+				String sender = fields[1].trim();
+				Integer senderId = senders.get(sender);
+				if (senderId == null) {
+					senderId = senders.size();
+					senders.put(sender, senderId);
+				}
+				trace.append(Math.round(Double.parseDouble(fields[0].trim()) * 1000), senderId,
+					Integer.parseInt(fields[2].trim()));
+				++records;
+			}
+		}
+		log.info("wrote " + records + " records from " + senders.size() + " senders to " + args[1]);
+	}
+
+	private static boolean startsWithNumber(String field) {
+		String trimmed = field.trim();
+		return !trimmed.isEmpty() && (Character.isDigit(trimmed.charAt(0)) || trimmed.charAt(0) == '.');
+	}
+}
@@ -0,0 +1,174 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A {@link Workload} that replays a {@link TraceFile}: every participant
+ * sends the trace's messages of the senders assigned to it, each at its
+ * recorded offset from the start of the trace divided by the time scale,
+ * with its recorded payload size. Senders are assigned to participants in
+ * the order they first appear, wrapping around when the trace has more
+ * senders than the room has participants.
+ *
+ * The trace is read twice up front: once to count each participant's
+ * messages, then again to write an index of every participant's records,
+ * one after the other, to a memory mapped temporary file. Each participant
+ * then walks its own stretch of the index with its own cursor, so however
+ * far apart the senders are in the trace, nothing waits on the heap.
+ */
+public class TraceReplay implements Workload {
+	private static final int INDEX_ENTRY_BYTES = 8;
+	// A mapping is addressed by int, so a large index is mapped in segments
+	// of whole entries.
+	static final int MAX_ENTRIES_PER_SEGMENT = Integer.MAX_VALUE / INDEX_ENTRY_BYTES;
+
+	private final TraceFile trace;
+	private final int participants;
+	private final double timeScale;
+	private final Map<Integer, Integer> participantOfSender = new HashMap<>();
+	private final int[] numMessages;
+	// Where each participant's records start in the index.
+	private final long[] firstEntry;
+	private final MappedByteBuffer[] index;
+	private final int entriesPerSegment;
+
+	/**
+	 * @param timeScale How many times faster than recorded to replay: 2 sends
+	 * everything in half the time.
+	 * @throws IOException if the index cannot be written.
+	 */
+	public TraceReplay(TraceFile trace, int participants, double timeScale) throws IOException {
+		this(trace, participants, timeScale, MAX_ENTRIES_PER_SEGMENT);
+	}
+
+	TraceReplay(TraceFile trace, int participants, double timeScale, int entriesPerSegment) throws IOException {
+		if (participants <= 0 || timeScale <= 0) {
+			throw new IllegalArgumentException("need participants > 0 and a time scale > 0, got " + participants +
+				" and " + timeScale);
+		}
+		this.trace = trace;
+		this.participants = participants;
+		this.timeScale = timeScale;
+		this.entriesPerSegment = entriesPerSegment;
+		numMessages = new int[participants];
+		for (long record = 0; record < trace.size(); ++record) {
+			int sender = trace.getSender(record);
+			Integer participantNo = participantOfSender.get(sender);
+			if (participantNo == null) {
+				participantNo = participantOfSender.size() % participants;
+				participantOfSender.put(sender, participantNo);
+			}
+			++numMessages[participantNo];
+		}
+
+		firstEntry = new long[participants];
+		for (int i = 1; i < participants; ++i) {
+			firstEntry[i] = firstEntry[i - 1] + numMessages[i - 1];
+		}
+		index = mapIndex(trace.size(), entriesPerSegment);
+		long[] nextEntry = firstEntry.clone();
+		for (long record = 0; record < trace.size(); ++record) {
+			long entry = nextEntry[getParticipant(trace.getSender(record))]++;
+			segmentOf(entry).putLong(positionOf(entry), record);
+		}
+	}
+
+	/**
+	 * Map a temporary file of entries index entries. It is deleted as soon as
+	 * it is mapped, where the OS allows, and the mapping outlives it.
+	 */
+	private static MappedByteBuffer[] mapIndex(long entries, int entriesPerSegment) throws IOException {
+		Path path = Files.createTempFile("trace-replay", ".index");
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.DELETE_ON_CLOSE)) {
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int)((entries + entriesPerSegment - 1) /
+				entriesPerSegment)];
+			for (int i = 0; i < segments.length; ++i) {
+				long first = (long)i * entriesPerSegment;
+				long size = Math.min(entriesPerSegment, entries - first);
+				segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * INDEX_ENTRY_BYTES,
+					size * INDEX_ENTRY_BYTES);
+			}
+			return segments;
+		}
+	}
+
+	public static TraceReplay open(String path, int participants, double timeScale) throws IOException {
+		return new TraceReplay(TraceFile.open(Paths.get(path)), participants, timeScale);
+	}
+
+	/**
+	 * @return The participant that sends sender's messages, or -1 if sender
+	 * is not in the trace.
+	 */
+	public int getParticipant(int sender) {
+		Integer participantNo = participantOfSender.get(sender);
+		return participantNo != null ? participantNo : -1;
+	}
+
+	/**
+	 * @return How many messages the trace has for participantNo, whatever
+	 * numMessages the simulation was built with.
+	 */
+	@Override
+	public int getNumMessages(int participantNo, int participants, int numMessages) {
+		checkRoom(participants);
+		return this.numMessages[participantNo];
+	}
+
+	/**
+	 * Every call starts participantNo from its first message again.
+	 */
+	@Override
+	public Arrivals newArrivals(final int participantNo, int participants, double messageRate, Random random) {
+		checkRoom(participants);
+		return new Arrivals() {
+			private int taken = 0;
+			private double lastDue = 0;
+			private int payloadBytes = 0;
+
+			@Override
+			public double nextInterval() {
+				if (taken == numMessages[participantNo]) {
+					throw new IllegalStateException("participant " + participantNo + " has no more messages in the trace");
+				}
+				long entry = firstEntry[participantNo] + taken++;
+				long record = segmentOf(entry).getLong(positionOf(entry));
+				double due = trace.getOffsetMicroseconds(record) / 1000.0 / timeScale;
+				payloadBytes = trace.getPayloadBytes(record);
+				double interval = due - lastDue;
+				lastDue = due;
+				return interval;
+			}
+
+			@Override
+			public int getPayloadBytes() {
+				return payloadBytes;
+			}
+		};
+	}
+
+	private MappedByteBuffer segmentOf(long entry) {
+		return index[(int)(entry / entriesPerSegment)];
+	}
+
+	private int positionOf(long entry) {
+		return (int)(entry % entriesPerSegment) * INDEX_ENTRY_BYTES;
+	}
+
+	private void checkRoom(int participants) {
+		if (participants != this.participants) {
+			throw new IllegalArgumentException("this replay is for " + this.participants + " participants, not " +
+				participants);
+		}
+	}
+}
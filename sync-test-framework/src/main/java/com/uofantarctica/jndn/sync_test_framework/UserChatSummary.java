@@ -1,17 +1,51 @@
 package com.uofantarctica.jndn.sync_test_framework;
 
+import com.uofantarctica.jndn.helpers.LatencyHistogram;
+import com.uofantarctica.jndn.helpers.SigningStats;
+import net.named_data.jndn.NetworkNack;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 public class UserChatSummary {
 
-	private int totalCount;
-	private int duplicates;
-	private int numLost;
+	private long totalCount;
+	private long duplicates;
+	private long numLost;
 	private String name;
 
 	private int accumulationCount;
 	private int numUniqueChats;
+	private int numFailed = 0;
+	private boolean workloadSeeded = false;
+	private long workloadSeed;
+	private double startupLatencyMilliseconds = -1;
+	private double firstReceiptMilliseconds = Double.NaN;
+	private double lastReceiptMilliseconds = Double.NaN;
+	private SigningStats signingStats;
+	private LatencyHistogram latency = new LatencyHistogram();
+	private int messagesTraced;
+	private Map<MessageTracer.Interval, LatencyHistogram> stageLatencies;
+	private long messageCacheHits;
+	private long messageCacheMisses;
+	private long messageCacheEvictions;
+	private long dataEncodings;
+	private long dataAnsweredFromBytes;
+	private long fetchInterests;
+	private long gapFillInterests;
+	private long fetchTimeouts;
+	private long fetchRetransmissions;
+	private long fetchGiveUps;
+	private final Map<NetworkNack.Reason, Long> fetchNacks = new EnumMap<>(NetworkNack.Reason.class);
+	private long armedTimers;
+	private long timersFired;
+	private long timerDeadlinesMoved;
+	private long forwardedInterests = -1;
+	private long forwardedData = -1;
 
-	public UserChatSummary(String name, int totalCount,
-	                       int duplicates, int numLost) {
+	public UserChatSummary(String name, long totalCount,
+	                       long duplicates, long numLost) {
 		this.name = name;
 		this.totalCount = totalCount;
 		this.duplicates = duplicates;
@@ -23,18 +57,241 @@ public class UserChatSummary {
 		this.numUniqueChats = numUniqueChats;
 	}
 
-	public static int getExpectedTotalCount(int participants, int numMessages) {
-		return (participants - 1) * numMessages * participants;
+	/**
+	 * @param numFailed How many participants failed instead of reporting.
+	 */
+	public void setNumFailed(int numFailed) {
+		this.numFailed = numFailed;
+	}
+
+	public int getNumFailed() {
+		return numFailed;
+	}
+
+	/**
+	 * @param workloadSeed The seed the room's workload was drawn from, so
+	 * the run can be repeated with withWorkloadSeed.
+	 */
+	public void setWorkloadSeed(long workloadSeed) {
+		this.workloadSeeded = true;
+		this.workloadSeed = workloadSeed;
+	}
+
+	public boolean hasWorkloadSeed() {
+		return workloadSeeded;
+	}
+
+	public long getWorkloadSeed() {
+		return workloadSeed;
+	}
+
+	public void setStartupLatencyMilliseconds(double startupLatencyMilliseconds) {
+		this.startupLatencyMilliseconds = startupLatencyMilliseconds;
+	}
+
+	/**
+	 * @return Milliseconds until every participant was ready, or -1 if the
+	 * room never fully started.
+	 */
+	public double getStartupLatencyMilliseconds() {
+		return startupLatencyMilliseconds;
+	}
+
+	/**
+	 * @param firstReceiptMilliseconds When on the simulation's clock the first
+	 * chat message was received.
+	 * @param lastReceiptMilliseconds When the last one was.
+	 */
+	public void setReceiptWindow(double firstReceiptMilliseconds, double lastReceiptMilliseconds) {
+		this.firstReceiptMilliseconds = firstReceiptMilliseconds;
+		this.lastReceiptMilliseconds = lastReceiptMilliseconds;
+	}
+
+	/**
+	 * @return When the first chat message was received, or NaN if none was.
+	 */
+	public double getFirstReceiptMilliseconds() {
+		return firstReceiptMilliseconds;
+	}
+
+	/**
+	 * @return When the last chat message was received, or NaN if none was.
+	 */
+	public double getLastReceiptMilliseconds() {
+		return lastReceiptMilliseconds;
+	}
+
+	/**
+	 * @param latency Delivery latencies in microseconds, from publish to
+	 * receipt.
+	 */
+	public void setLatency(LatencyHistogram latency) {
+		this.latency = latency;
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @param stageLatencies How long the messagesTraced traced messages spent
+	 * in each interval, in microseconds, see {@link MessageTracer}.
+	 */
+	public void setStageLatencies(int messagesTraced, Map<MessageTracer.Interval, LatencyHistogram> stageLatencies) {
+		this.messagesTraced = messagesTraced;
+		this.stageLatencies = stageLatencies;
+	}
+
+	public Map<MessageTracer.Interval, LatencyHistogram> getStageLatencies() {
+		return stageLatencies;
+	}
+
+	public void setSigningStats(SigningStats signingStats) {
+		this.signingStats = signingStats;
+	}
+
+	public SigningStats getSigningStats() {
+		return signingStats;
+	}
+
+	/**
+	 * Add up the message cache, Data encoding and fetch counters of every
+	 * user's chatter.
+	 */
+	public void setMessageCacheStats(List<ChronoChatUser> users) {
+		for (ChronoChatUser user : users) {
+			TestChat chatter = user.getChatter();
+			if (chatter != null) {
+				messageCacheHits += chatter.getMessageCache().getHits();
+				messageCacheMisses += chatter.getMessageCache().getMisses();
+				messageCacheEvictions += chatter.getMessageCache().getEvictions();
+				dataEncodings += chatter.getDataEncodings();
+				dataAnsweredFromBytes += chatter.getDataAnsweredFromBytes();
+				fetchInterests += chatter.getFetchPipeline().getInterestsExpressed();
+				gapFillInterests += chatter.getFetchPipeline().getGapFillInterests();
+				fetchTimeouts += chatter.getFetchPipeline().getTimeouts();
+				fetchRetransmissions += chatter.getFetchPipeline().getRetransmissions();
+				fetchGiveUps += chatter.getFetchPipeline().getGiveUps();
+				armedTimers += chatter.getTimerWheel().getArmedTimers();
+				timersFired += chatter.getTimerWheel().getTimersFired();
+				timerDeadlinesMoved += chatter.getTimerWheel().getDeadlinesMoved();
+				for (NetworkNack.Reason reason : NetworkNack.Reason.values()) {
+					long nacks = chatter.getFetchPipeline().getNacks(reason);
+					if (nacks > 0) {
+						Long sum = fetchNacks.get(reason);
+						fetchNacks.put(reason, (sum != null ? sum : 0) + nacks);
+					}
+				}
+			}
+		}
+	}
+
+	public long getMessageCacheHits() {
+		return messageCacheHits;
+	}
+
+	public long getMessageCacheMisses() {
+		return messageCacheMisses;
+	}
+
+	public long getMessageCacheEvictions() {
+		return messageCacheEvictions;
+	}
+
+	public long getDataEncodings() {
+		return dataEncodings;
+	}
+
+	public long getDataAnsweredFromBytes() {
+		return dataAnsweredFromBytes;
+	}
+
+	public long getFetchInterests() {
+		return fetchInterests;
+	}
+
+	public long getGapFillInterests() {
+		return gapFillInterests;
+	}
+
+	public long getFetchTimeouts() {
+		return fetchTimeouts;
+	}
+
+	public long getFetchRetransmissions() {
+		return fetchRetransmissions;
+	}
+
+	public long getFetchGiveUps() {
+		return fetchGiveUps;
+	}
+
+	/**
+	 * @return How many chat Interests were NACKed with reason.
+	 */
+	public long getFetchNacks(NetworkNack.Reason reason) {
+		Long nacks = fetchNacks.get(reason);
+		return nacks != null ? nacks : 0;
+	}
+
+	/**
+	 * @return How many heartbeat and liveness timers were still armed.
+	 */
+	public long getArmedTimers() {
+		return armedTimers;
+	}
+
+	public long getTimersFired() {
+		return timersFired;
+	}
+
+	public long getTimerDeadlinesMoved() {
+		return timerDeadlinesMoved;
+	}
+
+	/**
+	 * Set how many Interests and Data the in-process forwarder took from the
+	 * participants while they chatted, sync included.
+	 */
+	public void setForwardedPackets(long forwardedInterests, long forwardedData) {
+		this.forwardedInterests = forwardedInterests;
+		this.forwardedData = forwardedData;
+	}
+
+	/**
+	 * @return -1 unless the simulation ran over the in-process forwarder.
+	 */
+	public long getForwardedInterests() {
+		return forwardedInterests;
+	}
+
+	/**
+	 * @return -1 unless the simulation ran over the in-process forwarder.
+	 */
+	public long getForwardedData() {
+		return forwardedData;
+	}
+
+	public static long getExpectedTotalCount(int participants, int numMessages) {
+		return (participants - 1L) * numMessages * participants;
 	}
 
 	public static int getExpectedNumUniqueChats(int participants) {
 		return (participants - 1) * participants;
 	}
 
-	public int getTotalCount() {
+	public long getTotalCount() {
 		return totalCount;
 	}
 
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	public long getNumLost() {
+		return numLost;
+	}
+
 	public void plus(UserChatSummary toAdd) {
 		totalCount += toAdd.totalCount;
 		duplicates += toAdd.duplicates;
@@ -61,6 +318,54 @@ public class UserChatSummary {
 		sb.append("\n");
 		sb.append("total number of messages some users never received: " + numLost);
 		sb.append("\n");
+		if (numFailed > 0) {
+			sb.append("participants that failed: " + numFailed);
+			sb.append("\n");
+		}
+		if (workloadSeeded) {
+			sb.append("workload seed: " + workloadSeed);
+			sb.append("\n");
+		}
+		sb.append("startup latency (ms): " + (startupLatencyMilliseconds < 0 ?
+				"not all participants started" : String.format("%.1f", startupLatencyMilliseconds)));
+		sb.append("\n");
+		sb.append("message cache hits: " + messageCacheHits + ", misses: " + messageCacheMisses +
+				", evictions: " + messageCacheEvictions);
+		sb.append("\n");
+		sb.append("data packets signed: " + dataEncodings + ", answered from pre-encoded bytes " +
+				"(signatures avoided): " + dataAnsweredFromBytes);
+		sb.append("\n");
+		sb.append("chat data Interests: " + fetchInterests + ", filling gaps: " + gapFillInterests +
+				", timed out: " + fetchTimeouts + ", retransmitted: " + fetchRetransmissions +
+				", given up: " + fetchGiveUps);
+		sb.append("\n");
+		sb.append("chat data NACKs: " + (fetchNacks.isEmpty() ? "none" : fetchNacks.toString()));
+		sb.append("\n");
+		sb.append("timers armed: " + armedTimers + ", fired: " + timersFired +
+				", deadlines moved: " + timerDeadlinesMoved);
+		sb.append("\n");
+		if (forwardedInterests >= 0) {
+			sb.append("packets through the forwarder: Interests " + forwardedInterests + ", Data " + forwardedData);
+			sb.append("\n");
+		}
+		sb.append(String.format("delivery latency (ms): p50 %.3f, p99 %.3f, p99.9 %.3f, max %.3f",
+				latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(99) / 1e3,
+				latency.getValueAtPercentile(99.9) / 1e3, latency.getMax() / 1e3));
+		sb.append("\n");
+		if (stageLatencies != null) {
+			sb.append("stage latency of " + messagesTraced + " traced messages (ms):");
+			sb.append("\n");
+			for (Map.Entry<MessageTracer.Interval, LatencyHistogram> entry : stageLatencies.entrySet()) {
+				LatencyHistogram histogram = entry.getValue();
+				sb.append(String.format("  %s: p50 %.3f, p99 %.3f, max %.3f over %d deliveries", entry.getKey(),
+						histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+						histogram.getMax() / 1e3, histogram.getCount()));
+				sb.append("\n");
+			}
+		}
+		if (signingStats != null) {
+			sb.append(signingStats);
+		}
 		return sb.toString();
 	}
 }
@@ -0,0 +1,56 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.util.Random;
+
+/**
+ * When the participants of a simulation send their messages. A workload
+ * hands every participant its own {@link Arrivals}, drawing from the
+ * participant's own seeded Random, and the participant follows it open
+ * loop: each message is due an interval after the one before it was due,
+ * not after it was actually sent. A participant that falls behind sends its
+ * late messages at once instead of quietly sending fewer of them, and their
+ * delivery latency counts from when they were due, so a slow sender cannot
+ * hide its own backlog from the measurement. See {@link Workloads} for the
+ * models.
+ */
+public interface Workload {
+	/**
+	 * The mean rate of the 10 to 100 ms between messages the simulation
+	 * always used, in messages per second.
+	 */
+	double DEFAULT_MESSAGE_RATE = 1000.0 / 55;
+
+	interface Arrivals {
+		/**
+		 * @return Milliseconds from when the last message was due, or from
+		 * when sending started, until the next one is.
+		 */
+		double nextInterval();
+
+		/**
+		 * @return How many bytes the payload of the message the last
+		 * nextInterval() was for should have, or 0 to send it as it is.
+		 */
+		default int getPayloadBytes() {
+			return 0;
+		}
+	}
+
+	/**
+	 * @param participantNo The participant, 0 to participants - 1.
+	 * @param participants The size of the room.
+	 * @param messageRate The mean number of messages per second a
+	 * participant sends, averaged over the room.
+	 * @param random The participant's own generator, to draw every interval
+	 * from.
+	 */
+	Arrivals newArrivals(int participantNo, int participants, double messageRate, Random random);
+
+	/**
+	 * @return How many messages participantNo sends, the simulation's
+	 * numMessages unless the workload decides itself.
+	 */
+	default int getNumMessages(int participantNo, int participants, int numMessages) {
+		return numMessages;
+	}
+}
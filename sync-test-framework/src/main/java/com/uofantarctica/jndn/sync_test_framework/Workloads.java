@@ -0,0 +1,176 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The {@link Workload} models. Each keeps the rate it is given as the mean
+ * over the room, so a sweep over message rates means the same load whatever
+ * the model; the skewed ones wrap another model and only move that rate
+ * from some participants to others:
+ * <pre>
+ * Workloads.zipf(1.2, Workloads.onOff(500, 2000))
+ * </pre>
+ */
+public final class Workloads {
+	// Shape of the Pareto distributed on and off periods: below 2 they have
+	// no finite variance, which is what makes aggregated traffic bursty at
+	// every time scale.
+	static final double PARETO_SHAPE = 1.5;
+
+	private Workloads() {
+	}
+
+	/**
+	 * Each message a uniformly random 10/55 to 100/55 of the mean interval
+	 * after the last. At the default rate that is the 10 to 100 ms the
+	 * simulation always waited. The default.
+	 */
+	public static Workload uniform() {
+		return (participantNo, participants, messageRate, random) -> {
+			final double mean = 1000.0 / messageRate;
+			return () -> mean * (10 + 90 * random.nextDouble()) / 55;
+		};
+	}
+
+	/**
+	 * Poisson arrivals: exponentially distributed intervals.
+	 */
+	public static Workload poisson() {
+		return (participantNo, participants, messageRate, random) -> {
+			final double mean = 1000.0 / messageRate;
+			return () -> exponential(random, mean);
+		};
+	}
+
+	/**
+	 * Bursts of Poisson arrivals separated by silences, with the lengths of
+	 * both Pareto distributed around the given means: mostly short, now and
+	 * then very long. Within a burst messages come fast enough to keep the
+	 * mean rate. Every participant starts at a random point of the cycle.
+	 */
+	public static Workload onOff(final double meanOnMilliseconds, final double meanOffMilliseconds) {
+		if (meanOnMilliseconds <= 0 || meanOffMilliseconds < 0) {
+			throw new IllegalArgumentException("need a mean burst > 0 ms and a mean silence >= 0 ms, got " +
+					meanOnMilliseconds + " and " + meanOffMilliseconds);
+		}
+		return (participantNo, participants, messageRate, random) ->
+				new OnOffArrivals(random, messageRate, meanOnMilliseconds, meanOffMilliseconds);
+	}
+
+	/**
+	 * {@link #zipf(double, Workload)} of Poisson arrivals.
+	 */
+	public static Workload zipf(double exponent) {
+		return zipf(exponent, poisson());
+	}
+
+	/**
+	 * Hot senders: participant n sends at a rate proportional to
+	 * 1 / (n + 1)^exponent, participant 0 the most. 0 sends evenly, and the
+	 * larger the exponent the more of the room's messages come from its
+	 * first few participants.
+	 */
+	public static Workload zipf(final double exponent, final Workload base) {
+		if (exponent < 0) {
+			throw new IllegalArgumentException("need a Zipf exponent >= 0, got " + exponent);
+		}
+		return (participantNo, participants, messageRate, random) -> {
+			double[] weights = new double[participants];
+			for (int i = 0; i < participants; ++i) {
+				weights[i] = 1 / Math.pow(i + 1, exponent);
+			}
+			return base.newArrivals(participantNo, participants,
+					messageRate * relativeWeight(weights, participantNo), random);
+		};
+	}
+
+	/**
+	 * {@link #perUser(Workload, double...)} of Poisson arrivals.
+	 */
+	public static Workload perUser(double... weights) {
+		return perUser(poisson(), weights);
+	}
+
+	/**
+	 * Participant n sends at a rate proportional to
+	 * weights[n % weights.length].
+	 */
+	public static Workload perUser(final Workload base, double... weights) {
+		if (weights.length == 0) {
+			throw new IllegalArgumentException("need a weight per user");
+		}
+		for (double weight : weights) {
+			if (weight <= 0) {
+				throw new IllegalArgumentException("need weights > 0, got " + Arrays.toString(weights));
+			}
+		}
+		final double[] userWeights = weights.clone();
+		return (participantNo, participants, messageRate, random) -> {
+			double[] roomWeights = new double[participants];
+			for (int i = 0; i < participants; ++i) {
+				roomWeights[i] = userWeights[i % userWeights.length];
+			}
+			return base.newArrivals(participantNo, participants,
+					messageRate * relativeWeight(roomWeights, participantNo), random);
+		};
+	}
+
+	/**
+	 * @return The weight of participantNo over the mean weight of the room.
+	 */
+	static double relativeWeight(double[] weights, int participantNo) {
+		double sum = 0;
+		for (double weight : weights) {
+			sum += weight;
+		}
+		return weights[participantNo] * weights.length / sum;
+	}
+
+	static double exponential(Random random, double mean) {
+		return -mean * Math.log(1 - random.nextDouble());
+	}
+
+	static double pareto(Random random, double mean) {
+		double scale = mean * (PARETO_SHAPE - 1) / PARETO_SHAPE;
+		return scale / Math.pow(1 - random.nextDouble(), 1 / PARETO_SHAPE);
+	}
+
+	private static class OnOffArrivals implements Workload.Arrivals {
+		private final Random random;
+		private final double meanOn;
+		private final double meanOff;
+		private final double meanInterval;
+		// What is left of the current burst.
+		private double onLeft;
+		// The silence to sit out before the first burst.
+		private double initialOff;
+
+		OnOffArrivals(Random random, double messageRate, double meanOn, double meanOff) {
+			this.random = random;
+			this.meanOn = meanOn;
+			this.meanOff = meanOff;
+			this.meanInterval = 1000.0 / messageRate * meanOn / (meanOn + meanOff);
+			if (random.nextDouble() * (meanOn + meanOff) >= meanOn) {
+				initialOff = pareto(random, meanOff);
+			}
+			onLeft = pareto(random, meanOn);
+		}
+
+		@Override
+		public double nextInterval() {
+			double interval = initialOff;
+			initialOff = 0;
+			// Exponential intervals forget how long they have run, so what is
+			// left at the end of a burst carries over to the next one.
+			double gap = exponential(random, meanInterval);
+			while (gap > onLeft) {
+				gap -= onLeft;
+				interval += onLeft + (meanOff > 0 ? pareto(random, meanOff) : 0);
+				onLeft = pareto(random, meanOn);
+			}
+			onLeft -= gap;
+			return interval + gap;
+		}
+	}
+}
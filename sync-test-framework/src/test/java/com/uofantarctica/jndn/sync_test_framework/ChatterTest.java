@@ -0,0 +1,205 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.FaceSecurity;
+import com.uofantarctica.jndn.helpers.SecurityContextCache;
+import com.uofantarctica.jndn.proto.ChatbufProto;
+import net.named_data.jndn.Data;
+import net.named_data.jndn.Face;
+import net.named_data.jndn.ForwardingFlags;
+import net.named_data.jndn.Interest;
+import net.named_data.jndn.Name;
+import net.named_data.jndn.OnInterestCallback;
+import net.named_data.jndn.OnRegisterFailed;
+import net.named_data.jndn.OnRegisterSuccess;
+import net.named_data.jndn.encoding.WireFormat;
+import net.named_data.jndn.transport.TcpTransport;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ChatterTest {
+	private RecordingFace face;
+	private FaceSecurity.SecurityData identity;
+
+	@Before
+	public void setUp() throws Exception {
+		face = new RecordingFace();
+		identity = SecurityContextCache.getDefault().getDefaultIdentity();
+	}
+
+	@Test
+	public void answersCachedMessagesFromThePreSignedBytes() {
+		ProducerChatter producer = newProducer(MessageCache.DEFAULT_CAPACITY, true);
+		producer.sendMessage("hello");
+		producer.sendMessage("world");
+		// The JOIN and the two messages were each signed once, as published.
+		assertEquals(3, producer.getDataEncodings());
+
+		Name name = SyncStateCoalescer.makeDataName(producer.chatPrefix_, producer.session_, 2);
+		producer.onInterest(producer.chatPrefix_, new Interest(name), face, 0, null);
+		producer.onInterest(producer.chatPrefix_, new Interest(name), face, 0, null);
+
+		assertEquals(3, producer.getDataEncodings());
+		assertEquals(2, producer.getDataAnsweredFromBytes());
+		assertEquals(name, face.lastData().getName());
+		assertEquals("world", face.lastChatMessage());
+	}
+
+	@Test
+	public void signsOnRequestWithoutPreSignedBytes() {
+		ProducerChatter producer = newProducer(MessageCache.DEFAULT_CAPACITY, false);
+		producer.sendMessage("hello");
+		assertEquals(0, producer.getDataEncodings());
+
+		Name name = SyncStateCoalescer.makeDataName(producer.chatPrefix_, producer.session_, 1);
+		producer.onInterest(producer.chatPrefix_, new Interest(name), face, 0, null);
+
+		assertEquals(1, producer.getDataEncodings());
+		assertEquals(0, producer.getDataAnsweredFromBytes());
+		assertEquals("hello", face.lastChatMessage());
+	}
+
+	@Test
+	public void evictedMessagesAreNotAnsweredOrSigned() {
+		// Room for the JOIN and one message: sending the second evicts the
+		// JOIN, the third the first message.
+		ProducerChatter producer = newProducer(2, true);
+		producer.sendMessage("first");
+		producer.sendMessage("second");
+		producer.sendMessage("third");
+		long encodings = producer.getDataEncodings();
+
+		producer.onInterest(producer.chatPrefix_,
+			new Interest(SyncStateCoalescer.makeDataName(producer.chatPrefix_, producer.session_, 1)), face, 0, null);
+		assertNull(face.lastSent);
+		assertEquals(encodings, producer.getDataEncodings());
+		assertEquals(0, producer.getDataAnsweredFromBytes());
+
+		// What is still cached is answered from its bytes as before.
+		producer.onInterest(producer.chatPrefix_,
+			new Interest(SyncStateCoalescer.makeDataName(producer.chatPrefix_, producer.session_, 3)), face, 0, null);
+		assertEquals("third", face.lastChatMessage());
+		assertEquals(encodings, producer.getDataEncodings());
+		assertEquals(1, producer.getDataAnsweredFromBytes());
+	}
+
+	private ProducerChatter newProducer(int cacheCapacity, boolean preEncodeData) {
+		ProducerChatter producer = new ProducerChatter(face, identity);
+		ChatSimulationBuilder builder = ChatSimulationBuilder.aChatSimulation()
+				.withNumParticipants(1)
+				.withMessageCacheCapacity(cacheCapacity)
+				.withPreEncodedData(preEncodeData);
+		producer.configure(new ChatterOptions(builder, builder.workload, MessageTracer.DISABLED));
+		return producer;
+	}
+
+	/**
+	 * A chatter on a sync that only counts sequence numbers, so it answers
+	 * for its own chat Data.
+	 */
+	private static class ProducerChatter extends Chatter {
+		ProducerChatter(Face face, FaceSecurity.SecurityData identity) {
+			super("producer", "/ndn/broadcast/sync-simulation-test", "ndnchat", new Name("/ndn/broadcast/chat-room"),
+				face, identity.keyChain, identity.certificateName, new EventRecorder(1), context -> new CountingSync());
+		}
+
+		@Override
+		public void recordMessageReceipt(String from, String msg) {
+		}
+
+		@Override
+		public void updateUser(String oldName, String newName) {
+		}
+
+		@Override
+		public void addUser(String name) {
+		}
+	}
+
+	private static class CountingSync implements SyncAdapter {
+		private long sequenceNo = 0;
+
+		@Override
+		public void publishNextMessage(Data data) {
+		}
+
+		@Override
+		public long getProducerSequenceNo(String prefix_, long sessionNo_) {
+			return -1;
+		}
+
+		@Override
+		public void publishNextSequenceNo() {
+			++sequenceNo;
+		}
+
+		@Override
+		public long getSequenceNo() {
+			return sequenceNo;
+		}
+
+		@Override
+		public int getNumProducers() {
+			return -1;
+		}
+	}
+
+	/**
+	 * Registrations succeed at once and the last packet sent is kept; nothing
+	 * touches the network.
+	 */
+	private static class RecordingFace extends Face {
+		ByteBuffer lastSent;
+
+		RecordingFace() {
+			super(new TcpTransport(), new TcpTransport.ConnectionInfo("localhost"));
+		}
+
+		@Override
+		public long registerPrefix(Name prefix, OnInterestCallback onInterest, OnRegisterFailed onRegisterFailed,
+				OnRegisterSuccess onRegisterSuccess, ForwardingFlags flags, WireFormat wireFormat) {
+			if (onRegisterSuccess != null) {
+				onRegisterSuccess.onRegisterSuccess(prefix, 1);
+			}
+			return 1;
+		}
+
+		@Override
+		public void putData(Data data, WireFormat wireFormat) {
+			lastSent = data.wireEncode(wireFormat).buf();
+		}
+
+		@Override
+		public void send(ByteBuffer encoding) {
+			lastSent = encoding;
+		}
+
+		@Override
+		public void callLater(double delayMilliseconds, Runnable callback) {
+		}
+
+		Data lastData() {
+			assertNotNull(lastSent);
+			Data data = new Data();
+			try {
+				data.wireDecode(lastSent.duplicate());
+			} catch (Exception e) {
+				throw new AssertionError(e);
+			}
+			return data;
+		}
+
+		String lastChatMessage() {
+			try {
+				return ChatbufProto.ChatMessage.parseFrom(lastData().getContent().getImmutableArray()).getData();
+			} catch (Exception e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
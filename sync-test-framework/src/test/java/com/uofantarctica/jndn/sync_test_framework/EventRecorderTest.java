@@ -0,0 +1,67 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import net.named_data.jndn.Name;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventRecorderTest {
+	private final Name alice = new Name("/room/alice/7/0");
+	private final Name bob = new Name("/room/bob/3/0");
+
+	@Test
+	public void queriesByTypeAndName() {
+		EventRecorder recorder = new EventRecorder(8);
+		recorder.record(EventRecorder.Type.TIMEOUT, alice, 10);
+		recorder.record(EventRecorder.Type.DATA, alice, 20);
+		recorder.record(EventRecorder.Type.DATA, bob, 30);
+
+		assertEquals(2, recorder.count(EventRecorder.Type.DATA));
+		List<EventRecorder.Event> aliceEvents = recorder.events(alice).collect(Collectors.toList());
+		assertEquals(2, aliceEvents.size());
+		assertEquals(EventRecorder.Type.TIMEOUT, aliceEvents.get(0).getType());
+		assertEquals(20, aliceEvents.get(1).getTimeMilliseconds(), 0);
+		assertTrue(aliceEvents.get(1).matches(new Name("/room/alice/7/0")));
+	}
+
+	@Test
+	public void keepsTheNewestEventsPerThread() throws InterruptedException {
+		final EventRecorder recorder = new EventRecorder(4);
+		for (int i = 0; i < 10; ++i) {
+			recorder.record(EventRecorder.Type.DATA, alice, i);
+		}
+		Thread other = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				recorder.record(EventRecorder.Type.NACK, bob, 100);
+			}
+		});
+		other.start();
+		other.join();
+
+		assertEquals(11, recorder.getRecorded());
+		assertEquals(6, recorder.getDropped());
+		assertEquals(5, recorder.events().count());
+		assertEquals(6, recorder.events(alice).mapToDouble(EventRecorder.Event::getTimeMilliseconds).min()
+				.getAsDouble(), 0);
+		assertEquals(1, recorder.count(EventRecorder.Type.NACK));
+	}
+
+	@Test
+	public void keepsExactlyItsCapacityAcrossWraps() {
+		EventRecorder recorder = new EventRecorder(5);
+		for (int i = 0; i < 23; ++i) {
+			recorder.record(EventRecorder.Type.DATA, alice, i);
+		}
+		assertEquals(18, recorder.getDropped());
+		assertEquals(5, recorder.events().count());
+		assertEquals(18, recorder.events().mapToDouble(EventRecorder.Event::getTimeMilliseconds).min()
+				.getAsDouble(), 0);
+		assertEquals(22, recorder.events().mapToDouble(EventRecorder.Event::getTimeMilliseconds).max()
+				.getAsDouble(), 0);
+	}
+}
@@ -0,0 +1,107 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import net.named_data.jndn.Name;
+import net.named_data.jndn.NetworkNack;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FetchPipelineTest {
+	private final Name alice = new Name("/room/alice");
+	private final List<Name> fetched = new ArrayList<>();
+	private final List<Double> lifetimes = new ArrayList<>();
+	private double now = 0;
+	private final List<Double> delays = new ArrayList<>();
+	private final List<Runnable> scheduled = new ArrayList<>();
+	private final FetchPipeline pipeline = new FetchPipeline((name, lifetime) -> {
+		fetched.add(name);
+		lifetimes.add(lifetime);
+		return true;
+	}, () -> now, (delay, callback) -> {
+		delays.add(delay);
+		scheduled.add(callback);
+	}, 2, 4, 100, 1);
+
+	@Test
+	public void fetchesEveryMissedSequenceNoWithinTheWindow() {
+		pipeline.onSyncState(alice, 7, 0, false);
+		pipeline.onSyncState(alice, 7, 5, false);
+		assertEquals(2, fetched.size());
+		assertEquals(new Name("/room/alice/7/0"), fetched.get(0));
+		assertEquals(new Name("/room/alice/7/1"), fetched.get(1));
+
+		for (int i = 0; i < fetched.size(); ++i) {
+			pipeline.onData(fetched.get(i));
+		}
+		assertEquals(6, fetched.size());
+		assertEquals(new Name("/room/alice/7/5"), fetched.get(5));
+		assertEquals(4, pipeline.getGapFillInterests());
+		assertEquals(5, pipeline.getHighestDelivered(alice, 7));
+	}
+
+	@Test
+	public void timeoutsRetransmitWithBackoffThenGiveUp() {
+		pipeline.onSyncState(alice, 7, 9, false);
+		assertEquals(2, fetched.size());
+		assertEquals(RttEstimator.DEFAULT_INITIAL_RTO, lifetimes.get(0), 0);
+
+		pipeline.onTimeout(fetched.get(0));
+		assertEquals(new Name("/room/alice/7/0"), fetched.get(2));
+		assertEquals(2 * RttEstimator.DEFAULT_INITIAL_RTO, lifetimes.get(2), 0);
+		pipeline.onTimeout(fetched.get(1));
+		assertEquals(4, fetched.size());
+
+		// Out of retransmissions. The window halved to one, which 7/1 fills.
+		pipeline.onTimeout(fetched.get(0));
+		assertEquals(4, fetched.size());
+		assertEquals(3, pipeline.getTimeouts());
+		assertEquals(2, pipeline.getRetransmissions());
+		assertEquals(1, pipeline.getGiveUps());
+	}
+
+	@Test
+	public void lifetimesFollowTheMeasuredRtt() {
+		pipeline.onSyncState(alice, 7, 9, false);
+		now = 100;
+		pipeline.onData(fetched.get(0));
+		// SRTT 100 and RTTVAR 50 give 300, above the minimum.
+		assertEquals(100, pipeline.getRttEstimator(alice, 7).getSmoothedRtt(), 0);
+		assertEquals(300, lifetimes.get(lifetimes.size() - 1), 0);
+	}
+
+	@Test
+	public void producerFirstSeenInRecoveryOnlyFetchesItsLatest() {
+		pipeline.onSyncState(alice, 7, 40, true);
+		assertEquals(1, fetched.size());
+		assertTrue(pipeline.isRecovery(new Name("/room/alice/7/40")));
+
+		pipeline.onSyncState(alice, 7, 41, false);
+		assertEquals(new Name("/room/alice/7/41"), fetched.get(1));
+		assertFalse(pipeline.isRecovery(new Name("/room/alice/7/41")));
+	}
+
+	@Test
+	public void nacksRetryByReason() {
+		pipeline.onSyncState(alice, 7, 9, false);
+		pipeline.onNack(fetched.get(0), NetworkNack.Reason.DUPLICATE);
+		pipeline.onNack(fetched.get(1), NetworkNack.Reason.CONGESTION);
+		assertEquals(2, scheduled.size());
+		assertTrue(delays.get(0) < FetchPipeline.NACK_RETRY_JITTER);
+		assertEquals(2 * RttEstimator.DEFAULT_INITIAL_RTO, delays.get(1), 0);
+
+		scheduled.get(0).run();
+		assertEquals(new Name("/room/alice/7/0"), fetched.get(2));
+		assertEquals(1, pipeline.getRetransmissions());
+
+		// Already retried once, so a second NACK gives the message up.
+		pipeline.onNack(fetched.get(2), NetworkNack.Reason.NO_ROUTE);
+		assertEquals(1, pipeline.getGiveUps());
+		assertEquals(1, pipeline.getNacks(NetworkNack.Reason.NO_ROUTE));
+		assertEquals(1, pipeline.getNacks(NetworkNack.Reason.CONGESTION));
+	}
+}
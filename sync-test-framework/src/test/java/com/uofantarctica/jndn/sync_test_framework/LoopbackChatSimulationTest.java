@@ -0,0 +1,50 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.LoopbackTransportFactory;
+import com.uofantarctica.jndn.helpers.TransportConfiguration;
+import net.named_data.jndn.encoding.WireFormat;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Same experiment as ChatSimulationTest, but every Face talks to an in-process
+ * LoopbackForwarder so it needs neither NFD nor Docker.
+ */
+public class LoopbackChatSimulationTest {
+	int numMessages = 10;
+	int numParticipants = 2;
+	UserChatSummary summary = null;
+
+	@Before
+	public void setUp() throws Exception {
+		WireFormat.getDefaultWireFormat();
+		TransportConfiguration.setTransportFactory(new LoopbackTransportFactory());
+
+		String screenName = "scratchy";
+		String hubPrefix = "/ndn/broadcast/chat-room";
+		String chatRoom = "ndnchat";
+		String broadcastBaseName = "/ndn/broadcast/sync-simulation-test";
+
+		ChatSimulationBuilder builder = ChatSimulationBuilder.aChatSimulation();
+		builder.withScreenName(screenName)
+				.withBroadcastBaseName(broadcastBaseName)
+				.withHubPrefix(hubPrefix)
+				.withChatRoom(chatRoom)
+				.withNumMessages(numMessages)
+				.withNumParticipants(numParticipants);
+		ChatSimulation simulation = builder.build();
+		summary = simulation.simulate();
+	}
+
+	@Test
+	public void loopbackChatSimulationTest() {
+		assertEquals("Need one message log per participant", numParticipants, summary.getAccumulationCount());
+		assertEquals("Need a certain number of unique chats, or unique combinations of chatters",
+				UserChatSummary.getExpectedNumUniqueChats(numParticipants), summary.getNumUniqueChats());
+		assertEquals("Need a certain number of total messages received.",
+				UserChatSummary.getExpectedTotalCount(numParticipants, numMessages),
+				summary.getTotalCount());
+	}
+}
@@ -0,0 +1,55 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MessageCacheTest {
+
+	@Test
+	public void evictsOldestBeyondCapacity() {
+		MessageCache<String> cache = new MessageCache<>(3, 0, String::length);
+		for (long seq = 0; seq < 5; ++seq) {
+			cache.append(seq, "m" + seq);
+		}
+		assertEquals(3, cache.size());
+		assertEquals(2, cache.getEvictions());
+		assertNull(cache.get(1));
+		assertEquals("m2", cache.get(2));
+		assertEquals("m4", cache.get(4));
+		assertNull(cache.get(5));
+		assertEquals(2, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void evictsOldestBeyondMaxBytes() {
+		MessageCache<String> cache = new MessageCache<>(10, 10, String::length);
+		cache.append(0, "aaaa");
+		cache.append(1, "bbbb");
+		cache.append(2, "cccc");
+		assertEquals(2, cache.size());
+		assertEquals(8, cache.getBytes());
+		assertNull(cache.get(0));
+		assertEquals("bbbb", cache.get(1));
+
+		// The newest message is kept even if it alone is too big.
+		cache.append(3, "dddddddddddd");
+		assertEquals(1, cache.size());
+		assertEquals("dddddddddddd", cache.get(3));
+	}
+
+	@Test
+	public void findsNewestOfRepeatedSequenceNumbers() {
+		MessageCache<String> cache = new MessageCache<>(4, 0, String::length);
+		cache.append(0, "join");
+		cache.append(0, "join again");
+		cache.append(1, "chat");
+		cache.append(3, "after a gap");
+		assertEquals("join again", cache.get(0));
+		assertEquals("chat", cache.get(1));
+		assertNull(cache.get(2));
+		assertEquals("after a gap", cache.get(3));
+	}
+}
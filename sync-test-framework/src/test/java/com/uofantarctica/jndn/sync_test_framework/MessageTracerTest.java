@@ -0,0 +1,70 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.LatencyHistogram;
+import net.named_data.jndn.Name;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class MessageTracerTest {
+	private final Name alice = new Name("/room/alice");
+	private double now = 0;
+	private final MessageTracer tracer = new MessageTracer(2, () -> now);
+
+	@Test
+	public void breaksDeliveryDownByStage() {
+		Name message = SyncStateCoalescer.makeDataName(alice, 7, 4);
+		tracer.stamp(MessageTracer.Stage.PUBLISHED, message, null);
+		now = 100;
+		// Announcing 4 after 1 makes 2 and 4 seen; 3 is not sampled.
+		tracer.stampRange(MessageTracer.Stage.SYNC_STATE_SEEN, alice, 7, 2, 4, "bob");
+		now = 110;
+		tracer.stamp(MessageTracer.Stage.INTEREST_EXPRESSED, message, "bob");
+		now = 115;
+		tracer.stamp(MessageTracer.Stage.INTEREST_SERVED, message, null);
+		now = 120;
+		tracer.stamp(MessageTracer.Stage.DATA_RECEIVED, message, "bob");
+		tracer.stamp(MessageTracer.Stage.RECEIPT_RECORDED, message, "bob");
+		// Only the first time a stage happens counts.
+		now = 500;
+		tracer.stamp(MessageTracer.Stage.INTEREST_EXPRESSED, message, "bob");
+
+		assertEquals(2, tracer.getNumTraced());
+		Map<MessageTracer.Interval, LatencyHistogram> breakdown = tracer.getBreakdown();
+		assertEquals(100000, breakdown.get(MessageTracer.Interval.SYNC_DISCOVERY).getMax());
+		assertEquals(10000, breakdown.get(MessageTracer.Interval.FETCH_QUEUEING).getMax());
+		assertEquals(5000, breakdown.get(MessageTracer.Interval.INTEREST_TO_PRODUCER).getMax());
+		assertEquals(5000, breakdown.get(MessageTracer.Interval.DATA_TO_CONSUMER).getMax());
+		assertEquals(120000, breakdown.get(MessageTracer.Interval.END_TO_END).getMax());
+		assertEquals(1, breakdown.get(MessageTracer.Interval.END_TO_END).getCount());
+	}
+
+	@Test
+	public void tracesOnlySampledMessages() {
+		tracer.stamp(MessageTracer.Stage.PUBLISHED, SyncStateCoalescer.makeDataName(alice, 7, 3), null);
+		MessageTracer.DISABLED.stamp(MessageTracer.Stage.PUBLISHED, SyncStateCoalescer.makeDataName(alice, 7, 0), null);
+		assertEquals(0, tracer.getNumTraced());
+		assertEquals(0, MessageTracer.DISABLED.getNumTraced());
+	}
+
+	@Test
+	public void matchesEachConsumerToTheFirstServeAfterItsInterest() {
+		Name message = SyncStateCoalescer.makeDataName(alice, 7, 2);
+		tracer.stamp(MessageTracer.Stage.PUBLISHED, message, null);
+		// One serve per consumer in a large room, 10 ms apart.
+		for (int i = 0; i < 100; ++i) {
+			now = i * 10;
+			tracer.stamp(MessageTracer.Stage.INTEREST_SERVED, message, null);
+		}
+		now = 555;
+		tracer.stamp(MessageTracer.Stage.INTEREST_EXPRESSED, message, "bob");
+		now = 563;
+		tracer.stamp(MessageTracer.Stage.DATA_RECEIVED, message, "bob");
+
+		Map<MessageTracer.Interval, LatencyHistogram> breakdown = tracer.getBreakdown();
+		assertEquals(5000, breakdown.get(MessageTracer.Interval.INTEREST_TO_PRODUCER).getMax());
+		assertEquals(3000, breakdown.get(MessageTracer.Interval.DATA_TO_CONSUMER).getMax());
+	}
+}
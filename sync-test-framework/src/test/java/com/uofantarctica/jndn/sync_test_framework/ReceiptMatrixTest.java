@@ -0,0 +1,59 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReceiptMatrixTest {
+	private final ReceiptMatrix receipts = new ReceiptMatrix(
+			ReceiptMatrix.indexMessages(Arrays.asList("m0", "m1", "m2")));
+
+	@Test
+	public void countsReceiptsPerProducerAndMessage() {
+		for (int i = 0; i < 20; ++i) {
+			assertEquals(i, receipts.addProducer("user" + i));
+		}
+		assertEquals(7, receipts.addProducer("user7"));
+		assertTrue(receipts.record("user7", "m2"));
+		assertTrue(receipts.record("user7", "m2"));
+		assertTrue(receipts.record("user19", "m0"));
+		assertFalse(receipts.record("nobody", "m0"));
+		assertFalse(receipts.record("user7", "not a test message"));
+
+		assertEquals(2, receipts.getCount(7, 2));
+		assertEquals(0, receipts.getCount(7, 0));
+		assertEquals(1, receipts.getCount(19, 0));
+	}
+
+	@Test
+	public void renamedProducerKeepsItsCounts() {
+		int alice = receipts.addProducer("alice1");
+		receipts.record("alice1", "m1");
+		assertTrue(receipts.rename("alice1", "alice2"));
+		assertEquals(-1, receipts.getProducer("alice1"));
+		assertEquals(alice, receipts.getProducer("alice2"));
+		assertEquals("alice2", receipts.getProducerKey(alice));
+		receipts.record("alice2", "m1");
+		assertEquals(2, receipts.getCount(alice, 1));
+	}
+
+	@Test
+	public void growsEachProducersRowToWhatItSent() {
+		ReceiptMatrix generated = new ReceiptMatrix(ChronoChatUser::getMessageIndex);
+		int quiet = generated.addProducer("quiet1");
+		int busy = generated.addProducer("busy1");
+		assertTrue(generated.record("quiet1", ChronoChatUser.getMessage(0)));
+		assertTrue(generated.record("busy1", ChronoChatUser.getMessage(99999)));
+		assertFalse(generated.record("busy1", "sample_text01"));
+		assertFalse(generated.record("busy1", "sample_text"));
+
+		assertEquals(1, generated.getNumMessages(quiet));
+		assertEquals(100000, generated.getNumMessages(busy));
+		assertEquals(1, generated.getCount(busy, 99999));
+		assertEquals(0, generated.getCount(quiet, 99999));
+	}
+}
@@ -0,0 +1,33 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RosterTest {
+
+	@Test
+	public void joinHearUpdateAndLeave() {
+		Roster roster = new Roster();
+		Roster.Member alice = roster.join("alice", 1500000000L, 10);
+		assertEquals("alice1500000000", alice.getNameAndSession());
+		assertTrue(roster.contains("alice", 1500000000L));
+
+		roster.heard(alice, 4, 20);
+		roster.heard(alice, 3, 30);
+		assertEquals(4, alice.getLastSequenceNo());
+		assertEquals(30, alice.getLastSeen(), 0);
+
+		assertEquals("alice1500000000", roster.updateSession(alice, 1500000100L));
+		assertEquals("alice1500000100", alice.getNameAndSession());
+		assertEquals(-1, alice.getLastSequenceNo());
+
+		assertFalse("an old session cannot leave", roster.leave("alice", 1500000000L));
+		assertTrue(roster.leave("alice", 1500000100L));
+		assertNull(roster.get("alice"));
+		assertEquals(0, roster.size());
+	}
+}
@@ -0,0 +1,33 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RttEstimatorTest {
+
+	@Test
+	public void smoothsMeasurements() {
+		RttEstimator rtt = new RttEstimator(1000, 10, 5000);
+		rtt.addMeasurement(100);
+		assertEquals(100, rtt.getSmoothedRtt(), 1e-9);
+		assertEquals(50, rtt.getRttVariation(), 1e-9);
+		assertEquals(300, rtt.getRto(), 1e-9);
+
+		rtt.addMeasurement(20);
+		assertEquals(90, rtt.getSmoothedRtt(), 1e-9);
+		assertEquals(57.5, rtt.getRttVariation(), 1e-9);
+		assertEquals(320, rtt.getRto(), 1e-9);
+	}
+
+	@Test
+	public void backoffDoublesUpToTheMaximum() {
+		RttEstimator rtt = new RttEstimator(1000, 200, 3000);
+		rtt.backoff();
+		assertEquals(2000, rtt.getRto(), 0);
+		rtt.backoff();
+		assertEquals(3000, rtt.getRto(), 0);
+		rtt.addMeasurement(1);
+		assertEquals(200, rtt.getRto(), 0);
+	}
+}
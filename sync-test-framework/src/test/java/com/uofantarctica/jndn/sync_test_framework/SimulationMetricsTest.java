@@ -0,0 +1,60 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationMetricsTest {
+
+	@Test
+	public void summarizesEveryReport() throws InterruptedException {
+		final SimulationMetrics metrics = new SimulationMetrics(2);
+		metrics.report(Arrays.asList(new UserChatSummary("a", 10, 1, 0), new UserChatSummary("b", 9, 0, -1)));
+		Thread other = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				metrics.messageReceived();
+				metrics.report(Collections.singletonList(new UserChatSummary("c", 10, 0, 0)));
+			}
+		});
+		other.start();
+
+		assertTrue(metrics.await(10, TimeUnit.SECONDS));
+		UserChatSummary summary = metrics.getSummary();
+		assertEquals(29, summary.getTotalCount());
+		assertEquals(1, summary.getDuplicates());
+		assertEquals(-1, summary.getNumLost());
+		assertEquals(2, summary.getAccumulationCount());
+		assertEquals(3, summary.getNumUniqueChats());
+		assertEquals(1, metrics.getReceipts());
+	}
+
+	@Test
+	public void stopsWaitingAtTheDeadline() throws InterruptedException {
+		SimulationMetrics metrics = new SimulationMetrics(2);
+		metrics.report(Collections.singletonList(new UserChatSummary("a", 10, 0, 0)));
+		assertFalse(metrics.await(10, TimeUnit.MILLISECONDS));
+		assertEquals(1, metrics.getNumReported());
+		assertEquals(10, metrics.getSummary().getTotalCount());
+	}
+
+	@Test
+	public void stopsWaitingForFailedParticipants() throws InterruptedException {
+		SimulationMetrics metrics = new SimulationMetrics(2);
+		metrics.report(Collections.singletonList(new UserChatSummary("a", 10, 0, 0)));
+		metrics.participantFailed();
+
+		assertTrue(metrics.await(0, TimeUnit.MILLISECONDS));
+		assertEquals(1, metrics.getNumReported());
+		assertEquals(1, metrics.getNumFailed());
+		UserChatSummary summary = metrics.getSummary();
+		assertEquals(1, summary.getAccumulationCount());
+		assertEquals(1, summary.getNumFailed());
+	}
+}
@@ -0,0 +1,64 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import com.uofantarctica.jndn.helpers.LatencyHistogram;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SweepResultTest {
+
+	private static UserChatSummary summary(long totalCount, long duplicates, long numLost, double receiptSeconds) {
+		UserChatSummary summary = new UserChatSummary("all participants", totalCount, duplicates, numLost);
+		summary.setReceiptWindow(1000, 1000 + receiptSeconds * 1000);
+		LatencyHistogram latency = new LatencyHistogram();
+		latency.record(2000);
+		summary.setLatency(latency);
+		return summary;
+	}
+
+	@Test
+	public void summarizesTrialsWithConfidenceIntervals() {
+		SweepResult result = new SweepResult(4, 10, 0, SweepRunner.DEFAULT_VARIANT);
+		UserChatSummary seeded = summary(120, 0, 0, 2);
+		seeded.setWorkloadSeed(42);
+		result.addTrial(seeded, 3000);
+		result.addTrial(summary(118, 2, -4, 2), 5000);
+		result.addFailedTrial(7);
+
+		assertEquals(3, result.getNumTrials());
+		assertEquals(Arrays.asList(42L, null, 7L), result.getWorkloadSeeds());
+		assertEquals(59, result.getMean(SweepResult.Metric.THROUGHPUT), 1e-9);
+		assertEquals(4000, result.getMean(SweepResult.Metric.COMPLETION_TIME), 1e-9);
+		assertEquals(2, result.getMean(SweepResult.Metric.LOST), 1e-9);
+		// Two trials: t = 12.706, standard deviation sqrt(2) * 1000.
+		assertEquals(12.706 * 1000, result.getConfidenceInterval(SweepResult.Metric.COMPLETION_TIME), 1e-6);
+		assertTrue(Double.isNaN(result.getMean(SweepResult.Metric.STARTUP_LATENCY)));
+	}
+
+	@Test
+	public void writesOneCsvRowPerPoint() throws IOException {
+		SweepResult result = new SweepResult(2, 5, 1.5, "hmac, no pre-encoding");
+		UserChatSummary summary = summary(10, 0, 0, 1);
+		summary.setWorkloadSeed(-3);
+		result.addTrial(summary, 1500);
+		result.addFailedTrial(11);
+		StringBuilder csv = new StringBuilder();
+		SweepResult.writeCsv(Collections.singletonList(result), csv);
+
+		String[] lines = csv.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("participants,num_messages,message_rate,variant,trials,throughput_msgs_per_s,"));
+		assertTrue(lines[0].endsWith(",workload_seeds"));
+		assertTrue(lines[1].startsWith("2,5,1.500,\"hmac, no pre-encoding\",2,10.000,,1500.000,,"));
+		assertTrue(lines[1].endsWith(",-3;11"));
+
+		StringBuilder json = new StringBuilder();
+		SweepResult.writeJson(Collections.singletonList(result), json);
+		assertTrue(json.toString().contains("\"trials\": 2, \"workload_seeds\": [-3, 11]"));
+	}
+}
@@ -0,0 +1,108 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SyncFactoriesTest {
+
+	@Test
+	public void registersBuiltInSyncsByName() {
+		assertSame(SyncFactories.CHRONOSYNC, SyncFactories.get("chronosync"));
+		assertSame(SyncFactories.DSYNC, SyncFactories.get("dsync"));
+		assertEquals("chronosync", SyncFactories.getNames().get(0));
+
+		SyncFactory custom = context -> null;
+		SyncFactories.register("custom-for-test", custom);
+		assertSame(custom, SyncFactories.get("custom-for-test"));
+		assertTrue(SyncFactories.getNames().contains("custom-for-test"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownNames() {
+		SyncFactories.get("no-such-sync");
+	}
+
+	@Test
+	public void mixesARoomParticipantByParticipant() {
+		ChatSimulationBuilder builder = ChatSimulationBuilder.aChatSimulation()
+				.withNumParticipants(3)
+				.withNumMessages(1)
+				.withSync(SyncFactories.CHRONOSYNC, SyncFactories.DSYNC);
+		ChatterOptions options = new ChatterOptions(builder, builder.workload, MessageTracer.DISABLED);
+		assertSame(SyncFactories.CHRONOSYNC, options.getSyncFactory(0));
+		assertSame(SyncFactories.DSYNC, options.getSyncFactory(1));
+		assertSame(SyncFactories.CHRONOSYNC, options.getSyncFactory(2));
+	}
+
+	@Test
+	public void expectsOnlyWhatInteroperatingSyncsHear() {
+		// Participant n sends n + 1 messages.
+		Workload growing = new Workload() {
+			@Override
+			public Arrivals newArrivals(int participantNo, int participants, double messageRate, Random random) {
+				return () -> 1;
+			}
+
+			@Override
+			public int getNumMessages(int participantNo, int participants, int numMessages) {
+				return participantNo + 1;
+			}
+		};
+		SyncFactory bridge = new SyncFactory() {
+			@Override
+			public SyncAdapter newSync(SyncContext context) {
+				return null;
+			}
+
+			@Override
+			public boolean interoperatesWith(SyncFactory other) {
+				return true;
+			}
+		};
+
+		ChatterOptions single = options(growing, 4, SyncFactories.CHRONOSYNC);
+		assertEquals(UserChatSummary.getExpectedNumUniqueChats(4), single.getExpectedUniqueChats());
+		assertEquals(3 * (1 + 2 + 3 + 4), single.getExpectedReceipts());
+
+		// 0 and 2 on ChronoSync, 1 and 3 on DSync: each hears one other.
+		ChatterOptions mixed = options(growing, 4, SyncFactories.CHRONOSYNC, SyncFactories.DSYNC);
+		assertFalse(mixed.hears(0, 1));
+		assertEquals(4, mixed.getExpectedUniqueChats());
+		assertEquals(3 + 1 + 4 + 2, mixed.getExpectedReceipts());
+		assertConsistent(mixed);
+
+		// Only the bridge participants hear across.
+		ChatterOptions bridged = options(growing, 5, SyncFactories.CHRONOSYNC, SyncFactories.DSYNC, bridge);
+		assertConsistent(bridged);
+	}
+
+	private static ChatterOptions options(Workload workload, int participants, SyncFactory... syncs) {
+		ChatSimulationBuilder builder = ChatSimulationBuilder.aChatSimulation()
+				.withNumParticipants(participants)
+				.withNumMessages(1)
+				.withSync(syncs);
+		return new ChatterOptions(builder, workload, MessageTracer.DISABLED);
+	}
+
+	// The totals match counting every receiver and producer pair.
+	private static void assertConsistent(ChatterOptions options) {
+		long chats = 0;
+		long receipts = 0;
+		for (int receiver = 0; receiver < options.messagesPerParticipant.length; ++receiver) {
+			for (int producer = 0; producer < options.messagesPerParticipant.length; ++producer) {
+				if (options.hears(receiver, producer)) {
+					++chats;
+					receipts += options.messagesPerParticipant[producer];
+				}
+			}
+		}
+		assertEquals(chats, options.getExpectedUniqueChats());
+		assertEquals(receipts, options.getExpectedReceipts());
+	}
+}
@@ -0,0 +1,57 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import net.named_data.jndn.Name;
+import net.named_data.jndn.sync.ChronoSync2013;
+import net.named_data.jndn.util.Blob;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SyncStateCoalescerTest {
+
+	@Test
+	public void keepsNewestSequencePerPrefixAndSession() {
+		SyncStateCoalescer coalescer = new SyncStateCoalescer();
+		int n = coalescer.coalesce(Arrays.asList(
+				state("/room/alice", 1, 3),
+				state("/room/bob", 7, 1),
+				state("/room/alice", 1, 5),
+				state("/room/alice", 2, 0),
+				state("/room/alice", 1, 4),
+				state("/room/me", 9, 9)), "me");
+
+		assertEquals(3, n);
+		assertEquals("/room/alice", coalescer.getDataPrefix(0));
+		assertEquals(5, coalescer.getSequenceNo(0));
+		assertEquals("/room/bob", coalescer.getDataPrefix(1));
+		assertEquals(1, coalescer.getSequenceNo(1));
+		assertEquals(2, coalescer.getSessionNo(2));
+		assertEquals(0, coalescer.getSequenceNo(2));
+		assertEquals(new Name("/room/alice/1/5"), coalescer.makeDataName(0, coalescer.getSequenceNo(0)));
+	}
+
+	@Test
+	public void reusesParsedPrefixesAcrossBatches() {
+		SyncStateCoalescer coalescer = new SyncStateCoalescer();
+		coalescer.coalesce(Arrays.asList(state("/room/alice", 1, 1)), "me");
+		Name prefixName = coalescer.getPrefixName(0);
+
+		List<ChronoSync2013.SyncState> batch = new ArrayList<>();
+		batch.add(state("/room/bob", 1, 2));
+		batch.add(state("/room/alice", 1, 2));
+		assertEquals(2, coalescer.coalesce(batch, "me"));
+		assertSame(prefixName, coalescer.getPrefixName(1));
+		assertEquals(2, coalescer.getSequenceNo(1));
+
+		assertEquals(0, coalescer.coalesce(new ArrayList<>(), "me"));
+	}
+
+	private static ChronoSync2013.SyncState state(String prefix, long session, long seq) {
+		return new ChronoSync2013.SyncState(prefix, session, seq, new Blob());
+	}
+}
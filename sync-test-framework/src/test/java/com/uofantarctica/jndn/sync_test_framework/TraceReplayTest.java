@@ -0,0 +1,80 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+public class TraceReplayTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	// Senders 7, 3 and 9 at 1000.000 s and on, 9 joining last.
+	private Path writeTrace() throws IOException {
+		Path path = folder.newFile("capture.trace").toPath();
+		try (TraceFile.Writer writer = new TraceFile.Writer(path)) {
+			writer.append(1000000000L, 7, 100);
+			writer.append(1000010000L, 3, 200);
+			writer.append(1000020000L, 7, 300);
+			writer.append(1000020000L, 3, 400);
+			writer.append(1000050000L, 9, 500);
+			writer.append(1000080000L, 7, 600);
+			writer.append(1000100000L, 3, 700);
+		}
+		return path;
+	}
+
+	@Test
+	public void readsRecordsAcrossSegments() throws IOException {
+		TraceFile trace = new TraceFile(writeTrace(), 3);
+		assertEquals(7, trace.size());
+		assertEquals(0, trace.getOffsetMicroseconds(0));
+		assertEquals(20000, trace.getOffsetMicroseconds(3));
+		assertEquals(9, trace.getSender(4));
+		assertEquals(700, trace.getPayloadBytes(6));
+		assertEquals(100000, trace.getOffsetMicroseconds(6));
+	}
+
+	@Test
+	public void replaysEachSenderOnItsParticipant() throws IOException {
+		// An index segment of 3 entries splits the first participant's records.
+		TraceReplay replay = new TraceReplay(TraceFile.open(writeTrace()), 2, 2, 3);
+		assertEquals(0, replay.getParticipant(7));
+		assertEquals(1, replay.getParticipant(3));
+		// The third sender wraps around to the first participant.
+		assertEquals(0, replay.getParticipant(9));
+		assertEquals(4, replay.getNumMessages(0, 2, 10));
+		assertEquals(3, replay.getNumMessages(1, 2, 10));
+
+		// Twice as fast as recorded, taken in a different order than sent.
+		Workload.Arrivals second = replay.newArrivals(1, 2, 0, null);
+		assertEquals(5, second.nextInterval(), 1e-9);
+		assertEquals(200, second.getPayloadBytes());
+		assertEquals(5, second.nextInterval(), 1e-9);
+		assertEquals(40, second.nextInterval(), 1e-9);
+		assertEquals(700, second.getPayloadBytes());
+
+		Workload.Arrivals first = replay.newArrivals(0, 2, 0, null);
+		assertEquals(0, first.nextInterval(), 1e-9);
+		assertEquals(10, first.nextInterval(), 1e-9);
+		assertEquals(15, first.nextInterval(), 1e-9);
+		assertEquals(500, first.getPayloadBytes());
+		assertEquals(15, first.nextInterval(), 1e-9);
+		assertEquals(600, first.getPayloadBytes());
+
+		// Fresh arrivals start from the participant's first message again.
+		assertEquals(5, replay.newArrivals(1, 2, 0, null).nextInterval(), 1e-9);
+	}
+
+	@Test
+	public void padsMessagesToTheirPayloadSize() {
+		String padded = ChronoChatUser.padMessage("sample_text3", 100);
+		assertEquals(100, padded.length());
+		assertEquals("sample_text3", ChronoChatUser.unpadMessage(padded));
+		assertEquals("sample_text3", ChronoChatUser.padMessage("sample_text3", 5));
+	}
+}
@@ -0,0 +1,59 @@
+package com.uofantarctica.jndn.sync_test_framework;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorkloadTest {
+	private static final int INTERVALS = 200000;
+
+	private static double meanInterval(Workload workload, int participantNo, int participants, double messageRate) {
+		return meanInterval(workload, participantNo, participants, messageRate, INTERVALS);
+	}
+
+	private static double meanInterval(Workload workload, int participantNo, int participants, double messageRate,
+			int intervals) {
+		Workload.Arrivals arrivals = workload.newArrivals(participantNo, participants, messageRate, new Random(7));
+		double sum = 0;
+		for (int i = 0; i < intervals; ++i) {
+			double interval = arrivals.nextInterval();
+			assertTrue(interval >= 0);
+			sum += interval;
+		}
+		return sum / intervals;
+	}
+
+	@Test
+	public void modelsKeepTheMeanRate() {
+		assertEquals(55, meanInterval(Workloads.uniform(), 0, 1, Workload.DEFAULT_MESSAGE_RATE), 0.5);
+		assertEquals(100, meanInterval(Workloads.poisson(), 0, 1, 10), 1);
+		// The mean of Pareto periods converges slowly, so take more of them.
+		assertEquals(100, meanInterval(Workloads.onOff(200, 800), 0, 1, 10, 10 * INTERVALS), 10);
+	}
+
+	@Test
+	public void skewedModelsMoveRateBetweenParticipants() {
+		// Weights 1, 1/2, 1/3 and 1/4, averaging 25/48.
+		double hottest = meanInterval(Workloads.zipf(1), 0, 4, 10);
+		double coldest = meanInterval(Workloads.zipf(1), 3, 4, 10);
+		assertEquals(4, coldest / hottest, 0.1);
+		assertEquals(100 * 25.0 / 48, hottest, 1);
+
+		// Weights 3, 1, 3 and 1, averaging 2.
+		assertEquals(100 / 1.5, meanInterval(Workloads.perUser(3, 1), 0, 4, 10), 1);
+		assertEquals(200, meanInterval(Workloads.perUser(3, 1), 1, 4, 10), 2);
+	}
+
+	@Test
+	public void sameSeedSameArrivals() {
+		Workload workload = Workloads.zipf(1.2, Workloads.onOff(50, 500));
+		Workload.Arrivals first = workload.newArrivals(1, 3, 20, new Random(42));
+		Workload.Arrivals second = workload.newArrivals(1, 3, 20, new Random(42));
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(first.nextInterval(), second.nextInterval(), 0);
+		}
+	}
+}